@@ -0,0 +1,124 @@
+package app.cta4j.benchmark;
+
+import app.cta4j.bluesky.dto.*;
+import app.cta4j.common.config.ObjectMapperConfiguration;
+import app.cta4j.common.dto.Secret;
+import app.cta4j.mastodon.dto.CreateStatusRequest;
+import app.cta4j.mastodon.dto.MastodonMedia;
+import app.cta4j.twitter.dto.CreateTweetMedia;
+import app.cta4j.twitter.dto.CreateTweetRequest;
+import app.cta4j.twitter.dto.Tweet;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+    private static final String TEXT = "Red Line train to Howard will be arriving at Clark/Lake at 6:15 PM 🎅";
+
+    private static final String UPLOAD_BLOB_RESPONSE = """
+    {"blob":{"$type":"blob","ref":{"$link":"bafkreibme22gw2h7y2h7tg2fhqotaqjucnbc24deqo72b6mkl2egezxhvy"},\
+    "mimeType":"image/png","size":184213}}""";
+
+    private static final String TWEET = """
+    {"id":"1445880548472328192","text":"Red Line train to Howard will be arriving at Clark/Lake at 6:15 PM 🎅",\
+    "edit_history_tweet_ids":["1445880548472328192"]}""";
+
+    private static final String MASTODON_MEDIA = """
+    {"id":"22348641","type":"image","url":null,"preview_url":"https://files.mastodon.social/preview.png",\
+    "remote_url":null,"text_url":null,"meta":{"original":{"width":1200,"height":800}},"description":null,\
+    "blurhash":"UFBWY:8_0Jxv4mx]t8t64.%M-:IUWGWAt6M}"}""";
+
+    private ObjectMapper objectMapper;
+
+    private CreateTweetRequest createTweetRequest;
+    private CreateRecordRequest createRecordRequest;
+    private CreateStatusRequest createStatusRequest;
+
+    private Secret secret;
+
+    @Setup
+    public void setUp() {
+        this.objectMapper = new ObjectMapperConfiguration().objectMapper();
+
+        this.createTweetRequest = new CreateTweetRequest(TEXT, new CreateTweetMedia(List.of("1445880548472328192")));
+
+        BlueskyBlob blob = new BlueskyBlob(
+            "blob",
+            new BlueskyBlob.Reference("bafkreibme22gw2h7y2h7tg2fhqotaqjucnbc24deqo72b6mkl2egezxhvy"),
+            "image/png",
+            184213
+        );
+
+        CreateRecordData recordData = new CreateRecordData(
+            TEXT,
+            Instant.parse("2025-12-01T00:15:00Z"),
+            new Embed("app.bsky.embed.images", List.of(new Image("Map", blob)))
+        );
+
+        this.createRecordRequest = new CreateRecordRequest(
+            "did:plc:z72i7hdynmk6r22z27h6tvur",
+            "app.bsky.feed.post",
+            recordData
+        );
+
+        this.createStatusRequest = new CreateStatusRequest(TEXT, List.of("22348641"));
+
+        this.secret = new Secret(
+            new Secret.TwitterSecret("id", "secret", "access", "refresh", Instant.parse("2025-12-01T00:00:00Z")),
+            new Secret.BlueskySecret("cta.bsky.social", "app-password"),
+            new Secret.MastodonSecret("mastodon"),
+            new Secret.MapboxSecret("mapbox"),
+            new Secret.CtaSecret("cta"),
+            new Secret.RollbarSecret("rollbar")
+        );
+    }
+
+    @Benchmark
+    public byte[] writeCreateTweetRequest() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.createTweetRequest);
+    }
+
+    @Benchmark
+    public byte[] writeCreateRecordRequest() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.createRecordRequest);
+    }
+
+    @Benchmark
+    public byte[] writeCreateStatusRequest() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.createStatusRequest);
+    }
+
+    @Benchmark
+    public UploadBlobResponse readUploadBlobResponse() throws JsonProcessingException {
+        return this.objectMapper.readValue(UPLOAD_BLOB_RESPONSE, UploadBlobResponse.class);
+    }
+
+    @Benchmark
+    public Tweet readTweet() throws JsonProcessingException {
+        return this.objectMapper.readValue(TWEET, Tweet.class);
+    }
+
+    @Benchmark
+    public MastodonMedia readMastodonMedia() throws JsonProcessingException {
+        return this.objectMapper.readValue(MASTODON_MEDIA, MastodonMedia.class);
+    }
+
+    @Benchmark
+    public Secret secretWithTwitterTokensRoundTrip() throws JsonProcessingException {
+        Secret updated = this.secret.withTwitterTokens("new-access", "new-refresh", Instant.parse("2025-12-01T02:00:00Z"));
+
+        String json = this.objectMapper.writeValueAsString(updated);
+
+        return this.objectMapper.readValue(json, Secret.class);
+    }
+}
@@ -0,0 +1,73 @@
+package app.cta4j.benchmark;
+
+import app.cta4j.common.dto.Media;
+import app.cta4j.common.media.MediaOptimizer;
+import app.cta4j.common.media.MediaProfile;
+import app.cta4j.common.metrics.MetricsRegistry;
+import org.apache.hc.core5.http.ContentType;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MediaOptimizerBenchmark {
+    private static final List<MediaProfile> PROFILES = List.of(
+        new MediaProfile(MediaProfile.Format.JPEG, 0.9F, 5_242_880L),
+        new MediaProfile(MediaProfile.Format.JPEG, 0.85F, 1_000_000L),
+        new MediaProfile(MediaProfile.Format.PNG, 1.0F, 16_777_216L)
+    );
+
+    private MediaOptimizer mediaOptimizer;
+
+    private Media media;
+
+    private static byte[] createMap() throws IOException {
+        BufferedImage image = new BufferedImage(1200, 800, BufferedImage.TYPE_INT_RGB);
+
+        Graphics2D graphics = image.createGraphics();
+
+        graphics.setColor(new Color(0xF2EFE9));
+        graphics.fillRect(0, 0, 1200, 800);
+
+        Random random = new Random(1225L);
+
+        for (int i = 0; i < 400; i++) {
+            graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+            graphics.setStroke(new BasicStroke(1 + random.nextInt(8)));
+            graphics.drawLine(random.nextInt(1200), random.nextInt(800), random.nextInt(1200), random.nextInt(800));
+        }
+
+        graphics.dispose();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        ImageIO.write(image, "png", outputStream);
+
+        return outputStream.toByteArray();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        this.mediaOptimizer = new MediaOptimizer(new MetricsRegistry());
+
+        this.media = new Media(createMap(), ContentType.IMAGE_PNG);
+    }
+
+    @Benchmark
+    public Map<MediaProfile, Media> optimize() {
+        return this.mediaOptimizer.optimize(this.media, PROFILES);
+    }
+}
@@ -0,0 +1,93 @@
+package app.cta4j.benchmark;
+
+import app.cta4j.mapbox.tile.OfflineMapRenderer;
+import app.cta4j.mapbox.tile.TilePack;
+import app.cta4j.mapbox.tile.TilePackWriter;
+import app.cta4j.mapbox.tile.WebMercator;
+import org.openjdk.jmh.annotations.*;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OfflineMapRendererBenchmark {
+    private static final int ZOOM = 15;
+    private static final int TILE_SIZE = 1024;
+    private static final int RADIUS = 2;
+
+    private static final double LATITUDE = 41.885737;
+    private static final double LONGITUDE = -87.630886;
+
+    private Path tilePackPath;
+
+    private OfflineMapRenderer renderer;
+
+    private static byte[] createTile(int x, int y) throws IOException {
+        BufferedImage image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+
+        Graphics2D graphics = image.createGraphics();
+
+        graphics.setColor(new Color((x * 37) & 0xFF, (y * 59) & 0xFF, 200));
+        graphics.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+
+        graphics.setColor(Color.WHITE);
+
+        for (int i = 0; i < TILE_SIZE; i += 64) {
+            graphics.drawLine(i, 0, TILE_SIZE - i, TILE_SIZE);
+        }
+
+        graphics.dispose();
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        ImageIO.write(image, "png", outputStream);
+
+        return outputStream.toByteArray();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        double worldSize = WebMercator.getWorldSize(ZOOM, TILE_SIZE);
+
+        int tileX = (int) (WebMercator.toPixelX(LONGITUDE, worldSize) / TILE_SIZE);
+        int tileY = (int) (WebMercator.toPixelY(LATITUDE, worldSize) / TILE_SIZE);
+
+        Map<Long, byte[]> tiles = new HashMap<>();
+
+        for (int dy = -RADIUS; dy <= RADIUS; dy++) {
+            for (int dx = -RADIUS; dx <= RADIUS; dx++) {
+                tiles.put(TilePack.key(ZOOM, tileX + dx, tileY + dy), createTile(tileX + dx, tileY + dy));
+            }
+        }
+
+        this.tilePackPath = Files.createTempFile("benchmark", ".tiles");
+
+        TilePackWriter.write(this.tilePackPath, TILE_SIZE, tiles);
+
+        this.renderer = new OfflineMapRenderer(this.tilePackPath.toString(), ZOOM, 1200, 800);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.tilePackPath);
+    }
+
+    @Benchmark
+    public Optional<byte[]> render() {
+        return this.renderer.render(LATITUDE, LONGITUDE);
+    }
+}
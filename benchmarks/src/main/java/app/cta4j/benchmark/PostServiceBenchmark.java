@@ -0,0 +1,178 @@
+package app.cta4j.benchmark;
+
+import app.cta4j.common.config.ObjectMapperConfiguration;
+import app.cta4j.common.dto.PostResult;
+import app.cta4j.common.http.PlatformEndpoints;
+import app.cta4j.common.metrics.MetricsRegistry;
+import app.cta4j.common.service.PostService;
+import app.cta4j.common.service.SecretService;
+import app.cta4j.common.service.StationService;
+import app.cta4j.common.service.TelemetryService;
+import app.cta4j.common.state.PostStateStore;
+import app.cta4j.common.util.Geohash;
+import app.cta4j.mapbox.cache.MapboxImageCache;
+import app.cta4j.mapbox.service.MapboxService;
+import app.cta4j.mapbox.tile.OfflineMapRenderer;
+import com.cta4j.train.model.Train;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rollbar.notifier.Rollbar;
+import com.rollbar.notifier.config.ConfigBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostServiceBenchmark {
+    private static final int GEOHASH_PRECISION = 8;
+
+    private static final String SECRET_JSON = """
+    {"twitter":{"clientId":"id","clientSecret":"secret","accessToken":"access","refreshToken":"refresh",\
+    "expirationTime":"2030-01-01T00:00:00Z"},"mapbox":{"accessToken":"mapbox"}}""";
+
+    private static final byte[] SAMPLE_IMAGE = new byte[64 * 1024];
+
+    @Param({"1", "8"})
+    public int arrivalCount;
+
+    private SecretService secretService;
+    private PostService postService;
+
+    private Train train;
+    private ZonedDateTime arrivalTime;
+
+    private static SecretsManagerClient secretsManagerClient() {
+        return new SecretsManagerClient() {
+            @Override
+            public GetSecretValueResponse getSecretValue(GetSecretValueRequest request) {
+                return GetSecretValueResponse.builder()
+                                             .secretString(SECRET_JSON)
+                                             .versionId("benchmark")
+                                             .build();
+            }
+
+            @Override
+            public String serviceName() {
+                return SERVICE_NAME;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static PostStateStore postStateStore() {
+        return new PostStateStore() {
+            @Override
+            public Optional<String> getFingerprint(String run) {
+                return Optional.empty();
+            }
+
+            @Override
+            public void putFingerprint(String run, String fingerprint) {
+            }
+        };
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapperConfiguration().objectMapper();
+
+        MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+        this.secretService = new SecretService(
+            secretsManagerClient(),
+            objectMapper,
+            metricsRegistry,
+            "benchmark",
+            Duration.ofDays(1L)
+        );
+
+        Path cacheDirectory = Files.createTempDirectory("mapbox-cache");
+
+        MapboxImageCache imageCache = new MapboxImageCache(cacheDirectory, 32, 32);
+
+        OfflineMapRenderer offlineMapRenderer = new OfflineMapRenderer("", 15, 1200, 800);
+
+        MapboxService mapboxService = new MapboxService(
+            this.secretService,
+            imageCache,
+            offlineMapRenderer,
+            null,
+            new PlatformEndpoints(
+                URI.create("https://api.x.com"),
+                URI.create("https://bsky.social"),
+                URI.create("https://mastodon.social"),
+                URI.create("https://api.mapbox.com")
+            ),
+            GEOHASH_PRECISION,
+            Duration.ofDays(365L)
+        );
+
+        StationService stationService = new StationService(new ClassPathResource("cta/stations.csv"), 150.0, 1500.0);
+
+        TelemetryService telemetryService = new TelemetryService(
+            stationService,
+            false,
+            cacheDirectory,
+            1,
+            1,
+            0,
+            Duration.ZERO
+        );
+
+        this.postService = new PostService(
+            null,
+            mapboxService,
+            postStateStore(),
+            metricsRegistry,
+            stationService,
+            telemetryService,
+            Rollbar.init(ConfigBuilder.withAccessToken("benchmark")
+                                      .enabled(false)
+                                      .build())
+        );
+
+        this.train = SyntheticTrains.create(this.arrivalCount, Instant.now());
+
+        String geohash = Geohash.encode(new BigDecimal("41.88574"), new BigDecimal("-87.63079"), GEOHASH_PRECISION);
+
+        imageCache.put(geohash, SAMPLE_IMAGE);
+
+        this.arrivalTime = ZonedDateTime.now(ZoneId.of("America/Chicago"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.secretService.shutdown();
+    }
+
+    @Benchmark
+    public String buildText() {
+        return this.postService.buildText("RED", "Howard", "Clark/Lake", this.arrivalTime);
+    }
+
+    @Benchmark
+    public PostResult buildPost() {
+        return this.postService.buildPost("benchmark", this.train);
+    }
+}
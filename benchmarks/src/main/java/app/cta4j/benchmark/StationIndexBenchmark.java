@@ -0,0 +1,71 @@
+package app.cta4j.benchmark;
+
+import app.cta4j.common.station.StationIndex;
+import app.cta4j.common.station.StationLocation;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StationIndexBenchmark {
+    private static final String RESOURCE = "/cta/stations.csv";
+
+    private static final double MAX_DISTANCE = 1_500.0;
+
+    private StationIndex stationIndex;
+
+    private static StationIndex loadIndex() throws IOException {
+        try (InputStream inputStream = StationIndexBenchmark.class.getResourceAsStream(RESOURCE)) {
+            Objects.requireNonNull(inputStream, RESOURCE);
+
+            return StationIndex.load(inputStream);
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        this.stationIndex = loadIndex();
+    }
+
+    /**
+     * Single-shot so the number reflects what a cold start pays, before the JIT has seen the parser.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 20)
+    @Fork(20)
+    public StationIndex loadCold() throws IOException {
+        return loadIndex();
+    }
+
+    @Benchmark
+    public StationIndex load() throws IOException {
+        return loadIndex();
+    }
+
+    @Benchmark
+    public Optional<StationLocation> locateDowntown() {
+        return this.stationIndex.locate(41.8857, -87.6308, MAX_DISTANCE);
+    }
+
+    @Benchmark
+    public Optional<StationLocation> locateBetweenStations() {
+        return this.stationIndex.locate(41.9285, -87.6530, MAX_DISTANCE);
+    }
+
+    @Benchmark
+    public Optional<StationLocation> locateOutsideNetwork() {
+        return this.stationIndex.locate(41.6000, -88.2000, MAX_DISTANCE);
+    }
+}
@@ -0,0 +1,140 @@
+package app.cta4j.benchmark;
+
+import com.cta4j.train.model.Train;
+import com.cta4j.train.model.TrainCoordinates;
+import com.cta4j.train.model.UpcomingTrainArrival;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds cta4j model records by component name, so the benchmarks do not depend on the SDK's full constructor shape.
+ */
+final class SyntheticTrains {
+    private static final ZoneId ZONE = ZoneId.of("America/Chicago");
+
+    private static final String[] STATIONS = {"Clark/Lake", "Washington", "Monroe", "Jackson", "Harrison"};
+
+    private SyntheticTrains() {
+    }
+
+    static Train create(int arrivalCount, Instant firstArrivalTime) {
+        List<UpcomingTrainArrival> arrivals = new ArrayList<>(arrivalCount);
+
+        for (int i = arrivalCount - 1; i >= 0; i--) {
+            Instant arrivalTime = firstArrivalTime.plus(Duration.ofMinutes(2L * i));
+
+            UpcomingTrainArrival arrival = newRecord(UpcomingTrainArrival.class, Map.of(
+                "route", "RED",
+                "destinationName", "Howard",
+                "stationName", STATIONS[i % STATIONS.length],
+                "arrivalTime", arrivalTime
+            ));
+
+            arrivals.add(arrival);
+        }
+
+        TrainCoordinates coordinates = newRecord(TrainCoordinates.class, Map.of(
+            "latitude", new BigDecimal("41.88574"),
+            "longitude", new BigDecimal("-87.63079")
+        ));
+
+        return newRecord(Train.class, Map.of(
+            "coordinates", coordinates,
+            "arrivals", List.copyOf(arrivals)
+        ));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object convert(Object value, Class<?> type) {
+        if (value == null) {
+            return defaultValue(type);
+        }
+
+        if (type.isEnum() && (value instanceof String name)) {
+            return Enum.valueOf((Class<? extends Enum>) type, name);
+        }
+
+        if (value instanceof Instant instant) {
+            if (type == LocalDateTime.class) {
+                return LocalDateTime.ofInstant(instant, ZONE);
+            }
+
+            if (type == ZonedDateTime.class) {
+                return instant.atZone(ZONE);
+            }
+        }
+
+        return value;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+
+        if (type == char.class) {
+            return '\0';
+        }
+
+        if (type.isPrimitive()) {
+            return switch (type.getName()) {
+                case "byte" -> (byte) 0;
+                case "short" -> (short) 0;
+                case "int" -> 0;
+                case "long" -> 0L;
+                case "float" -> 0.0F;
+                default -> 0.0;
+            };
+        }
+
+        if (type == String.class) {
+            return "";
+        }
+
+        if (type == List.class) {
+            return List.of();
+        }
+
+        return null;
+    }
+
+    private static <T> T newRecord(Class<T> type, Map<String, Object> values) {
+        if (!type.isRecord()) {
+            throw new IllegalStateException(String.format("%s is not a record", type.getName()));
+        }
+
+        RecordComponent[] components = type.getRecordComponents();
+
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+
+        Object[] arguments = new Object[components.length];
+
+        for (int i = 0; i < components.length; i++) {
+            RecordComponent component = components[i];
+
+            parameterTypes[i] = component.getType();
+
+            arguments[i] = convert(values.get(component.getName()), component.getType());
+        }
+
+        try {
+            Constructor<T> constructor = type.getDeclaredConstructor(parameterTypes);
+
+            return constructor.newInstance(arguments);
+        } catch (NoSuchMethodException | InstantiationException | IllegalAccessException |
+                 InvocationTargetException e) {
+            throw new IllegalStateException(String.format("Failed to create %s", type.getName()), e);
+        }
+    }
+}
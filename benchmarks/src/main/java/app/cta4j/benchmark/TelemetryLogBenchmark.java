@@ -0,0 +1,69 @@
+package app.cta4j.benchmark;
+
+import app.cta4j.common.telemetry.TelemetryLog;
+import app.cta4j.common.telemetry.Trail;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TelemetryLogBenchmark {
+    private static final int SEGMENT_RECORDS = 8192;
+    private static final int MAX_SEGMENTS = 8;
+
+    private static final int TRACKED_RUN = 1225;
+    private static final int OTHER_RUN = 612;
+
+    @Param({"12", "64"})
+    public int trailLength;
+
+    private TelemetryLog telemetryLog;
+
+    private Trail trail;
+
+    private long timestampMillis;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path directory = Files.createTempDirectory("telemetry");
+
+        this.telemetryLog = TelemetryLog.open(directory, SEGMENT_RECORDS, MAX_SEGMENTS);
+
+        this.trail = new Trail(this.trailLength);
+
+        for (int i = 0; i < (SEGMENT_RECORDS * 2); i++) {
+            this.append((i % 2 == 0) ? TRACKED_RUN : OTHER_RUN);
+        }
+    }
+
+    private void append(int run) throws IOException {
+        this.timestampMillis += 15_000L;
+
+        double offset = (this.timestampMillis / 15_000L) * 0.0001;
+
+        this.telemetryLog.append(this.timestampMillis, run, 40380, 41.8857 + offset, -87.6308, this.timestampMillis);
+    }
+
+    /**
+     * Includes a segment roll every {@value SEGMENT_RECORDS} appends, which is the only allocating path.
+     */
+    @Benchmark
+    public void append() throws IOException {
+        this.append(TRACKED_RUN);
+    }
+
+    @Benchmark
+    public Trail readTrail() {
+        this.telemetryLog.readTrail(TRACKED_RUN, 0L, this.trail);
+
+        return this.trail;
+    }
+}
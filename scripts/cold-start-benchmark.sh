@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+#
+# Measures cold-start latency of the deployed Lambda function.
+#
+# Each iteration forces a new execution environment by touching an environment variable, invokes the function once and
+# reads the REPORT line for that invocation. Run it once against a version without SnapStart and once against a
+# published version with SnapStart enabled to compare "Init Duration" with "Restore Duration".
+#
+# Usage: scripts/cold-start-benchmark.sh <function-name> [qualifier] [iterations]
+
+set -euo pipefail
+
+FUNCTION_NAME="${1:?function name is required}"
+QUALIFIER="${2:-\$LATEST}"
+ITERATIONS="${3:-10}"
+
+OUTPUT_FILE="$(mktemp)"
+
+force_cold_start() {
+    local variables
+
+    variables="$(aws lambda get-function-configuration \
+        --function-name "${FUNCTION_NAME}" \
+        --query 'Environment.Variables' \
+        --output json)"
+
+    variables="$(jq -c --arg nonce "$(date +%s%N)" '. + {APP_BENCHMARK_NONCE: $nonce}' <<< "${variables}")"
+
+    aws lambda update-function-configuration \
+        --function-name "${FUNCTION_NAME}" \
+        --environment "{\"Variables\": ${variables}}" \
+        --output text > /dev/null
+
+    aws lambda wait function-updated --function-name "${FUNCTION_NAME}"
+
+    if [[ "${QUALIFIER}" != "\$LATEST" ]]; then
+        QUALIFIER="$(aws lambda publish-version \
+            --function-name "${FUNCTION_NAME}" \
+            --query 'Version' \
+            --output text)"
+
+        aws lambda wait published-version-active \
+            --function-name "${FUNCTION_NAME}" \
+            --qualifier "${QUALIFIER}"
+    fi
+}
+
+for ((i = 1; i <= ITERATIONS; i++)); do
+    force_cold_start
+
+    report="$(aws lambda invoke \
+        --function-name "${FUNCTION_NAME}" \
+        --qualifier "${QUALIFIER}" \
+        --log-type Tail \
+        --query 'LogResult' \
+        --output text \
+        /dev/null | base64 --decode | grep '^REPORT')"
+
+    init="$(grep -oE '(Init|Restore) Duration: [0-9.]+' <<< "${report}" || true)"
+    duration="$(grep -oE '	Duration: [0-9.]+' <<< "${report}" | awk '{print $2}')"
+
+    echo "${i} ${init:-Init Duration: 0} total ${duration}" | tee -a "${OUTPUT_FILE}"
+done
+
+awk '{ startup += $4; total += $6 } END {
+    printf "average startup: %.1f ms, average duration: %.1f ms over %d cold starts\n", startup / NR, total / NR, NR
+}' "${OUTPUT_FILE}"
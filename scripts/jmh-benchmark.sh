@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+#
+# Runs the JMH benchmarks with the GC profiler and stores the results as a JSON baseline.
+#
+# "run" builds the application and the benchmarks module, then writes benchmarks/baselines/<name>.json. "compare" prints
+# the ns/op score and the normalized allocation rate (B/op) of two baselines side by side.
+#
+# Usage: scripts/jmh-benchmark.sh run [name] [jmh-args...]
+#        scripts/jmh-benchmark.sh compare <baseline> <candidate>
+
+set -euo pipefail
+
+ROOT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)"
+BASELINE_DIR="${ROOT_DIR}/benchmarks/baselines"
+
+run() {
+    local name="${1:-$(git -C "${ROOT_DIR}" rev-parse --short HEAD)}"
+
+    shift || true
+
+    "${ROOT_DIR}/mvnw" -B -q -f "${ROOT_DIR}/pom.xml" install -DskipTests
+    "${ROOT_DIR}/mvnw" -B -q -f "${ROOT_DIR}/benchmarks/pom.xml" package
+
+    mkdir -p "${BASELINE_DIR}"
+
+    java -jar "${ROOT_DIR}/benchmarks/target/benchmarks.jar" \
+        -prof gc \
+        -rf json \
+        -rff "${BASELINE_DIR}/${name}.json" \
+        "$@"
+
+    echo "Baseline written to ${BASELINE_DIR}/${name}.json"
+}
+
+summarize() {
+    jq -r '.[] | [
+        (.benchmark | split(".") | last) + (if .params then "(" + (.params | to_entries | map("\(.key)=\(.value)") | join(",")) + ")" else "" end),
+        .primaryMetric.score,
+        (.secondaryMetrics["gc.alloc.rate.norm"].score // 0)
+    ] | @tsv' "$1" | sort
+}
+
+compare() {
+    local baseline="${1:?baseline file is required}"
+    local candidate="${2:?candidate file is required}"
+
+    printf '%-48s %14s %14s %8s %12s %12s %8s\n' "Benchmark" "ns/op (base)" "ns/op (new)" "delta" "B/op (base)" "B/op (new)" "delta"
+
+    join -t $'\t' <(summarize "${baseline}") <(summarize "${candidate}") | \
+        awk -F '\t' '{
+            time_delta = ($2 > 0) ? (($4 - $2) / $2) * 100 : 0;
+            alloc_delta = ($3 > 0) ? (($5 - $3) / $3) * 100 : 0;
+            printf "%-48s %14.1f %14.1f %7.1f%% %12.1f %12.1f %7.1f%%\n", $1, $2, $4, time_delta, $3, $5, alloc_delta
+        }'
+}
+
+COMMAND="${1:?command is required (run or compare)}"
+
+shift
+
+case "${COMMAND}" in
+    run) run "$@" ;;
+    compare) compare "$@" ;;
+    *) echo "Unknown command: ${COMMAND}" >&2; exit 1 ;;
+esac
@@ -3,17 +3,25 @@ package app.cta4j.bluesky.publisher;
 import app.cta4j.bluesky.dto.BlueskyBlob;
 import app.cta4j.bluesky.dto.BlueskyRecord;
 import app.cta4j.bluesky.dto.Session;
+import app.cta4j.bluesky.exception.BlueskyException;
 import app.cta4j.bluesky.service.BlueskyBlobService;
 import app.cta4j.bluesky.service.BlueskyRecordService;
-import app.cta4j.bluesky.service.BlueskySessionService;
+import app.cta4j.bluesky.service.BlueskySessionManager;
+import app.cta4j.common.cache.MediaIdCache;
+import app.cta4j.common.dto.Media;
 import app.cta4j.common.dto.Post;
+import app.cta4j.common.media.MediaProfile;
 import app.cta4j.common.publisher.SocialPublisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public final class BlueskyPublisher implements SocialPublisher {
@@ -21,19 +29,31 @@ public final class BlueskyPublisher implements SocialPublisher {
 
     private static final String PLATFORM_NAME = "Bluesky";
 
-    private final BlueskySessionService sessionService;
+    private final BlueskySessionManager sessionManager;
     private final BlueskyBlobService blobService;
     private final BlueskyRecordService recordService;
+    private final MediaIdCache mediaIdCache;
+
+    private final Duration mediaReuseWindow;
+    private final MediaProfile mediaProfile;
 
     @Autowired
     public BlueskyPublisher(
-        BlueskySessionService sessionService,
+        BlueskySessionManager sessionManager,
         BlueskyBlobService blobService,
-        BlueskyRecordService recordService
+        BlueskyRecordService recordService,
+        MediaIdCache mediaIdCache,
+        @Value("${app.media-cache.bluesky.reuse-window}") Duration mediaReuseWindow,
+        @Value("${app.media.bluesky.format}") MediaProfile.Format mediaFormat,
+        @Value("${app.media.bluesky.quality}") float mediaQuality,
+        @Value("${app.media.bluesky.max-bytes}") long mediaMaxBytes
     ) {
-        this.sessionService = sessionService;
+        this.sessionManager = sessionManager;
         this.blobService = blobService;
         this.recordService = recordService;
+        this.mediaIdCache = mediaIdCache;
+        this.mediaReuseWindow = mediaReuseWindow;
+        this.mediaProfile = new MediaProfile(mediaFormat, mediaQuality, mediaMaxBytes);
     }
 
     @Override
@@ -41,10 +61,68 @@ public final class BlueskyPublisher implements SocialPublisher {
         return PLATFORM_NAME;
     }
 
+    @Override
+    public MediaProfile getMediaProfile() {
+        return this.mediaProfile;
+    }
+
+    private Optional<BlueskyBlob> getCachedBlob(Media media) {
+        Optional<BlueskyBlob> cachedBlob = this.mediaIdCache.get(PLATFORM_NAME, media, BlueskyBlob.class);
+
+        cachedBlob.ifPresent(blob -> log.info("Reusing uploaded blob {} on Bluesky", blob.reference().link()));
+
+        return cachedBlob;
+    }
+
+    private BlueskyBlob uploadBlob(Session session, Media media) {
+        Optional<BlueskyBlob> cachedBlob = this.getCachedBlob(media);
+
+        if (cachedBlob.isPresent()) {
+            return cachedBlob.get();
+        }
+
+        BlueskyBlob blob = this.blobService.uploadBlob(session, media);
+
+        this.mediaIdCache.put(PLATFORM_NAME, media, blob, this.mediaReuseWindow);
+
+        return blob;
+    }
+
+    private CompletableFuture<BlueskyBlob> uploadBlobAsync(Session session, Media media) {
+        Optional<BlueskyBlob> cachedBlob = this.getCachedBlob(media);
+
+        if (cachedBlob.isPresent()) {
+            return CompletableFuture.completedFuture(cachedBlob.get());
+        }
+
+        return this.blobService.uploadBlobAsync(session, media)
+                               .thenApply(blob -> {
+                                   this.mediaIdCache.put(PLATFORM_NAME, media, blob, this.mediaReuseWindow);
+
+                                   return blob;
+                               });
+    }
+
     @Override
     public void publish(Post post) {
-        Session session = this.sessionService.createSession();
+        Objects.requireNonNull(post);
+
+        Session session = this.sessionManager.getSession();
+
+        try {
+            this.publish(session, post);
+        } catch (BlueskyException e) {
+            this.sessionManager.invalidate(session);
+
+            if (post.media() != null) {
+                this.mediaIdCache.invalidate(PLATFORM_NAME, post.media());
+            }
 
+            throw e;
+        }
+    }
+
+    private void publish(Session session, Post post) {
         if (post.media() == null) {
             BlueskyRecord record = this.recordService.createRecord(session, post.text());
 
@@ -53,12 +131,41 @@ public final class BlueskyPublisher implements SocialPublisher {
             return;
         }
 
-        File media = post.media();
+        Media media = post.media();
 
-        BlueskyBlob blob = this.blobService.uploadBlob(session, media);
+        BlueskyBlob blob = this.uploadBlob(session, media);
 
         BlueskyRecord record = this.recordService.createRecord(session, post.text(), blob);
 
         log.info("Post created on Bluesky with ID {}", record.cid());
     }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(Post post) {
+        Objects.requireNonNull(post);
+
+        Session session = this.sessionManager.getSession();
+
+        CompletableFuture<BlueskyRecord> future;
+
+        if (post.media() == null) {
+            future = this.recordService.createRecordAsync(session, post.text(), null);
+        } else {
+            future = this.uploadBlobAsync(session, post.media())
+                         .thenCompose(blob -> this.recordService.createRecordAsync(session, post.text(), blob));
+        }
+
+        return future.whenComplete((record, throwable) -> {
+                         if (throwable == null) {
+                             return;
+                         }
+
+                         this.sessionManager.invalidate(session);
+
+                         if (post.media() != null) {
+                             this.mediaIdCache.invalidate(PLATFORM_NAME, post.media());
+                         }
+                     })
+                     .thenAccept(record -> log.info("Post created on Bluesky with ID {}", record.cid()));
+    }
 }
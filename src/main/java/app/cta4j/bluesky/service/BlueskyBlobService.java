@@ -4,48 +4,64 @@ import app.cta4j.bluesky.dto.BlueskyBlob;
 import app.cta4j.bluesky.dto.Session;
 import app.cta4j.bluesky.dto.UploadBlobResponse;
 import app.cta4j.bluesky.exception.BlueskyException;
+import app.cta4j.common.dto.Media;
 import app.cta4j.common.dto.Response;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import app.cta4j.common.http.AsyncRequestExecutor;
+import app.cta4j.common.http.JsonResponseHandler;
+import app.cta4j.common.http.MediaEntityProducer;
+import app.cta4j.common.http.PlatformEndpoints;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.core5.http.*;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.http.io.entity.FileEntity;
 import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
 import org.apache.hc.core5.net.URIBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public final class BlueskyBlobService {
-    private static final String SCHEME = "https";
-    private static final String HOST_NAME = "bsky.social";
     private static final String BLOB_ENDPOINT = "/xrpc/com.atproto.repo.uploadBlob";
 
     private final CloseableHttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    private final AsyncRequestExecutor asyncRequestExecutor;
+
+    private final URI baseUri;
+
+    private final JsonResponseHandler<UploadBlobResponse, BlueskyBlob> responseHandler;
 
     @Autowired
-    public BlueskyBlobService(CloseableHttpClient httpClient, ObjectMapper objectMapper) {
+    public BlueskyBlobService(
+        CloseableHttpClient httpClient,
+        ObjectMapper objectMapper,
+        AsyncRequestExecutor asyncRequestExecutor,
+        PlatformEndpoints platformEndpoints
+    ) {
         this.httpClient = httpClient;
-        this.objectMapper = objectMapper;
+        this.asyncRequestExecutor = asyncRequestExecutor;
+        this.baseUri = platformEndpoints.getBluesky();
+        this.responseHandler = new JsonResponseHandler<>(
+            objectMapper.readerFor(UploadBlobResponse.class),
+            Set.of(HttpStatus.SC_OK),
+            UploadBlobResponse::blob,
+            e -> new BlueskyException("Failed to parse upload blob response", e)
+        );
     }
 
     private URI getUri() {
         URI uri;
 
         try {
-            uri = new URIBuilder()
-                .setScheme(SCHEME)
-                .setHost(HOST_NAME)
-                .setPath(BLOB_ENDPOINT)
+            uri = new URIBuilder(this.baseUri)
+                .appendPath(BLOB_ENDPOINT)
                 .build();
         } catch (URISyntaxException e) {
             throw new BlueskyException("Failed to build URI for blob endpoint", e);
@@ -62,7 +78,7 @@ public final class BlueskyBlobService {
         return new BasicHeader(HttpHeaders.AUTHORIZATION, headerString);
     }
 
-    private HttpPost buildRequest(Session session, File file) {
+    private HttpPost buildRequest(Session session) {
         URI uri = this.getUri();
 
         HttpPost httpPost = new HttpPost(uri);
@@ -71,59 +87,51 @@ public final class BlueskyBlobService {
 
         httpPost.addHeader(authorizationHeader);
 
-        FileEntity fileEntity = new FileEntity(file, ContentType.IMAGE_PNG);
-
-        httpPost.setEntity(fileEntity);
-
         return httpPost;
     }
 
-    private Response<BlueskyBlob> handleResponse(ClassicHttpResponse httpResponse) throws IOException, ParseException {
-        int statusCode = httpResponse.getCode();
-
-        if (statusCode != HttpStatus.SC_OK) {
-            return new Response<>(statusCode, null);
-        }
-
-        HttpEntity entity = httpResponse.getEntity();
-
-        String entityString = EntityUtils.toString(entity);
+    private BlueskyBlob getBlob(Response<BlueskyBlob> response) {
+        BlueskyBlob blob = response.data();
 
-        UploadBlobResponse uploadBlobResponse;
+        if (blob == null) {
+            String message = String.format("Failed to upload blob, status code: %d", response.statusCode());
 
-        try {
-            uploadBlobResponse = this.objectMapper.readValue(entityString, UploadBlobResponse.class);
-        } catch (JsonProcessingException e) {
-            throw new BlueskyException("Failed to parse upload blob response", e);
+            throw new BlueskyException(message);
         }
 
-        BlueskyBlob blob = uploadBlobResponse.blob();
-
-        return new Response<>(statusCode, blob);
+        return blob;
     }
 
-    public BlueskyBlob uploadBlob(Session session, File file) {
+    public BlueskyBlob uploadBlob(Session session, Media media) {
         Objects.requireNonNull(session);
-        Objects.requireNonNull(file);
+        Objects.requireNonNull(media);
+
+        HttpPost httpPost = this.buildRequest(session);
+
+        HttpEntity entity = media.toEntity();
 
-        HttpPost httpPost = this.buildRequest(session, file);
+        httpPost.setEntity(entity);
 
         Response<BlueskyBlob> response;
 
         try {
-            response = this.httpClient.execute(httpPost, this::handleResponse);
+            response = this.httpClient.execute(httpPost, this.responseHandler);
         } catch (IOException e) {
             throw new BlueskyException("Failed to execute blob upload request", e);
         }
 
-        BlueskyBlob blob = response.data();
+        return this.getBlob(response);
+    }
 
-        if (blob == null) {
-            String message = String.format("Failed to upload blob, status code: %d", response.statusCode());
+    public CompletableFuture<BlueskyBlob> uploadBlobAsync(Session session, Media media) {
+        Objects.requireNonNull(session);
+        Objects.requireNonNull(media);
 
-            throw new BlueskyException(message);
-        }
+        HttpPost httpPost = this.buildRequest(session);
 
-        return blob;
+        AsyncEntityProducer entityProducer = MediaEntityProducer.of(media);
+
+        return this.asyncRequestExecutor.execute(httpPost, entityProducer, this.responseHandler)
+                                        .thenApply(this::getBlob);
     }
 }
@@ -3,12 +3,16 @@ package app.cta4j.bluesky.service;
 import app.cta4j.bluesky.dto.*;
 import app.cta4j.bluesky.exception.BlueskyException;
 import app.cta4j.common.dto.Response;
+import app.cta4j.common.http.AsyncRequestExecutor;
+import app.cta4j.common.http.JsonResponseHandler;
+import app.cta4j.common.http.PlatformEndpoints;
+import app.cta4j.common.http.RateLimitRetryStrategy;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.http.*;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.net.URIBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,11 +25,12 @@ import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Service
 public final class BlueskyRecordService {
-    private static final String SCHEME = "https";
-    private static final String HOST_NAME = "bsky.social";
     private static final String RECORD_ENDPOINT = "/xrpc/com.atproto.repo.createRecord";
     private static final String RECORD_COLLECTION = "app.bsky.feed.post";
     private static final String EMBED_TYPE = "app.bsky.embed.images";
@@ -33,21 +38,37 @@ public final class BlueskyRecordService {
 
     private final CloseableHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final AsyncRequestExecutor asyncRequestExecutor;
+
+    private final URI baseUri;
+
+    private final JsonResponseHandler<BlueskyRecord, BlueskyRecord> responseHandler;
 
     @Autowired
-    public BlueskyRecordService(CloseableHttpClient httpClient, ObjectMapper objectMapper) {
+    public BlueskyRecordService(
+        CloseableHttpClient httpClient,
+        ObjectMapper objectMapper,
+        AsyncRequestExecutor asyncRequestExecutor,
+        PlatformEndpoints platformEndpoints
+    ) {
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
+        this.asyncRequestExecutor = asyncRequestExecutor;
+        this.baseUri = platformEndpoints.getBluesky();
+        this.responseHandler = new JsonResponseHandler<>(
+            objectMapper.readerFor(BlueskyRecord.class),
+            Set.of(HttpStatus.SC_OK),
+            Function.identity(),
+            e -> new BlueskyException("Failed to parse create record response", e)
+        );
     }
 
     private URI buildUri() {
         URI uri;
 
         try {
-            uri = new URIBuilder()
-                .setScheme(SCHEME)
-                .setHost(HOST_NAME)
-                .setPath(RECORD_ENDPOINT)
+            uri = new URIBuilder(this.baseUri)
+                .appendPath(RECORD_ENDPOINT)
                 .build();
         } catch (URISyntaxException e) {
             throw new BlueskyException("Failed to build URI for create record endpoint", e);
@@ -119,26 +140,16 @@ public final class BlueskyRecordService {
         return httpPost;
     }
 
-    private Response<BlueskyRecord> handleResponse(ClassicHttpResponse httpResponse) throws IOException, ParseException {
-        int statusCode = httpResponse.getCode();
-
-        HttpEntity entity = httpResponse.getEntity();
-
-        String entityString = EntityUtils.toString(entity);
-
-        if (statusCode != HttpStatus.SC_OK) {
-            return new Response<>(statusCode, null);
-        }
+    private BlueskyRecord getRecord(Response<BlueskyRecord> response) {
+        BlueskyRecord record = response.data();
 
-        BlueskyRecord record;
+        if (record == null) {
+            String message = String.format("Failed to create record, status code: %d", response.statusCode());
 
-        try {
-            record = this.objectMapper.readValue(entityString, BlueskyRecord.class);
-        } catch (JsonProcessingException e) {
-            throw new BlueskyException("Failed to parse create record response", e);
+            throw new BlueskyException(message);
         }
 
-        return new Response<>(statusCode, record);
+        return record;
     }
 
     public BlueskyRecord createRecord(Session session, String text, BlueskyBlob blob) {
@@ -147,23 +158,31 @@ public final class BlueskyRecordService {
 
         HttpPost httpPost = this.buildRequest(session, text, blob);
 
+
+        HttpClientContext context = RateLimitRetryStrategy.createNonIdempotentContext();
+
         Response<BlueskyRecord> response;
 
         try {
-            response = this.httpClient.execute(httpPost, this::handleResponse);
+            response = this.httpClient.execute(httpPost, context, this.responseHandler);
         } catch (IOException e) {
             throw new BlueskyException("Failed to execute create record request", e);
         }
 
-        BlueskyRecord record = response.data();
+        return this.getRecord(response);
+    }
 
-        if (record == null) {
-            String message = String.format("Failed to create record, status code: %d", response.statusCode());
+    public CompletableFuture<BlueskyRecord> createRecordAsync(Session session, String text, BlueskyBlob blob) {
+        Objects.requireNonNull(session);
+        Objects.requireNonNull(text);
 
-            throw new BlueskyException(message);
-        }
+        HttpPost httpPost = this.buildRequest(session, text, blob);
 
-        return record;
+
+        HttpClientContext context = RateLimitRetryStrategy.createNonIdempotentContext();
+
+        return this.asyncRequestExecutor.execute(httpPost, context, this.responseHandler)
+                                        .thenApply(this::getRecord);
     }
 
     public BlueskyRecord createRecord(Session session, String text) {
@@ -0,0 +1,140 @@
+package app.cta4j.bluesky.service;
+
+import app.cta4j.bluesky.dto.Session;
+import app.cta4j.bluesky.exception.BlueskyException;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public final class BlueskySessionManager {
+    private static final Logger log = LoggerFactory.getLogger(BlueskySessionManager.class);
+
+    private static final Duration REFRESH_THRESHOLD = Duration.ofMinutes(5);
+
+    private static final Duration FALLBACK_LIFETIME = Duration.ofMinutes(30);
+
+    private final BlueskySessionService sessionService;
+
+    private final ReentrantLock lock;
+
+    private volatile CachedSession cachedSession;
+
+    private record CachedSession(Session session, Instant accessExpirationTime, Instant refreshExpirationTime) {
+    }
+
+    @Autowired
+    public BlueskySessionManager(BlueskySessionService sessionService) {
+        this.sessionService = sessionService;
+        this.lock = new ReentrantLock();
+    }
+
+    private static Instant getExpirationTime(String jwt) {
+        Date expirationTime = null;
+
+        try {
+            JWTClaimsSet claimsSet = JWTParser.parse(jwt)
+                                              .getJWTClaimsSet();
+
+            expirationTime = claimsSet.getExpirationTime();
+        } catch (ParseException e) {
+            log.warn("Failed to parse Bluesky JWT expiration time", e);
+        }
+
+        if (expirationTime == null) {
+            return Instant.now()
+                          .plus(FALLBACK_LIFETIME);
+        }
+
+        return expirationTime.toInstant();
+    }
+
+    private static boolean isUsable(Instant expirationTime) {
+        Instant thresholdTime = expirationTime.minus(REFRESH_THRESHOLD);
+
+        return Instant.now()
+                      .isBefore(thresholdTime);
+    }
+
+    private static CachedSession toCachedSession(Session session) {
+        Instant accessExpirationTime = getExpirationTime(session.accessJwt());
+
+        Instant refreshExpirationTime = getExpirationTime(session.refreshJwt());
+
+        return new CachedSession(session, accessExpirationTime, refreshExpirationTime);
+    }
+
+    private CachedSession renewSession(CachedSession current) {
+        if ((current != null) && isUsable(current.refreshExpirationTime())) {
+            try {
+                Session session = this.sessionService.refreshSession(current.session());
+
+                log.info("Refreshed Bluesky session");
+
+                return toCachedSession(session);
+            } catch (BlueskyException e) {
+                log.warn("Failed to refresh Bluesky session, falling back to creating a new one", e);
+            }
+        }
+
+        Session session = this.sessionService.createSession();
+
+        log.info("Created new Bluesky session");
+
+        return toCachedSession(session);
+    }
+
+    public Session getSession() {
+        CachedSession current = this.cachedSession;
+
+        if ((current != null) && isUsable(current.accessExpirationTime())) {
+            return current.session();
+        }
+
+        this.lock.lock();
+
+        try {
+            current = this.cachedSession;
+
+            if ((current != null) && isUsable(current.accessExpirationTime())) {
+                return current.session();
+            }
+
+            CachedSession renewed = this.renewSession(current);
+
+            this.cachedSession = renewed;
+
+            return renewed.session();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public void invalidate(Session session) {
+        Objects.requireNonNull(session);
+
+        this.lock.lock();
+
+        try {
+            CachedSession current = this.cachedSession;
+
+            if ((current == null) || (current.session() != session)) {
+                return;
+            }
+
+            this.cachedSession = new CachedSession(session, Instant.EPOCH, current.refreshExpirationTime());
+        } finally {
+            this.lock.unlock();
+        }
+    }
+}
@@ -5,13 +5,14 @@ import app.cta4j.bluesky.dto.Session;
 import app.cta4j.bluesky.exception.BlueskyException;
 import app.cta4j.common.dto.Response;
 import app.cta4j.common.dto.Secret;
+import app.cta4j.common.http.JsonResponseHandler;
+import app.cta4j.common.http.PlatformEndpoints;
 import app.cta4j.common.service.SecretService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.core5.http.*;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.net.URIBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,36 +22,48 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 public final class BlueskySessionService {
-    private static final String SCHEME = "https";
-    private static final String HOST_NAME = "bsky.social";
     private static final String SESSION_ENDPOINT = "/xrpc/com.atproto.server.createSession";
+    private static final String REFRESH_SESSION_ENDPOINT = "/xrpc/com.atproto.server.refreshSession";
 
     private final SecretService secretService;
     private final CloseableHttpClient httpClient;
     private final ObjectMapper objectMapper;
 
+    private final URI baseUri;
+
+    private final JsonResponseHandler<Session, Session> responseHandler;
+
     @Autowired
     public BlueskySessionService(
         SecretService secretService,
         CloseableHttpClient httpClient,
-        ObjectMapper objectMapper
+        ObjectMapper objectMapper,
+        PlatformEndpoints platformEndpoints
     ) {
         this.secretService = secretService;
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
+        this.baseUri = platformEndpoints.getBluesky();
+        this.responseHandler = new JsonResponseHandler<>(
+            objectMapper.readerFor(Session.class),
+            Set.of(HttpStatus.SC_OK),
+            Function.identity(),
+            e -> new BlueskyException("Failed to parse create session response", e)
+        );
     }
 
-    private URI buildUri() {
+    private URI buildUri(String endpoint) {
         URI uri;
 
         try {
-            uri = new URIBuilder()
-                .setScheme(SCHEME)
-                .setHost(HOST_NAME)
-                .setPath(SESSION_ENDPOINT)
+            uri = new URIBuilder(this.baseUri)
+                .appendPath(endpoint)
                 .build();
         } catch (URISyntaxException e) {
             throw new BlueskyException("Failed to build URI for session endpoint", e);
@@ -82,7 +95,7 @@ public final class BlueskySessionService {
     }
 
     private HttpPost buildRequest() {
-        URI uri = this.buildUri();
+        URI uri = this.buildUri(SESSION_ENDPOINT);
 
         HttpPost httpPost = new HttpPost(uri);
 
@@ -95,26 +108,18 @@ public final class BlueskySessionService {
         return httpPost;
     }
 
-    private Response<Session> handleResponse(ClassicHttpResponse httpResponse) throws IOException, ParseException {
-        int statusCode = httpResponse.getCode();
-
-        HttpEntity entity = httpResponse.getEntity();
+    private HttpPost buildRefreshRequest(Session session) {
+        URI uri = this.buildUri(REFRESH_SESSION_ENDPOINT);
 
-        String entityString = EntityUtils.toString(entity);
+        HttpPost httpPost = new HttpPost(uri);
 
-        if (statusCode != HttpStatus.SC_OK) {
-            return new Response<>(statusCode, null);
-        }
+        String authorizationHeader = String.format("Bearer %s", session.refreshJwt());
 
-        Session session;
+        httpPost.addHeader(HttpHeaders.AUTHORIZATION, authorizationHeader);
 
-        try {
-            session = this.objectMapper.readValue(entityString, Session.class);
-        } catch (JsonProcessingException e) {
-            throw new BlueskyException("Failed to parse create session response", e);
-        }
+        httpPost.addHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON);
 
-        return new Response<>(statusCode, session);
+        return httpPost;
     }
 
     public Session createSession() {
@@ -123,7 +128,7 @@ public final class BlueskySessionService {
         Response<Session> response;
 
         try {
-            response = this.httpClient.execute(httpPost, this::handleResponse);
+            response = this.httpClient.execute(httpPost, this.responseHandler);
         } catch (IOException e) {
             throw new BlueskyException("Failed to execute create session request", e);
         }
@@ -138,4 +143,28 @@ public final class BlueskySessionService {
 
         return session;
     }
+
+    public Session refreshSession(Session session) {
+        Objects.requireNonNull(session);
+
+        HttpPost httpPost = this.buildRefreshRequest(session);
+
+        Response<Session> response;
+
+        try {
+            response = this.httpClient.execute(httpPost, this.responseHandler);
+        } catch (IOException e) {
+            throw new BlueskyException("Failed to execute refresh session request", e);
+        }
+
+        Session refreshedSession = response.data();
+
+        if (refreshedSession == null) {
+            String message = String.format("Failed to refresh session, status code: %d", response.statusCode());
+
+            throw new BlueskyException(message);
+        }
+
+        return refreshedSession;
+    }
 }
@@ -0,0 +1,86 @@
+package app.cta4j.common.cache;
+
+import app.cta4j.common.dto.Media;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the SHA-256 of uploaded media to the ID or blob reference each platform returned for it.
+ */
+@Component
+public final class MediaIdCache {
+    private final Map<Key, Entry> entries;
+
+    private record Key(String platformName, String sha256) {
+    }
+
+    private record Entry(Object value, Instant expirationTime) {
+        boolean isExpired(Instant now) {
+            return !now.isBefore(this.expirationTime);
+        }
+    }
+
+    public MediaIdCache() {
+        this.entries = new ConcurrentHashMap<>();
+    }
+
+    public <T> Optional<T> get(String platformName, Media media, Class<T> type) {
+        Objects.requireNonNull(platformName);
+        Objects.requireNonNull(media);
+        Objects.requireNonNull(type);
+
+        Key key = new Key(platformName, media.sha256());
+
+        Entry entry = this.entries.get(key);
+
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        if (entry.isExpired(Instant.now())) {
+            this.entries.remove(key, entry);
+
+            return Optional.empty();
+        }
+
+        return Optional.of(type.cast(entry.value()));
+    }
+
+    public void put(String platformName, Media media, Object value, Duration reuseWindow) {
+        Objects.requireNonNull(platformName);
+        Objects.requireNonNull(media);
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(reuseWindow);
+
+        if (reuseWindow.isZero() || reuseWindow.isNegative()) {
+            return;
+        }
+
+        Key key = new Key(platformName, media.sha256());
+
+        Instant expirationTime = Instant.now()
+                                        .plus(reuseWindow);
+
+        this.entries.put(key, new Entry(value, expirationTime));
+
+        Instant now = Instant.now();
+
+        this.entries.values()
+                    .removeIf(entry -> entry.isExpired(now));
+    }
+
+    public void invalidate(String platformName, Media media) {
+        Objects.requireNonNull(platformName);
+        Objects.requireNonNull(media);
+
+        Key key = new Key(platformName, media.sha256());
+
+        this.entries.remove(key);
+    }
+}
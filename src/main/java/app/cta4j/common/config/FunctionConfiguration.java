@@ -1,54 +1,59 @@
 package app.cta4j.common.config;
 
-import app.cta4j.common.dto.Post;
-import app.cta4j.common.publisher.MultiplatformPublisher;
-import app.cta4j.common.service.PostService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import app.cta4j.common.dto.InvocationResult;
+import app.cta4j.common.dto.RunResult;
+import app.cta4j.common.publisher.CircuitBreakerRegistry;
+import app.cta4j.common.service.TrainRunService;
+import com.amazonaws.services.lambda.runtime.Context;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.function.adapter.aws.AWSLambdaUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
 
-import java.util.Optional;
-import java.util.function.Supplier;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
 
 @Configuration
 public class FunctionConfiguration {
-    private static final Logger log = LoggerFactory.getLogger(FunctionConfiguration.class);
-
-    private final PostService postService;
-    private final MultiplatformPublisher multiplatformPublisher;
-
-    private final String trainRun;
+    private final TrainRunService trainRunService;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
 
     @Autowired
-    public FunctionConfiguration(
-        PostService postService,
-        MultiplatformPublisher multiplatformPublisher,
-        @Value("${app.cta.train.run}") String trainRun
-    ) {
-        this.postService = postService;
-        this.multiplatformPublisher = multiplatformPublisher;
-        this.trainRun = trainRun;
+    public FunctionConfiguration(TrainRunService trainRunService, CircuitBreakerRegistry circuitBreakerRegistry) {
+        this.trainRunService = trainRunService;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
     }
 
-    @Bean
-    public Supplier<String> socialPublisher() {
-        return () -> {
-            Optional<Post> optionalPost = this.postService.buildPost(this.trainRun);
+    private Map<String, RunResult> publishRuns(Message<?> message) {
+        Object context = message.getHeaders()
+                                .get(AWSLambdaUtils.AWS_CONTEXT);
+
+        if (context instanceof Context lambdaContext) {
+            Duration remainingTime = Duration.ofMillis(lambdaContext.getRemainingTimeInMillis());
 
-            if (optionalPost.isEmpty()) {
-                log.info("No post to publish for train run {}", this.trainRun);
+            return this.trainRunService.publishRuns(remainingTime);
+        }
 
-                return "NO_POST";
-            }
+        return this.trainRunService.publishRuns();
+    }
+
+    /**
+     * Takes the triggering event as a message so the invocation's time budget can come from the Lambda context, which
+     * the adapter passes as a header.
+     */
+    @Bean
+    public Function<Message<?>, InvocationResult> socialPublisher() {
+        return message -> {
+            Map<String, RunResult> runResults = this.publishRuns(message);
 
-            Post post = optionalPost.get();
+            Map<String, String> runs = new LinkedHashMap<>();
 
-            this.multiplatformPublisher.publish(post);
+            runResults.forEach((run, result) -> runs.put(run, result.status()));
 
-            return "OK";
+            return new InvocationResult(runs, this.circuitBreakerRegistry.getStates());
         };
     }
 }
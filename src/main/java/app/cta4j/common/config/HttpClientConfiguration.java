@@ -1,17 +1,188 @@
 package app.cta4j.common.config;
 
+import app.cta4j.common.http.LatencyExecInterceptor;
+import app.cta4j.common.http.PlatformEndpoints;
+import app.cta4j.common.http.RateLimitInterceptor;
+import app.cta4j.common.http.RateLimitRetryStrategy;
 import app.cta4j.common.http.TokenRefreshInterceptor;
+import app.cta4j.common.replay.RecordingExecInterceptor;
+import app.cta4j.common.replay.ReplayHttpServer;
+import app.cta4j.common.replay.ReplayRoutePlanner;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.List;
+
 @Configuration
 public class HttpClientConfiguration {
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 2;
+
+    private final Timeout connectTimeout;
+    private final Timeout responseTimeout;
+
+    private final List<HttpHost> hosts;
+    private final int maxConnectionsPerHost;
+
+    /**
+     * Set only in replay mode, where every host is routed to the local replay server.
+     */
+    private final ReplayRoutePlanner replayRoutePlanner;
+
+    @Autowired
+    public HttpClientConfiguration(
+        @Value("${app.http.connect-timeout}") Duration connectTimeout,
+        @Value("${app.http.response-timeout}") Duration responseTimeout,
+        @Value("${app.http.max-connections-per-host}") int maxConnectionsPerHost,
+        PlatformEndpoints platformEndpoints,
+        ObjectProvider<ReplayHttpServer> replayHttpServer
+    ) {
+        this.connectTimeout = Timeout.of(connectTimeout);
+        this.responseTimeout = Timeout.of(responseTimeout);
+        this.hosts = platformEndpoints.getHosts();
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+
+        ReplayHttpServer server = replayHttpServer.getIfAvailable();
+
+        this.replayRoutePlanner = (server == null) ? null : new ReplayRoutePlanner(server.getPort());
+    }
+
+    private List<HttpRoute> getRoutes() {
+        if (this.replayRoutePlanner != null) {
+            return List.of(this.replayRoutePlanner.getRoute());
+        }
+
+        return this.hosts.stream()
+                         .map(host -> new HttpRoute(host, null, URIScheme.HTTPS.same(host.getSchemeName())))
+                         .toList();
+    }
+
+    private int getMaxConnectionsPerRoute() {
+        if (this.replayRoutePlanner != null) {
+            return this.hosts.size() * this.maxConnectionsPerHost;
+        }
+
+        return this.maxConnectionsPerHost;
+    }
+
+    private int getMaxConnectionsTotal() {
+        return (this.hosts.size() * this.maxConnectionsPerHost) + DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+    }
+
+    private ConnectionConfig getConnectionConfig() {
+        return ConnectionConfig.custom()
+                               .setConnectTimeout(this.connectTimeout)
+                               .build();
+    }
+
+    private RequestConfig getRequestConfig() {
+        return RequestConfig.custom()
+                            .setResponseTimeout(this.responseTimeout)
+                            .build();
+    }
+
+    @Bean
+    public PoolingHttpClientConnectionManager connectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setDefaultConnectionConfig(this.getConnectionConfig())
+            .setMaxConnPerRoute(DEFAULT_MAX_CONNECTIONS_PER_ROUTE)
+            .setMaxConnTotal(this.getMaxConnectionsTotal())
+            .build();
+
+        for (HttpRoute route : this.getRoutes()) {
+            connectionManager.setMaxPerRoute(route, this.getMaxConnectionsPerRoute());
+        }
+
+        return connectionManager;
+    }
+
+    @Bean
+    public PoolingAsyncClientConnectionManager asyncConnectionManager() {
+        TlsConfig tlsConfig = TlsConfig.custom()
+                                       .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                                       .build();
+
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+            .setDefaultTlsConfig(tlsConfig)
+            .setDefaultConnectionConfig(this.getConnectionConfig())
+            .setMaxConnPerRoute(DEFAULT_MAX_CONNECTIONS_PER_ROUTE)
+            .setMaxConnTotal(this.getMaxConnectionsTotal())
+            .build();
+
+        for (HttpRoute route : this.getRoutes()) {
+            connectionManager.setMaxPerRoute(route, this.getMaxConnectionsPerRoute());
+        }
+
+        return connectionManager;
+    }
+
     @Bean
-    public CloseableHttpClient httpClient(TokenRefreshInterceptor interceptor) {
+    public CloseableHttpClient httpClient(
+        TokenRefreshInterceptor interceptor,
+        RateLimitInterceptor rateLimitInterceptor,
+        RateLimitRetryStrategy retryStrategy,
+        LatencyExecInterceptor latencyInterceptor,
+        RecordingExecInterceptor recordingInterceptor,
+        PoolingHttpClientConnectionManager connectionManager
+    ) {
         return HttpClients.custom()
+                          .setConnectionManager(connectionManager)
+                          .setDefaultRequestConfig(this.getRequestConfig())
+                          .setRetryStrategy(retryStrategy)
+                          .setRoutePlanner(this.replayRoutePlanner)
+                          .addExecInterceptorFirst(LatencyExecInterceptor.NAME, latencyInterceptor)
+                          .addExecInterceptorFirst(RecordingExecInterceptor.NAME, recordingInterceptor)
                           .addRequestInterceptorFirst(interceptor)
+                          .addRequestInterceptorFirst(rateLimitInterceptor)
+                          .addResponseInterceptorLast(rateLimitInterceptor)
                           .build();
     }
+
+    /**
+     * Interceptors here run on I/O threads and must never block, so the Twitter token, which may need a network
+     * refresh, is set by the async Twitter services before they submit a request rather than by an interceptor.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient httpAsyncClient(
+        RateLimitInterceptor rateLimitInterceptor,
+        RateLimitRetryStrategy retryStrategy,
+        LatencyExecInterceptor latencyInterceptor,
+        PoolingAsyncClientConnectionManager connectionManager
+    ) {
+        CloseableHttpAsyncClient httpAsyncClient = HttpAsyncClients.custom()
+                                                                   .setConnectionManager(connectionManager)
+                                                                   .setDefaultRequestConfig(this.getRequestConfig())
+                                                                   .setRetryStrategy(retryStrategy)
+                                                                   .setRoutePlanner(this.replayRoutePlanner)
+                                                                   .addExecInterceptorFirst(
+                                                                       LatencyExecInterceptor.NAME,
+                                                                       latencyInterceptor
+                                                                   )
+                                                                   .addRequestInterceptorFirst(rateLimitInterceptor)
+                                                                   .addResponseInterceptorLast(rateLimitInterceptor)
+                                                                   .build();
+
+        httpAsyncClient.start();
+
+        return httpAsyncClient;
+    }
 }
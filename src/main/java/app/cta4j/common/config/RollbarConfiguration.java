@@ -1,5 +1,6 @@
 package app.cta4j.common.config;
 
+import app.cta4j.common.replay.ReplayMode;
 import app.cta4j.common.service.SecretService;
 import com.rollbar.notifier.Rollbar;
 import com.rollbar.notifier.config.Config;
@@ -15,27 +16,39 @@ import java.util.Objects;
 public class RollbarConfiguration {
     private final SecretService secretService;
 
-    @Autowired
-    public RollbarConfiguration(SecretService secretService) {
-        this.secretService = secretService;
-    }
+    private final String environment;
+    private final String codeVersion;
+    private final boolean enabled;
 
-    @Bean
-    public Rollbar rollbar(
+    @Autowired
+    public RollbarConfiguration(
+        SecretService secretService,
         @Value("${app.rollbar.environment}") String environment,
-        @Value("${app.rollbar.code-version}") String codeVersion
+        @Value("${app.rollbar.code-version}") String codeVersion,
+        @Value("${app.replay.mode}") ReplayMode replayMode,
+        @Value("${app.load-test.enabled}") boolean loadTestEnabled
     ) {
-        Objects.requireNonNull(environment);
-        Objects.requireNonNull(codeVersion);
+        this.secretService = secretService;
+        this.environment = Objects.requireNonNull(environment);
+        this.codeVersion = Objects.requireNonNull(codeVersion);
+        this.enabled = (replayMode != ReplayMode.REPLAY) && !loadTestEnabled;
+    }
 
+    public Config buildConfig() {
         String accessToken = this.secretService.getSecret()
                                                .rollbar()
                                                .accessToken();
 
-        Config config = ConfigBuilder.withAccessToken(accessToken)
-                                     .environment(environment)
-                                     .codeVersion(codeVersion)
-                                     .build();
+        return ConfigBuilder.withAccessToken(accessToken)
+                            .environment(this.environment)
+                            .codeVersion(this.codeVersion)
+                            .enabled(this.enabled)
+                            .build();
+    }
+
+    @Bean
+    public Rollbar rollbar() {
+        Config config = this.buildConfig();
 
         return Rollbar.init(config);
     }
@@ -1,14 +1,40 @@
 package app.cta4j.common.config;
 
+import app.cta4j.common.replay.FixtureStore;
+import app.cta4j.common.replay.ReplayMode;
+import app.cta4j.common.replay.ReplaySecretsManagerClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
 @Configuration
 public class SecretsManagerClientConfiguration {
     @Bean
-    public SecretsManagerClient secretsManagerClient() {
+    public SecretsManagerClient secretsManagerClient(
+        FixtureStore fixtureStore,
+        @Value("${app.replay.mode}") ReplayMode replayMode,
+        @Value("${app.load-test.enabled}") boolean loadTestEnabled,
+        @Value("classpath:loadtest/secret.json") Resource loadTestSecret
+    ) {
+        if (replayMode == ReplayMode.REPLAY) {
+            return new ReplaySecretsManagerClient(fixtureStore.readSecret());
+        }
+
+        if (loadTestEnabled) {
+            try {
+                return new ReplaySecretsManagerClient(loadTestSecret.getContentAsString(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read the load test secret", e);
+            }
+        }
+
         return SecretsManagerClient.builder()
                                    .region(Region.US_EAST_2)
                                    .build();
@@ -1,9 +1,16 @@
 package app.cta4j.common.config;
 
 import app.cta4j.common.dto.Secret;
+import app.cta4j.common.replay.FixtureStore;
+import app.cta4j.common.replay.RecordingTrainSource;
+import app.cta4j.common.replay.ReplayMode;
+import app.cta4j.common.replay.TrainFixtureTimeline;
+import app.cta4j.common.replay.TrainSource;
 import app.cta4j.common.service.SecretService;
 import com.cta4j.train.client.TrainClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,9 +18,15 @@ import org.springframework.context.annotation.Configuration;
 public class TrainClientConfiguration {
     private final Secret secret;
 
+    private final ReplayMode replayMode;
+
     @Autowired
-    public TrainClientConfiguration(SecretService secretService) {
+    public TrainClientConfiguration(
+        SecretService secretService,
+        @Value("${app.replay.mode}") ReplayMode replayMode
+    ) {
         this.secret = secretService.getSecret();
+        this.replayMode = replayMode;
     }
 
     @Bean
@@ -25,4 +38,17 @@ public class TrainClientConfiguration {
                           .apiKey(trainApiKey)
                           .build();
     }
+
+    @Bean
+    public TrainSource trainSource(
+        TrainClient trainClient,
+        FixtureStore fixtureStore,
+        ObjectProvider<TrainFixtureTimeline> timeline
+    ) {
+        return switch (this.replayMode) {
+            case OFF -> trainClient::getTrain;
+            case RECORD -> new RecordingTrainSource(trainClient::getTrain, fixtureStore);
+            case REPLAY -> timeline.getObject()::getTrain;
+        };
+    }
 }
@@ -0,0 +1,300 @@
+package app.cta4j.common.crac;
+
+import app.cta4j.bluesky.dto.*;
+import app.cta4j.common.config.RollbarConfiguration;
+import app.cta4j.common.dto.Media;
+import app.cta4j.common.dto.Response;
+import app.cta4j.common.http.AsyncRequestExecutor;
+import app.cta4j.common.http.JsonResponseHandler;
+import app.cta4j.common.http.MediaEntityProducer;
+import app.cta4j.common.metrics.MetricsRegistry;
+import app.cta4j.common.service.PostService;
+import app.cta4j.common.service.SecretService;
+import app.cta4j.common.util.Geohash;
+import app.cta4j.mastodon.dto.CreateStatusRequest;
+import app.cta4j.mastodon.dto.MastodonMedia;
+import app.cta4j.mastodon.dto.MastodonStatus;
+import app.cta4j.twitter.dto.CreateTweetMedia;
+import app.cta4j.twitter.dto.CreateTweetRequest;
+import app.cta4j.twitter.dto.CreateTweetResponse;
+import app.cta4j.twitter.dto.TwitterMedia;
+import app.cta4j.twitter.dto.UploadMediaResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rollbar.notifier.Rollbar;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.entity.mime.MultipartEntityBuilder;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.util.TimeValue;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warms up the post pipeline before a SnapStart/CRaC checkpoint and re-establishes network-bound state after restore.
+ */
+@Component
+public final class SnapStartPrimer implements Resource {
+    private static final Logger log = LoggerFactory.getLogger(SnapStartPrimer.class);
+
+    private static final Map<Class<?>, String> RESPONSE_SAMPLES = Map.of(
+        UploadMediaResponse.class, """
+        {"data":{"id":"0","media_key":"3_0"}}""",
+        CreateTweetResponse.class, """
+        {"data":{"id":"0","text":"priming"}}""",
+        UploadBlobResponse.class, """
+        {"blob":{"$type":"blob","ref":{"$link":"priming"},"mimeType":"image/png","size":1}}""",
+        BlueskyRecord.class, """
+        {"uri":"at://priming","cid":"priming"}""",
+        Session.class, """
+        {"accessJwt":"priming","refreshJwt":"priming","handle":"priming","did":"did:plc:priming"}""",
+        MastodonMedia.class, """
+        {"id":"0"}""",
+        MastodonStatus.class, """
+        {"id":"0","content":"priming"}"""
+    );
+
+    private static final byte[] SAMPLE_IMAGE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private static final String PRIMING_PATH = "/priming";
+
+    private static final Duration PRIMING_TIMEOUT = Duration.ofSeconds(5);
+
+    private final ObjectMapper objectMapper;
+    private final PostService postService;
+    private final SecretService secretService;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final PoolingAsyncClientConnectionManager asyncConnectionManager;
+    private final CloseableHttpClient httpClient;
+    private final AsyncRequestExecutor asyncRequestExecutor;
+    private final MetricsRegistry metricsRegistry;
+    private final RollbarConfiguration rollbarConfiguration;
+    private final Rollbar rollbar;
+
+    @Autowired
+    public SnapStartPrimer(
+        ObjectMapper objectMapper,
+        PostService postService,
+        SecretService secretService,
+        PoolingHttpClientConnectionManager connectionManager,
+        PoolingAsyncClientConnectionManager asyncConnectionManager,
+        CloseableHttpClient httpClient,
+        AsyncRequestExecutor asyncRequestExecutor,
+        MetricsRegistry metricsRegistry,
+        RollbarConfiguration rollbarConfiguration,
+        Rollbar rollbar
+    ) {
+        this.objectMapper = objectMapper;
+        this.postService = postService;
+        this.secretService = secretService;
+        this.connectionManager = connectionManager;
+        this.asyncConnectionManager = asyncConnectionManager;
+        this.httpClient = httpClient;
+        this.asyncRequestExecutor = asyncRequestExecutor;
+        this.metricsRegistry = metricsRegistry;
+        this.rollbarConfiguration = rollbarConfiguration;
+        this.rollbar = rollbar;
+
+        Core.getGlobalContext()
+            .register(this);
+    }
+
+    private List<Object> buildRequestSamples() {
+        BlueskyBlob blob = new BlueskyBlob("blob", new BlueskyBlob.Reference("priming"), "image/png", 1);
+
+        CreateRecordData recordData = new CreateRecordData(
+            "priming",
+            Instant.now(),
+            new Embed("app.bsky.embed.images", List.of(new Image("priming", blob)))
+        );
+
+        return List.of(
+            new CreateTweetRequest("priming", new CreateTweetMedia(List.of("0"))),
+            new CreateRecordRequest("did:plc:priming", "app.bsky.feed.post", recordData),
+            new CreateSessionRequest("priming", "priming"),
+            new CreateStatusRequest("priming", List.of("0")),
+            this.secretService.getSecret()
+        );
+    }
+
+    private void primeJackson() throws IOException {
+        for (Object sample : this.buildRequestSamples()) {
+            this.objectMapper.writeValueAsBytes(sample);
+        }
+
+        for (Map.Entry<Class<?>, String> entry : RESPONSE_SAMPLES.entrySet()) {
+            this.objectMapper.readValue(entry.getValue(), entry.getKey());
+        }
+    }
+
+    private static void handlePrimingRequest(HttpExchange exchange) throws IOException {
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            requestBody.transferTo(OutputStream.nullOutputStream());
+        }
+
+        byte[] body = RESPONSE_SAMPLES.get(UploadMediaResponse.class)
+                                      .getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders()
+                .set(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_JSON.toString());
+
+        exchange.sendResponseHeaders(HttpStatus.SC_OK, body.length);
+
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(body);
+        }
+    }
+
+    private HttpPost buildPrimingRequest(URI uri) {
+        HttpPost httpPost = new HttpPost(uri);
+
+        httpPost.addHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON);
+
+        return httpPost;
+    }
+
+    private void sendPrimingRequests(URI uri) throws IOException, ExecutionException, InterruptedException,
+        TimeoutException {
+        Media media = new Media(SAMPLE_IMAGE, ContentType.IMAGE_PNG);
+
+        JsonResponseHandler<UploadMediaResponse, TwitterMedia> responseHandler = new JsonResponseHandler<>(
+            this.objectMapper.readerFor(UploadMediaResponse.class),
+            Set.of(HttpStatus.SC_OK),
+            UploadMediaResponse::data,
+            e -> new IllegalStateException("Failed to parse priming response", e)
+        );
+
+        HttpEntity multipartEntity = MultipartEntityBuilder.create()
+                                                           .addPart("media", media.toContentBody())
+                                                           .addTextBody("media_category", "tweet_image")
+                                                           .build();
+
+        HttpPost httpPost = this.buildPrimingRequest(uri);
+
+        httpPost.setEntity(multipartEntity);
+
+        this.httpClient.execute(httpPost, responseHandler);
+
+        AsyncEntityProducer entityProducer = MediaEntityProducer.multipart(
+            "media",
+            media,
+            Map.of("media_category", "tweet_image")
+        );
+
+        Response<TwitterMedia> response = this.asyncRequestExecutor.execute(
+            this.buildPrimingRequest(uri),
+            entityProducer,
+            responseHandler
+        ).get(PRIMING_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+        log.debug("Primed HTTP clients, status code: {}", response.statusCode());
+    }
+
+    /**
+     * Sends a multipart upload through both clients to a server on the loopback interface, so that everything a real
+     * request touches, from the interceptors and retry strategy down to the connection pools and response handlers, is
+     * loaded before the checkpoint. The latencies recorded for it are discarded. A failure is logged and does not
+     * block the checkpoint.
+     */
+    private void primeHttp() throws IOException {
+        InetAddress loopbackAddress = InetAddress.getLoopbackAddress();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(loopbackAddress, 0), 0);
+
+        server.createContext(PRIMING_PATH, SnapStartPrimer::handlePrimingRequest);
+
+        server.start();
+
+        try {
+            URI uri = URI.create(String.format(
+                "http://%s:%d%s",
+                loopbackAddress.getHostAddress(),
+                server.getAddress()
+                      .getPort(),
+                PRIMING_PATH
+            ));
+
+            this.sendPrimingRequests(uri);
+        } catch (IOException | ExecutionException | TimeoutException e) {
+            log.warn("Failed to prime HTTP clients", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        } finally {
+            server.stop(0);
+
+            this.metricsRegistry.drain();
+        }
+    }
+
+    private void primePostRendering() {
+        this.postService.buildText("RED", "Howard", "Clark/Lake", ZonedDateTime.now());
+
+        String geohash = Geohash.encode(41.8857, -87.6308, 8);
+
+        Geohash.decode(geohash);
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) throws Exception {
+        long start = System.nanoTime();
+
+        this.primeJackson();
+
+        this.primeHttp();
+
+        this.primePostRendering();
+
+        this.connectionManager.closeIdle(TimeValue.ZERO_MILLISECONDS);
+
+        this.asyncConnectionManager.closeIdle(TimeValue.ZERO_MILLISECONDS);
+
+        log.info("Primed application for checkpoint in {} ms", (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    /**
+     * A restore must not fail because Secrets Manager can't be reached. The checkpointed secret is kept until the
+     * scheduled refresh sees a newer version.
+     */
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        try {
+            this.secretService.reload();
+        } catch (RuntimeException e) {
+            log.warn("Failed to reload secret after restore, keeping the checkpointed one until the next refresh", e);
+        }
+
+        this.rollbar.configure(this.rollbarConfiguration.buildConfig());
+
+        log.info("Re-established secrets and Rollbar client after restore");
+    }
+}
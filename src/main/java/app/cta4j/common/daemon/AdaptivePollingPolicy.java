@@ -0,0 +1,86 @@
+package app.cta4j.common.daemon;
+
+import app.cta4j.common.dto.RunResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * Picks the delay before the next poll from the trains' ETAs: poll fast while a train is about to arrive, back off as
+ * the next arrival gets further away, and idle when no tracked train is in service.
+ */
+@Component
+@ConditionalOnProperty(name = "app.daemon.enabled", havingValue = "true")
+public final class AdaptivePollingPolicy {
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final Duration idleInterval;
+    private final Duration approachWindow;
+
+    @Autowired
+    public AdaptivePollingPolicy(
+        @Value("${app.daemon.min-interval}") Duration minInterval,
+        @Value("${app.daemon.max-interval}") Duration maxInterval,
+        @Value("${app.daemon.idle-interval}") Duration idleInterval,
+        @Value("${app.daemon.approach-window}") Duration approachWindow
+    ) {
+        if (minInterval.compareTo(maxInterval) > 0) {
+            throw new IllegalArgumentException("app.daemon.min-interval must not exceed app.daemon.max-interval");
+        }
+
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.idleInterval = idleInterval;
+        this.approachWindow = approachWindow;
+    }
+
+    private Duration clamp(Duration interval) {
+        if (interval.compareTo(this.minInterval) < 0) {
+            return this.minInterval;
+        }
+
+        if (interval.compareTo(this.maxInterval) > 0) {
+            return this.maxInterval;
+        }
+
+        return interval;
+    }
+
+    public Duration getInterval(Instant arrivalTime, Instant now) {
+        Objects.requireNonNull(now);
+
+        if (arrivalTime == null) {
+            return this.idleInterval;
+        }
+
+        Duration eta = Duration.between(now, arrivalTime);
+
+        if (eta.compareTo(this.approachWindow) <= 0) {
+            return this.minInterval;
+        }
+
+        return this.clamp(eta.dividedBy(2L));
+    }
+
+    public Duration getInterval(Collection<RunResult> results, Instant now) {
+        Objects.requireNonNull(results);
+
+        Duration interval = this.idleInterval;
+
+        for (RunResult result : results) {
+            Duration runInterval = this.getInterval(result.arrivalTime(), now);
+
+            if (runInterval.compareTo(interval) < 0) {
+                interval = runInterval;
+            }
+        }
+
+        return interval;
+    }
+}
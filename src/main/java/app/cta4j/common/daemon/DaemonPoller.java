@@ -0,0 +1,134 @@
+package app.cta4j.common.daemon;
+
+import app.cta4j.common.dto.RunResult;
+import app.cta4j.common.publisher.CircuitBreakerRegistry;
+import app.cta4j.common.service.TrainRunService;
+import com.rollbar.notifier.Rollbar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Always-on alternative to the Lambda function. Polls the configured train runs in one long-lived context, so
+ * connections, sessions and caches stay warm between polls.
+ */
+@Component
+@ConditionalOnProperty(name = "app.daemon.enabled", havingValue = "true")
+public final class DaemonPoller implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(DaemonPoller.class);
+
+    private final TrainRunService trainRunService;
+    private final AdaptivePollingPolicy pollingPolicy;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final Rollbar rollbar;
+
+    private final Duration errorInterval;
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile boolean running;
+
+    @Autowired
+    public DaemonPoller(
+        TrainRunService trainRunService,
+        AdaptivePollingPolicy pollingPolicy,
+        CircuitBreakerRegistry circuitBreakerRegistry,
+        Rollbar rollbar,
+        @Value("${app.daemon.max-interval}") Duration errorInterval
+    ) {
+        this.trainRunService = trainRunService;
+        this.pollingPolicy = pollingPolicy;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.rollbar = rollbar;
+        this.errorInterval = errorInterval;
+    }
+
+    private Duration pollSafely() {
+        Map<String, RunResult> results;
+
+        try {
+            results = this.trainRunService.publishRuns();
+        } catch (RuntimeException e) {
+            String message = "Failed to poll train runs";
+
+            log.error(message, e);
+
+            this.rollbar.error(e, message);
+
+            return this.errorInterval;
+        }
+
+        Duration interval = this.pollingPolicy.getInterval(results.values(), Instant.now());
+
+        log.info(
+            "Polled train runs {} with circuits {}, next poll in {}",
+            results,
+            this.circuitBreakerRegistry.getStates(),
+            interval
+        );
+
+        return interval;
+    }
+
+    private void poll() {
+        if (!this.running) {
+            return;
+        }
+
+        Duration interval = this.pollSafely();
+
+        if (!this.running) {
+            return;
+        }
+
+        this.scheduler.schedule(this::poll, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (this.running) {
+            return;
+        }
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform()
+                  .name("train-poller")
+                  .factory()
+        );
+
+        this.running = true;
+
+        this.scheduler.execute(this::poll);
+
+        log.info("Started daemon poller");
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!this.running) {
+            return;
+        }
+
+        this.running = false;
+
+        this.scheduler.shutdownNow();
+
+        log.info("Stopped daemon poller");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+}
@@ -0,0 +1,13 @@
+package app.cta4j.common.dto;
+
+import app.cta4j.common.publisher.CircuitState;
+
+import java.util.Map;
+import java.util.Objects;
+
+public record InvocationResult(Map<String, String> runs, Map<String, CircuitState> circuits) {
+    public InvocationResult {
+        Objects.requireNonNull(runs);
+        Objects.requireNonNull(circuits);
+    }
+}
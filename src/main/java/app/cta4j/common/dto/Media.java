@@ -0,0 +1,104 @@
+package app.cta4j.common.dto;
+
+import org.apache.hc.client5.http.entity.mime.ByteArrayBody;
+import org.apache.hc.client5.http.entity.mime.ContentBody;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+
+/**
+ * An immutable, in-memory media payload that can be shared read-only across platform uploads.
+ */
+public final class Media {
+    private final byte[] data;
+    private final ContentType contentType;
+    private final String filename;
+
+    private volatile String sha256;
+
+    private Media(byte[] data, ContentType contentType, boolean copy) {
+        Objects.requireNonNull(data);
+        Objects.requireNonNull(contentType);
+
+        this.data = copy ? data.clone() : data;
+        this.contentType = contentType;
+
+        String mimeType = contentType.getMimeType();
+
+        String subtype = mimeType.substring(mimeType.indexOf('/') + 1);
+
+        this.filename = String.format("media.%s", subtype);
+    }
+
+    public Media(byte[] data, ContentType contentType) {
+        this(data, contentType, true);
+    }
+
+    /**
+     * Takes ownership of {@code data} without copying it, for callers that have just produced the array and never
+     * touch it again.
+     */
+    public static Media wrap(byte[] data, ContentType contentType) {
+        return new Media(data, contentType, false);
+    }
+
+    public ContentType contentType() {
+        return this.contentType;
+    }
+
+    public String filename() {
+        return this.filename;
+    }
+
+    public int length() {
+        return this.data.length;
+    }
+
+    public String sha256() {
+        String digest = this.sha256;
+
+        if (digest != null) {
+            return digest;
+        }
+
+        MessageDigest messageDigest;
+
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        digest = HexFormat.of()
+                          .formatHex(messageDigest.digest(this.data));
+
+        this.sha256 = digest;
+
+        return digest;
+    }
+
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(this.data)
+                         .asReadOnlyBuffer();
+    }
+
+    public InputStream newInputStream() {
+        return new ByteArrayInputStream(this.data);
+    }
+
+    public HttpEntity toEntity() {
+        return new ByteArrayEntity(this.data, this.contentType);
+    }
+
+    public ContentBody toContentBody() {
+        return new ByteArrayBody(this.data, this.contentType, this.filename);
+    }
+}
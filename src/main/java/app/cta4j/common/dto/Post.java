@@ -1,9 +1,8 @@
 package app.cta4j.common.dto;
 
-import java.io.File;
 import java.util.Objects;
 
-public record Post(String text, File media) {
+public record Post(String text, Media media) {
     public Post {
         Objects.requireNonNull(text);
     }
@@ -0,0 +1,41 @@
+package app.cta4j.common.dto;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * The outcome of building a post for one train run. {@code arrivalTime} is the chosen next arrival, if the train had
+ * one. A {@link Status#FAILED} result means the train or its map could not be fetched.
+ */
+public record PostResult(Status status, Post post, String fingerprint, Instant arrivalTime) {
+    public enum Status {
+        READY,
+        NO_POST,
+        NO_CHANGE,
+        FAILED
+    }
+
+    public PostResult {
+        Objects.requireNonNull(status);
+
+        if ((status == Status.READY) && ((post == null) || (fingerprint == null))) {
+            throw new IllegalArgumentException("A ready result needs a post and a fingerprint");
+        }
+    }
+
+    public static PostResult ready(Post post, String fingerprint, Instant arrivalTime) {
+        return new PostResult(Status.READY, post, fingerprint, arrivalTime);
+    }
+
+    public static PostResult noPost() {
+        return new PostResult(Status.NO_POST, null, null, null);
+    }
+
+    public static PostResult noChange(String fingerprint, Instant arrivalTime) {
+        return new PostResult(Status.NO_CHANGE, null, fingerprint, arrivalTime);
+    }
+
+    public static PostResult failed() {
+        return new PostResult(Status.FAILED, null, null, null);
+    }
+}
@@ -0,0 +1,6 @@
+package app.cta4j.common.dto;
+
+import java.time.Instant;
+
+public record RunResult(String status, Instant arrivalTime) {
+}
@@ -0,0 +1,9 @@
+package app.cta4j.common.exception;
+
+import java.io.IOException;
+
+public class RateLimitException extends IOException {
+    public RateLimitException(String message) {
+        super(message);
+    }
+}
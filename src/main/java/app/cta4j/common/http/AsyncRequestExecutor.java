@@ -0,0 +1,260 @@
+package app.cta4j.common.http;
+
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs requests on the shared async client so that platform services can reuse their request builders and response
+ * handlers for their non-blocking variants. Media bodies are streamed from a {@link MediaEntityProducer}, and
+ * responses are streamed into the classic handler on a virtual thread as they arrive.
+ */
+@Component
+public final class AsyncRequestExecutor {
+    private static final int RESPONSE_BUFFER_SIZE = 8 * 1024;
+
+    private static final Executor RESPONSE_EXECUTOR = Thread::startVirtualThread;
+
+    private static final ThreadLocal<Scope> CURRENT_SCOPE = new ThreadLocal<>();
+
+    /**
+     * The requests made for one cancellable operation. Cancelling a {@code CompletableFuture} doesn't reach the
+     * stages it depends on, so the scope holds the client's own futures and cancels those instead, which aborts
+     * the exchanges on the wire.
+     */
+    private static final class Scope {
+        private final Set<Future<?>> requests;
+
+        private volatile boolean cancelled;
+
+        private Scope() {
+            this.requests = ConcurrentHashMap.newKeySet();
+        }
+
+        private void add(Future<?> request) {
+            this.requests.add(request);
+
+            if (this.cancelled) {
+                request.cancel(true);
+            }
+        }
+
+        private void remove(Future<?> request) {
+            this.requests.remove(request);
+        }
+
+        private void cancel() {
+            this.cancelled = true;
+
+            this.requests.forEach(request -> request.cancel(true));
+        }
+    }
+
+    private final CloseableHttpAsyncClient httpAsyncClient;
+
+    @Autowired
+    public AsyncRequestExecutor(CloseableHttpAsyncClient httpAsyncClient) {
+        this.httpAsyncClient = httpAsyncClient;
+    }
+
+    private static void runInScope(Scope scope, Runnable runnable) {
+        Scope previousScope = CURRENT_SCOPE.get();
+
+        CURRENT_SCOPE.set(scope);
+
+        try {
+            runnable.run();
+        } finally {
+            if (previousScope == null) {
+                CURRENT_SCOPE.remove();
+            } else {
+                CURRENT_SCOPE.set(previousScope);
+            }
+        }
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, T result, Throwable throwable) {
+        if (throwable == null) {
+            future.complete(result);
+        } else {
+            future.completeExceptionally(throwable);
+        }
+    }
+
+    /**
+     * Calls {@code supplier} so that every request it makes is cancelled when the returned future is, including
+     * requests made by stages that run once earlier requests complete. Those stages run while the scope is restored
+     * on the completing thread, so the requests they submit join it.
+     */
+    public <T> CompletableFuture<T> executeCancellable(Supplier<CompletableFuture<T>> supplier) {
+        Objects.requireNonNull(supplier);
+
+        Scope scope = new Scope();
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        runInScope(scope, () -> supplier.get()
+                                        .whenComplete((result, throwable) -> complete(future, result, throwable)));
+
+        future.whenComplete((result, throwable) -> {
+            if (future.isCancelled()) {
+                scope.cancel();
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * Hands on the result of {@code future}, which completes outside the client, such as a token refresh, in the
+     * current scope, so that requests made by the stages that follow can still be cancelled.
+     */
+    public static <T> CompletableFuture<T> inCurrentScope(CompletableFuture<T> future) {
+        Objects.requireNonNull(future);
+
+        Scope scope = CURRENT_SCOPE.get();
+
+        if ((scope == null) || future.isDone()) {
+            return future;
+        }
+
+        CompletableFuture<T> scopedFuture = new CompletableFuture<>();
+
+        future.whenComplete((result, throwable) -> runInScope(
+            scope,
+            () -> complete(scopedFuture, result, throwable)
+        ));
+
+        return scopedFuture;
+    }
+
+    /**
+     * Buffers a small, non-media entity such as a JSON body.
+     */
+    private static AsyncEntityProducer toEntityProducer(HttpEntity entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        byte[] body;
+
+        try {
+            body = EntityUtils.toByteArray(entity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read HTTP request entity", e);
+        }
+
+        ContentType contentType = ContentType.parse(entity.getContentType());
+
+        return new BasicAsyncEntityProducer(body, contentType);
+    }
+
+    public <T> CompletableFuture<T> execute(ClassicHttpRequest request, HttpClientResponseHandler<T> responseHandler) {
+        return this.execute(request, (HttpContext) null, responseHandler);
+    }
+
+    public <T> CompletableFuture<T> execute(
+        ClassicHttpRequest request,
+        HttpContext context,
+        HttpClientResponseHandler<T> responseHandler
+    ) {
+        Objects.requireNonNull(request);
+
+        AsyncEntityProducer entityProducer = toEntityProducer(request.getEntity());
+
+        return this.execute(request, entityProducer, context, responseHandler);
+    }
+
+    public <T> CompletableFuture<T> execute(
+        HttpRequest request,
+        AsyncEntityProducer entityProducer,
+        HttpClientResponseHandler<T> responseHandler
+    ) {
+        return this.execute(request, entityProducer, null, responseHandler);
+    }
+
+    /**
+     * Sends {@code request} with the body from {@code entityProducer}, which may be {@code null}. Any entity set on
+     * the request itself is ignored. {@code context} may be {@code null}.
+     */
+    public <T> CompletableFuture<T> execute(
+        HttpRequest request,
+        AsyncEntityProducer entityProducer,
+        HttpContext context,
+        HttpClientResponseHandler<T> responseHandler
+    ) {
+        Objects.requireNonNull(request);
+        Objects.requireNonNull(responseHandler);
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        Scope scope = CURRENT_SCOPE.get();
+
+        ClassicResponseConsumer<T> responseConsumer = new ClassicResponseConsumer<>(
+            responseHandler,
+            RESPONSE_BUFFER_SIZE,
+            RESPONSE_EXECUTOR
+        );
+
+        Future<T> httpFuture = this.httpAsyncClient.execute(
+            new BasicRequestProducer(request, entityProducer),
+            responseConsumer,
+            context,
+            new FutureCallback<>() {
+                @Override
+                public void completed(T result) {
+                    runInScope(scope, () -> future.complete(result));
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    runInScope(scope, () -> future.completeExceptionally(e));
+                }
+
+                @Override
+                public void cancelled() {
+                    runInScope(scope, () -> future.cancel(false));
+                }
+            }
+        );
+
+        if (scope != null) {
+            scope.add(httpFuture);
+        }
+
+        future.whenComplete((result, throwable) -> {
+            if (scope != null) {
+                scope.remove(httpFuture);
+            }
+
+            if (future.isCancelled()) {
+                responseConsumer.cancel();
+
+                httpFuture.cancel(true);
+            }
+        });
+
+        return future;
+    }
+}
@@ -0,0 +1,162 @@
+package app.cta4j.common.http;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.*;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.http.io.entity.InputStreamEntity;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.support.classic.AbstractClassicEntityConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+/**
+ * Hands an async response to a classic response handler as a stream, so the handler decodes the body as it arrives
+ * instead of after it has been buffered. The handler runs on {@code executor}, never on an I/O thread.
+ * <p>
+ * The client doesn't abort an exchange on a reused connection when its future is cancelled, so once {@link #cancel}
+ * is called the consumer fails the response as it arrives, which closes the connection instead of reading the body.
+ */
+final class ClassicResponseConsumer<T> implements AsyncResponseConsumer<T> {
+    private final HttpClientResponseHandler<T> responseHandler;
+    private final int bufferSize;
+    private final Executor executor;
+
+    private volatile AbstractClassicEntityConsumer<T> entityConsumer;
+
+    private volatile boolean cancelled;
+
+    ClassicResponseConsumer(HttpClientResponseHandler<T> responseHandler, int bufferSize, Executor executor) {
+        this.responseHandler = Objects.requireNonNull(responseHandler);
+        this.bufferSize = bufferSize;
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    private static ClassicHttpResponse toClassicResponse(HttpResponse response) {
+        BasicClassicHttpResponse classicResponse = new BasicClassicHttpResponse(
+            response.getCode(),
+            response.getReasonPhrase()
+        );
+
+        classicResponse.setVersion(response.getVersion());
+
+        classicResponse.setHeaders(response.getHeaders());
+
+        return classicResponse;
+    }
+
+    void cancel() {
+        this.cancelled = true;
+    }
+
+    private void checkCancelled() throws InterruptedIOException {
+        if (this.cancelled) {
+            throw new InterruptedIOException("Request was cancelled");
+        }
+    }
+
+    private T handleResponse(ClassicHttpResponse classicResponse) throws IOException {
+        try {
+            return this.responseHandler.handleResponse(classicResponse);
+        } catch (HttpException e) {
+            throw new IOException("Failed to handle HTTP response", e);
+        }
+    }
+
+    @Override
+    public void consumeResponse(
+        HttpResponse response,
+        EntityDetails entityDetails,
+        HttpContext context,
+        FutureCallback<T> resultCallback
+    ) throws HttpException, IOException {
+        this.checkCancelled();
+
+        ClassicHttpResponse classicResponse = toClassicResponse(response);
+
+        if (entityDetails == null) {
+            resultCallback.completed(this.handleResponse(classicResponse));
+
+            return;
+        }
+
+        AbstractClassicEntityConsumer<T> consumer = new AbstractClassicEntityConsumer<>(this.bufferSize, this.executor) {
+            @Override
+            protected T consumeData(ContentType contentType, InputStream inputStream) throws IOException {
+                classicResponse.setEntity(new InputStreamEntity(
+                    inputStream,
+                    entityDetails.getContentLength(),
+                    contentType,
+                    entityDetails.getContentEncoding()
+                ));
+
+                return ClassicResponseConsumer.this.handleResponse(classicResponse);
+            }
+        };
+
+        this.entityConsumer = consumer;
+
+        consumer.streamStart(entityDetails, resultCallback);
+    }
+
+    @Override
+    public void informationResponse(HttpResponse response, HttpContext context) {
+    }
+
+    @Override
+    public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+        AbstractClassicEntityConsumer<T> consumer = this.entityConsumer;
+
+        if (consumer != null) {
+            consumer.updateCapacity(capacityChannel);
+        }
+    }
+
+    @Override
+    public void consume(ByteBuffer src) throws IOException {
+        this.checkCancelled();
+
+        AbstractClassicEntityConsumer<T> consumer = this.entityConsumer;
+
+        if (consumer != null) {
+            consumer.consume(src);
+        }
+    }
+
+    @Override
+    public void streamEnd(List<? extends Header> trailers) throws HttpException, IOException {
+        AbstractClassicEntityConsumer<T> consumer = this.entityConsumer;
+
+        if (consumer != null) {
+            consumer.streamEnd(trailers);
+        }
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        AbstractClassicEntityConsumer<T> consumer = this.entityConsumer;
+
+        if (consumer != null) {
+            consumer.failed(cause);
+        }
+    }
+
+    @Override
+    public void releaseResources() {
+        AbstractClassicEntityConsumer<T> consumer = this.entityConsumer;
+
+        this.entityConsumer = null;
+
+        if (consumer != null) {
+            consumer.releaseResources();
+        }
+    }
+}
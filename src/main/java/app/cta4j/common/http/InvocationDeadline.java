@@ -0,0 +1,114 @@
+package app.cta4j.common.http;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tracks how much of the current invocation's time budget is left, so retries never outlive the function, and how
+ * long each platform's publish may still take, so retries never outlive the publisher's wait either.
+ */
+@Component
+public final class InvocationDeadline {
+    private final Duration timeBudget;
+    private final Duration reserve;
+
+    private final AtomicReference<Instant> deadline;
+
+    private final Map<String, Instant> platformDeadlines;
+
+    @Autowired
+    public InvocationDeadline(
+        @Value("${app.invocation.time-budget}") Duration timeBudget,
+        @Value("${app.invocation.reserve}") Duration reserve
+    ) {
+        this.timeBudget = timeBudget;
+        this.reserve = reserve;
+        this.deadline = new AtomicReference<>();
+        this.platformDeadlines = new ConcurrentHashMap<>();
+    }
+
+    private static Duration getRemaining(Instant deadline) {
+        Duration remaining = Duration.between(Instant.now(), deadline);
+
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    /**
+     * Starts an invocation with the configured time budget, for runs that have no platform deadline of their own.
+     */
+    public void start() {
+        Instant newDeadline = Instant.now()
+                                     .plus(this.timeBudget);
+
+        this.deadline.set(newDeadline);
+    }
+
+    /**
+     * Starts an invocation that must end within {@code remainingTime}, as reported by the Lambda context, keeping the
+     * configured reserve back for flushing the outbox and metrics once publishing is done.
+     */
+    public void start(Duration remainingTime) {
+        Objects.requireNonNull(remainingTime);
+
+        Duration budget = remainingTime.minus(this.reserve);
+
+        Instant newDeadline = Instant.now()
+                                     .plus(budget.isNegative() ? Duration.ZERO : budget);
+
+        this.deadline.set(newDeadline);
+    }
+
+    public Duration getRemaining() {
+        Instant currentDeadline = this.deadline.get();
+
+        if (currentDeadline == null) {
+            return this.timeBudget;
+        }
+
+        return getRemaining(currentDeadline);
+    }
+
+    /**
+     * Records when the publisher stops waiting for {@code platform}. Posts published at the same time share the later
+     * deadline.
+     */
+    public void startPlatform(String platform, Instant platformDeadline) {
+        Objects.requireNonNull(platform);
+        Objects.requireNonNull(platformDeadline);
+
+        this.platformDeadlines.merge(platform, platformDeadline, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    public void endPlatform(String platform, Instant platformDeadline) {
+        Objects.requireNonNull(platform);
+        Objects.requireNonNull(platformDeadline);
+
+        this.platformDeadlines.remove(platform, platformDeadline);
+    }
+
+    /**
+     * Returns the time left for a request to {@code platform}, which is the invocation's remaining time, capped at
+     * the platform's publish deadline while a publish is in progress.
+     */
+    public Duration getRemaining(String platform) {
+        Duration remaining = this.getRemaining();
+
+        Instant platformDeadline = (platform == null) ? null : this.platformDeadlines.get(platform);
+
+        if (platformDeadline == null) {
+            return remaining;
+        }
+
+        Duration platformRemaining = getRemaining(platformDeadline);
+
+        return (platformRemaining.compareTo(remaining) < 0) ? platformRemaining : remaining;
+    }
+}
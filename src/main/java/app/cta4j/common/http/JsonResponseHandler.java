@@ -0,0 +1,104 @@
+package app.cta4j.common.http;
+
+import app.cta4j.common.dto.Response;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Decodes a JSON response straight from the entity stream and drains error bodies, keeping only a short snippet for
+ * diagnostics.
+ */
+public final class JsonResponseHandler<R, T> implements HttpClientResponseHandler<Response<T>> {
+    private static final Logger log = LoggerFactory.getLogger(JsonResponseHandler.class);
+
+    private static final int ERROR_SNIPPET_LENGTH = 512;
+
+    private final ObjectReader reader;
+    private final Set<Integer> expectedStatusCodes;
+    private final Function<R, T> extractor;
+    private final Function<JsonProcessingException, RuntimeException> exceptionFactory;
+
+    public JsonResponseHandler(
+        ObjectReader reader,
+        Set<Integer> expectedStatusCodes,
+        Function<R, T> extractor,
+        Function<JsonProcessingException, RuntimeException> exceptionFactory
+    ) {
+        this.reader = Objects.requireNonNull(reader);
+        this.expectedStatusCodes = Set.copyOf(expectedStatusCodes);
+        this.extractor = Objects.requireNonNull(extractor);
+        this.exceptionFactory = Objects.requireNonNull(exceptionFactory);
+    }
+
+    public static String readSnippet(HttpEntity entity) throws IOException {
+        if (entity == null) {
+            return "";
+        }
+
+        Charset charset = StandardCharsets.UTF_8;
+
+        ContentType contentType = ContentType.parseLenient(entity.getContentType());
+
+        if ((contentType != null) && (contentType.getCharset() != null)) {
+            charset = contentType.getCharset();
+        }
+
+        try (InputStream inputStream = entity.getContent()) {
+            if (inputStream == null) {
+                return "";
+            }
+
+            byte[] snippet = inputStream.readNBytes(ERROR_SNIPPET_LENGTH);
+
+            inputStream.transferTo(OutputStream.nullOutputStream());
+
+            return new String(snippet, charset);
+        }
+    }
+
+    @Override
+    public Response<T> handleResponse(ClassicHttpResponse httpResponse) throws IOException {
+        int statusCode = httpResponse.getCode();
+
+        HttpEntity entity = httpResponse.getEntity();
+
+        if (!this.expectedStatusCodes.contains(statusCode)) {
+            String snippet = readSnippet(entity);
+
+            log.warn("Unexpected status code {} with body: {}", statusCode, snippet);
+
+            return new Response<>(statusCode, null);
+        }
+
+        if (entity == null) {
+            return new Response<>(statusCode, null);
+        }
+
+        R body;
+
+        try (InputStream inputStream = entity.getContent()) {
+            body = this.reader.readValue(inputStream);
+        } catch (JsonProcessingException e) {
+            throw this.exceptionFactory.apply(e);
+        }
+
+        T data = (body == null) ? null : this.extractor.apply(body);
+
+        return new Response<>(statusCode, data);
+    }
+}
@@ -0,0 +1,174 @@
+package app.cta4j.common.http;
+
+import app.cta4j.common.metrics.MetricsRegistry;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.*;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.net.URIAuthority;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Times every platform call, retries included, on both the classic and the async client.
+ */
+@Component
+public final class LatencyExecInterceptor implements ExecChainHandler, AsyncExecChainHandler {
+    public static final String NAME = "latency";
+
+    /**
+     * Context attribute that overrides the stage name, for endpoints whose path carries request parameters.
+     */
+    public static final String STAGE_ATTRIBUTE = "app.metrics.stage";
+
+    private final MetricsRegistry metricsRegistry;
+    private final PlatformEndpoints platformEndpoints;
+
+    @Autowired
+    public LatencyExecInterceptor(MetricsRegistry metricsRegistry, PlatformEndpoints platformEndpoints) {
+        this.metricsRegistry = metricsRegistry;
+        this.platformEndpoints = platformEndpoints;
+    }
+
+    private String getPlatform(HttpRoute route, HttpRequest request) {
+        URIAuthority authority = request.getAuthority();
+
+        if (authority == null) {
+            HttpHost targetHost = route.getTargetHost();
+
+            return this.platformEndpoints.getPlatform(
+                targetHost.getSchemeName(),
+                targetHost.getHostName(),
+                targetHost.getPort()
+            ).orElse(targetHost.getHostName());
+        }
+
+        return this.platformEndpoints.getPlatform(request.getScheme(), authority.getHostName(), authority.getPort())
+                                     .orElse(authority.getHostName());
+    }
+
+    private static String getStage(HttpRequest request, HttpContext context) {
+        if ((context != null) && (context.getAttribute(STAGE_ATTRIBUTE) instanceof String stage)) {
+            return stage;
+        }
+
+        String path = request.getPath();
+
+        if (path == null) {
+            path = "/";
+        }
+
+        int queryIndex = path.indexOf('?');
+
+        if (queryIndex >= 0) {
+            path = path.substring(0, queryIndex);
+        }
+
+        return String.format("%s %s", request.getMethod(), path);
+    }
+
+    private static String getOutcome(int statusCode) {
+        if (statusCode == HttpStatus.SC_TOO_MANY_REQUESTS) {
+            return "throttled";
+        }
+
+        if (statusCode >= HttpStatus.SC_SERVER_ERROR) {
+            return "server_error";
+        }
+
+        if (statusCode >= HttpStatus.SC_CLIENT_ERROR) {
+            return "client_error";
+        }
+
+        return MetricsRegistry.OUTCOME_SUCCESS;
+    }
+
+    private void record(HttpRoute route, HttpRequest request, HttpContext context, String outcome, long startNanos) {
+        Duration duration = Duration.ofNanos(System.nanoTime() - startNanos);
+
+        this.metricsRegistry.record(getStage(request, context), this.getPlatform(route, request), outcome, duration);
+    }
+
+    @Override
+    public ClassicHttpResponse execute(
+        ClassicHttpRequest request,
+        ExecChain.Scope scope,
+        ExecChain chain
+    ) throws IOException, HttpException {
+        long startNanos = System.nanoTime();
+
+        ClassicHttpResponse response;
+
+        try {
+            response = chain.proceed(request, scope);
+        } catch (IOException | HttpException | RuntimeException e) {
+            this.record(scope.route, request, scope.clientContext, MetricsRegistry.OUTCOME_FAILURE, startNanos);
+
+            throw e;
+        }
+
+        this.record(scope.route, request, scope.clientContext, getOutcome(response.getCode()), startNanos);
+
+        return response;
+    }
+
+    @Override
+    public void execute(
+        HttpRequest request,
+        AsyncEntityProducer entityProducer,
+        AsyncExecChain.Scope scope,
+        AsyncExecChain chain,
+        AsyncExecCallback asyncExecCallback
+    ) throws HttpException, IOException {
+        long startNanos = System.nanoTime();
+
+        AtomicInteger statusCode = new AtomicInteger();
+
+        chain.proceed(request, entityProducer, scope, new AsyncExecCallback() {
+            @Override
+            public AsyncDataConsumer handleResponse(
+                HttpResponse response,
+                EntityDetails entityDetails
+            ) throws HttpException, IOException {
+                statusCode.set(response.getCode());
+
+                return asyncExecCallback.handleResponse(response, entityDetails);
+            }
+
+            @Override
+            public void handleInformationResponse(HttpResponse response) throws HttpException, IOException {
+                asyncExecCallback.handleInformationResponse(response);
+            }
+
+            @Override
+            public void completed() {
+                LatencyExecInterceptor.this.record(
+                    scope.route,
+                    request,
+                    scope.clientContext,
+                    getOutcome(statusCode.get()),
+                    startNanos
+                );
+
+                asyncExecCallback.completed();
+            }
+
+            @Override
+            public void failed(Exception cause) {
+                LatencyExecInterceptor.this.record(scope.route, request, scope.clientContext, MetricsRegistry.OUTCOME_FAILURE, startNanos);
+
+                asyncExecCallback.failed(cause);
+            }
+        });
+    }
+}
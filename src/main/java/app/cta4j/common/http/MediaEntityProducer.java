@@ -0,0 +1,208 @@
+package app.cta4j.common.http;
+
+import app.cta4j.common.dto.Media;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.message.BasicNameValuePair;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Streams a media upload on the async client straight from the shared {@link Media} bytes, either as the whole body
+ * or as the file part of a {@code multipart/form-data} body, without copying the media into a request buffer.
+ */
+public final class MediaEntityProducer implements AsyncEntityProducer {
+    private static final char[] BOUNDARY_CHARACTERS =
+        "-_1234567890abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    private static final int BOUNDARY_LENGTH = 32;
+
+    private static final String CRLF = "\r\n";
+
+    private final ByteBuffer[] segments;
+    private final String contentType;
+    private final long contentLength;
+
+    private int index;
+
+    private MediaEntityProducer(String contentType, ByteBuffer... segments) {
+        this.segments = segments;
+        this.contentType = contentType;
+
+        long length = 0L;
+
+        for (ByteBuffer segment : segments) {
+            length += segment.remaining();
+        }
+
+        this.contentLength = length;
+    }
+
+    public static MediaEntityProducer of(Media media) {
+        Objects.requireNonNull(media);
+
+        String contentType = media.contentType()
+                                  .toString();
+
+        return new MediaEntityProducer(contentType, media.asByteBuffer());
+    }
+
+    private static String generateBoundary() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        char[] boundary = new char[BOUNDARY_LENGTH];
+
+        for (int i = 0; i < BOUNDARY_LENGTH; i++) {
+            boundary[i] = BOUNDARY_CHARACTERS[random.nextInt(BOUNDARY_CHARACTERS.length)];
+        }
+
+        return new String(boundary);
+    }
+
+    private static ByteBuffer encode(StringBuilder builder) {
+        byte[] bytes = builder.toString()
+                              .getBytes(StandardCharsets.UTF_8);
+
+        return ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Builds a {@code multipart/form-data} body with the media as its first part, under {@code name}, followed by
+     * {@code fields} as plain text parts.
+     */
+    public static MediaEntityProducer multipart(String name, Media media, Map<String, String> fields) {
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(media);
+        Objects.requireNonNull(fields);
+
+        String boundary = generateBoundary();
+
+        StringBuilder head = new StringBuilder();
+
+        head.append("--")
+            .append(boundary)
+            .append(CRLF)
+            .append("Content-Disposition: form-data; name=\"")
+            .append(name)
+            .append("\"; filename=\"")
+            .append(media.filename())
+            .append('"')
+            .append(CRLF)
+            .append("Content-Type: ")
+            .append(media.contentType()
+                         .getMimeType())
+            .append(CRLF)
+            .append(CRLF);
+
+        StringBuilder tail = new StringBuilder(CRLF);
+
+        fields.forEach((fieldName, value) -> tail.append("--")
+                                                 .append(boundary)
+                                                 .append(CRLF)
+                                                 .append("Content-Disposition: form-data; name=\"")
+                                                 .append(fieldName)
+                                                 .append('"')
+                                                 .append(CRLF)
+                                                 .append(CRLF)
+                                                 .append(value)
+                                                 .append(CRLF));
+
+        tail.append("--")
+            .append(boundary)
+            .append("--")
+            .append(CRLF);
+
+        BasicNameValuePair boundaryParameter = new BasicNameValuePair("boundary", boundary);
+
+        String mimeType = ContentType.MULTIPART_FORM_DATA.getMimeType();
+
+        String contentType = ContentType.create(mimeType, boundaryParameter)
+                                        .toString();
+
+        return new MediaEntityProducer(contentType, encode(head), media.asByteBuffer(), encode(tail));
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public String getContentType() {
+        return this.contentType;
+    }
+
+    @Override
+    public long getContentLength() {
+        return this.contentLength;
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return null;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return false;
+    }
+
+    @Override
+    public Set<String> getTrailerNames() {
+        return null;
+    }
+
+    @Override
+    public synchronized int available() {
+        long remaining = 0L;
+
+        for (int i = this.index; i < this.segments.length; i++) {
+            remaining += this.segments[i].remaining();
+        }
+
+        return (int) Math.min(remaining, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public synchronized void produce(DataStreamChannel channel) throws IOException {
+        while (this.index < this.segments.length) {
+            ByteBuffer segment = this.segments[this.index];
+
+            if (segment.hasRemaining()) {
+                channel.write(segment);
+
+                if (segment.hasRemaining()) {
+                    return;
+                }
+            }
+
+            this.index++;
+        }
+
+        channel.endStream();
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        this.releaseResources();
+    }
+
+    /**
+     * Rewinds every segment, so a retried request sends the body again from the start.
+     */
+    @Override
+    public synchronized void releaseResources() {
+        for (ByteBuffer segment : this.segments) {
+            segment.rewind();
+        }
+
+        this.index = 0;
+    }
+}
@@ -0,0 +1,154 @@
+package app.cta4j.common.http;
+
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.URIScheme;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The base URI of every platform API, so that each one can be pointed at a stub server, a proxy or another instance.
+ * A base URI may carry a path prefix, which is kept in front of every endpoint path.
+ */
+@Component
+public final class PlatformEndpoints {
+    public static final String TWITTER = "Twitter";
+    public static final String BLUESKY = "Bluesky";
+    public static final String MASTODON = "Mastodon";
+    public static final String MAPBOX = "Mapbox";
+
+    private static final int HTTP_PORT = 80;
+    private static final int HTTPS_PORT = 443;
+
+    private final Map<String, URI> endpoints;
+
+    @Autowired
+    public PlatformEndpoints(
+        @Value("${app.endpoints.twitter}") URI twitter,
+        @Value("${app.endpoints.bluesky}") URI bluesky,
+        @Value("${app.endpoints.mastodon}") URI mastodon,
+        @Value("${app.endpoints.mapbox}") URI mapbox
+    ) {
+        Map<String, URI> endpoints = new LinkedHashMap<>();
+
+        endpoints.put(TWITTER, normalize(twitter));
+        endpoints.put(BLUESKY, normalize(bluesky));
+        endpoints.put(MASTODON, normalize(mastodon));
+        endpoints.put(MAPBOX, normalize(mapbox));
+
+        this.endpoints = Collections.unmodifiableMap(endpoints);
+    }
+
+    private static URI normalize(URI endpoint) {
+        Objects.requireNonNull(endpoint);
+
+        String scheme = endpoint.getScheme();
+
+        if (!URIScheme.HTTP.same(scheme) && !URIScheme.HTTPS.same(scheme)) {
+            throw new IllegalArgumentException(String.format("Endpoint %s is not an HTTP or HTTPS URI", endpoint));
+        }
+
+        if (endpoint.getHost() == null) {
+            throw new IllegalArgumentException(String.format("Endpoint %s has no host", endpoint));
+        }
+
+        if ((endpoint.getRawQuery() != null) || (endpoint.getRawFragment() != null)) {
+            throw new IllegalArgumentException(String.format("Endpoint %s has a query or fragment", endpoint));
+        }
+
+        String uriString = endpoint.toString();
+
+        while (uriString.endsWith("/")) {
+            uriString = uriString.substring(0, uriString.length() - 1);
+        }
+
+        return URI.create(uriString);
+    }
+
+    public static int getPort(String scheme, int port) {
+        if (port >= 0) {
+            return port;
+        }
+
+        return URIScheme.HTTP.same(scheme) ? HTTP_PORT : HTTPS_PORT;
+    }
+
+    public static boolean isLoopback(URI endpoint) {
+        try {
+            return InetAddress.getByName(endpoint.getHost())
+                              .isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    public URI getTwitter() {
+        return this.endpoints.get(TWITTER);
+    }
+
+    public URI getBluesky() {
+        return this.endpoints.get(BLUESKY);
+    }
+
+    public URI getMastodon() {
+        return this.endpoints.get(MASTODON);
+    }
+
+    public URI getMapbox() {
+        return this.endpoints.get(MAPBOX);
+    }
+
+    public Map<String, URI> getEndpoints() {
+        return this.endpoints;
+    }
+
+    /**
+     * Returns the distinct hosts, with explicit ports, that the connection pools should be sized for.
+     */
+    public List<HttpHost> getHosts() {
+        return this.endpoints.values()
+                             .stream()
+                             .map(endpoint -> new HttpHost(
+                                 endpoint.getScheme(),
+                                 endpoint.getHost(),
+                                 getPort(endpoint.getScheme(), endpoint.getPort())
+                             ))
+                             .distinct()
+                             .toList();
+    }
+
+    /**
+     * Returns the platform whose endpoint is served by the given host and port, which is how requests are attributed
+     * to a platform when several platforms share a host name, such as stubs on {@code localhost}.
+     */
+    public Optional<String> getPlatform(String scheme, String hostName, int port) {
+        if (hostName == null) {
+            return Optional.empty();
+        }
+
+        int effectivePort = getPort(scheme, port);
+
+        for (Map.Entry<String, URI> entry : this.endpoints.entrySet()) {
+            URI endpoint = entry.getValue();
+
+            boolean sameHost = endpoint.getHost()
+                                       .equalsIgnoreCase(hostName);
+
+            if (sameHost && (getPort(endpoint.getScheme(), endpoint.getPort()) == effectivePort)) {
+                return Optional.of(entry.getKey());
+            }
+        }
+
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,121 @@
+package app.cta4j.common.http;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Reads the rate limit headers sent by X ({@code x-rate-limit-*}), Bluesky ({@code ratelimit-*}) and Mastodon
+ * ({@code X-RateLimit-*}), plus the standard {@code Retry-After}.
+ */
+public final class RateLimitHeaders {
+    private static final List<String> RESET_HEADERS = List.of(
+        "x-rate-limit-reset",
+        "ratelimit-reset",
+        "X-RateLimit-Reset"
+    );
+
+    private static final List<String> REMAINING_HEADERS = List.of(
+        "x-rate-limit-remaining",
+        "ratelimit-remaining",
+        "X-RateLimit-Remaining"
+    );
+
+    /*
+     * Values below this are treated as a number of seconds to wait rather than an epoch second.
+     */
+    private static final long EPOCH_SECOND_THRESHOLD = 1_000_000_000L;
+
+    private RateLimitHeaders() {
+    }
+
+    private static Optional<Instant> parseInstant(String value, Instant now) {
+        String trimmed = value.trim();
+
+        try {
+            long seconds = Long.parseLong(trimmed);
+
+            if (seconds < EPOCH_SECOND_THRESHOLD) {
+                return Optional.of(now.plusSeconds(seconds));
+            }
+
+            return Optional.of(Instant.ofEpochSecond(seconds));
+        } catch (NumberFormatException e) {
+            // Not a number, try the date formats below.
+        }
+
+        try {
+            return Optional.of(OffsetDateTime.parse(trimmed)
+                                             .toInstant());
+        } catch (DateTimeParseException e) {
+            // Not ISO 8601, try the HTTP date format below.
+        }
+
+        try {
+            return Optional.of(ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME)
+                                            .toInstant());
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<String> getFirstValue(HttpResponse response, List<String> names) {
+        for (String name : names) {
+            Header header = response.getFirstHeader(name);
+
+            if (header != null) {
+                return Optional.of(header.getValue());
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    public static Optional<Instant> getResetTime(HttpResponse response, Instant now) {
+        Optional<Instant> resetTime = getFirstValue(response, RESET_HEADERS).flatMap(value -> parseInstant(value, now));
+
+        if (resetTime.isPresent()) {
+            return resetTime;
+        }
+
+        Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+
+        if (retryAfter == null) {
+            return Optional.empty();
+        }
+
+        return parseInstant(retryAfter.getValue(), now);
+    }
+
+    /**
+     * Returns whether {@code response} carries a platform's own rate limit headers, which describe the limit of the
+     * endpoint that was called rather than of the whole host.
+     */
+    public static boolean hasLimitHeaders(HttpResponse response) {
+        return getFirstValue(response, RESET_HEADERS).isPresent()
+            || getFirstValue(response, REMAINING_HEADERS).isPresent();
+    }
+
+    public static OptionalLong getRemaining(HttpResponse response) {
+        Optional<String> value = getFirstValue(response, REMAINING_HEADERS);
+
+        if (value.isEmpty()) {
+            return OptionalLong.empty();
+        }
+
+        try {
+            return OptionalLong.of(Long.parseLong(value.get().trim()));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+}
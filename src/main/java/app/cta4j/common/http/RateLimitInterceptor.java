@@ -0,0 +1,162 @@
+package app.cta4j.common.http;
+
+import app.cta4j.common.exception.RateLimitException;
+import org.apache.hc.client5.http.RouteInfo;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.*;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.net.URIAuthority;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Fails fast on endpoints that are still rate limited and records new limits from every response. X and Mastodon
+ * count their limits per endpoint, so an exhausted limit only blocks requests with the same method and path template.
+ * A whole host is blocked only by a 429 that carries no rate limit headers of its own, such as a bare
+ * {@code Retry-After}.
+ */
+@Component
+public final class RateLimitInterceptor implements HttpRequestInterceptor, HttpResponseInterceptor {
+    private static final String HOST_ATTRIBUTE = "app.rate-limit.host";
+    private static final String ENDPOINT_ATTRIBUTE = "app.rate-limit.endpoint";
+
+    private static final String ID_SEGMENT = "{id}";
+
+    private final RateLimitRegistry rateLimitRegistry;
+
+    @Autowired
+    public RateLimitInterceptor(RateLimitRegistry rateLimitRegistry) {
+        this.rateLimitRegistry = rateLimitRegistry;
+    }
+
+    /**
+     * Limits are kept per host, and per port when the authority names one, so that platforms served from one host,
+     * such as local stubs, are limited separately.
+     */
+    private static String getHost(URIAuthority authority) {
+        int port = authority.getPort();
+
+        if (port < 0) {
+            return authority.getHostName();
+        }
+
+        return String.format("%s:%d", authority.getHostName(), port);
+    }
+
+    /**
+     * Replaces numeric path segments, such as Mastodon media IDs, so that every request to one endpoint shares a key.
+     */
+    private static String getPathTemplate(String path) {
+        if (path == null) {
+            return "/";
+        }
+
+        int queryIndex = path.indexOf('?');
+
+        String rawPath = (queryIndex < 0) ? path : path.substring(0, queryIndex);
+
+        String[] segments = rawPath.split("/", -1);
+
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+
+            if (!segment.isEmpty() && segment.chars().allMatch(Character::isDigit)) {
+                segments[i] = ID_SEGMENT;
+            }
+        }
+
+        return String.join("/", segments);
+    }
+
+    private static String getEndpoint(String host, HttpRequest request) {
+        return String.format("%s %s %s", host, request.getMethod(), getPathTemplate(request.getPath()));
+    }
+
+    private void checkBlocked(String key) throws RateLimitException {
+        Optional<Instant> blockedUntil = this.rateLimitRegistry.getBlockedUntil(key);
+
+        if (blockedUntil.isPresent()) {
+            String message = String.format("%s is rate limited until %s", key, blockedUntil.get());
+
+            throw new RateLimitException(message);
+        }
+    }
+
+    private static String getBlockKey(String host, HttpResponse response, HttpContext context) {
+        if (RateLimitHeaders.hasLimitHeaders(response)
+            && (context.getAttribute(ENDPOINT_ATTRIBUTE) instanceof String endpoint)) {
+            return endpoint;
+        }
+
+        return host;
+    }
+
+    static String getHost(HttpContext context) {
+        if (context.getAttribute(HOST_ATTRIBUTE) instanceof String host) {
+            return host;
+        }
+
+        RouteInfo route = HttpClientContext.castOrCreate(context)
+                                           .getHttpRoute();
+
+        if (route == null) {
+            return null;
+        }
+
+        return route.getTargetHost()
+                    .getHostName();
+    }
+
+    @Override
+    public void process(HttpRequest request, EntityDetails entity, HttpContext context) throws RateLimitException {
+        URIAuthority authority = request.getAuthority();
+
+        if (authority == null) {
+            return;
+        }
+
+        String host = getHost(authority);
+
+        String endpoint = getEndpoint(host, request);
+
+        context.setAttribute(HOST_ATTRIBUTE, host);
+        context.setAttribute(ENDPOINT_ATTRIBUTE, endpoint);
+
+        this.checkBlocked(host);
+
+        this.checkBlocked(endpoint);
+    }
+
+    @Override
+    public void process(HttpResponse response, EntityDetails entity, HttpContext context) {
+        String host = getHost(context);
+
+        if (host == null) {
+            return;
+        }
+
+        boolean exhausted = response.getCode() == HttpStatus.SC_TOO_MANY_REQUESTS;
+
+        OptionalLong remaining = RateLimitHeaders.getRemaining(response);
+
+        if (remaining.isPresent() && (remaining.getAsLong() <= 0L)) {
+            exhausted = true;
+        }
+
+        if (!exhausted) {
+            return;
+        }
+
+        String key = getBlockKey(host, response, context);
+
+        Instant now = Instant.now();
+
+        RateLimitHeaders.getResetTime(response, now)
+                        .filter(now::isBefore)
+                        .ifPresent(resetTime -> this.rateLimitRegistry.block(key, resetTime));
+    }
+}
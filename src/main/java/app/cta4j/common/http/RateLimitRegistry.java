@@ -0,0 +1,53 @@
+package app.cta4j.common.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers, per endpoint or per host, when a platform said we may call it again. Lives as long as the execution environment, so a
+ * limit hit in one warm invocation is honoured by the next.
+ */
+@Component
+public final class RateLimitRegistry {
+    private static final Logger log = LoggerFactory.getLogger(RateLimitRegistry.class);
+
+    private final Map<String, Instant> blockedUntil;
+
+    public RateLimitRegistry() {
+        this.blockedUntil = new ConcurrentHashMap<>();
+    }
+
+    public void block(String key, Instant until) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(until);
+
+        Instant merged = this.blockedUntil.merge(key, until, (current, next) -> next.isAfter(current) ? next : current);
+
+        log.warn("Rate limited on {} until {}", key, merged);
+    }
+
+    public Optional<Instant> getBlockedUntil(String key) {
+        Objects.requireNonNull(key);
+
+        Instant until = this.blockedUntil.get(key);
+
+        if (until == null) {
+            return Optional.empty();
+        }
+
+        if (!Instant.now().isBefore(until)) {
+            this.blockedUntil.remove(key, until);
+
+            return Optional.empty();
+        }
+
+        return Optional.of(until);
+    }
+}
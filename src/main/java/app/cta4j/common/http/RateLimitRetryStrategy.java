@@ -0,0 +1,223 @@
+package app.cta4j.common.http;
+
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.client5.http.HttpHostConnectException;
+import org.apache.hc.client5.http.HttpRequestRetryStrategy;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.net.URIAuthority;
+import org.apache.hc.core5.util.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries throttled and failed platform calls with jittered exponential backoff, waiting for the platform's reset time
+ * when it sends one, but never past the invocation's deadline or the platform's publish deadline. Requests marked
+ * with {@link #NON_IDEMPOTENT_ATTRIBUTE}, such as creating a post, are only retried when the platform cannot have
+ * acted on them, so a retry never publishes a duplicate.
+ */
+@Component
+public final class RateLimitRetryStrategy implements HttpRequestRetryStrategy {
+    private static final Logger log = LoggerFactory.getLogger(RateLimitRetryStrategy.class);
+
+    public static final String NON_IDEMPOTENT_ATTRIBUTE = "app.retry.non-idempotent";
+
+    private static final String RETRY_DELAY_ATTRIBUTE = "app.cta4j.retry-delay";
+
+    private static final Set<Integer> RETRYABLE_STATUS_CODES = Set.of(
+        HttpStatus.SC_TOO_MANY_REQUESTS,
+        HttpStatus.SC_INTERNAL_SERVER_ERROR,
+        HttpStatus.SC_BAD_GATEWAY,
+        HttpStatus.SC_SERVICE_UNAVAILABLE,
+        HttpStatus.SC_GATEWAY_TIMEOUT
+    );
+
+    /**
+     * A 500, 502 or 504 may arrive after the platform has created the post, so only throttling and an explicit 503
+     * are safe to repeat.
+     */
+    private static final Set<Integer> NON_IDEMPOTENT_RETRYABLE_STATUS_CODES = Set.of(
+        HttpStatus.SC_TOO_MANY_REQUESTS,
+        HttpStatus.SC_SERVICE_UNAVAILABLE
+    );
+
+    private static final Duration MAX_JITTER = Duration.ofMillis(250L);
+
+    private final InvocationDeadline invocationDeadline;
+    private final PlatformEndpoints platformEndpoints;
+
+    private final int maxRetries;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    @Autowired
+    public RateLimitRetryStrategy(
+        InvocationDeadline invocationDeadline,
+        PlatformEndpoints platformEndpoints,
+        @Value("${app.http.retry.max-retries}") int maxRetries,
+        @Value("${app.http.retry.initial-backoff}") Duration initialBackoff,
+        @Value("${app.http.retry.max-backoff}") Duration maxBackoff
+    ) {
+        this.invocationDeadline = invocationDeadline;
+        this.platformEndpoints = platformEndpoints;
+        this.maxRetries = maxRetries;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Returns a context that marks its request as one whose repeat could publish a duplicate.
+     */
+    public static HttpClientContext createNonIdempotentContext() {
+        HttpClientContext context = HttpClientContext.create();
+
+        context.setAttribute(NON_IDEMPOTENT_ATTRIBUTE, Boolean.TRUE);
+
+        return context;
+    }
+
+    private static boolean isNonIdempotent(HttpContext context) {
+        return Boolean.TRUE.equals(context.getAttribute(NON_IDEMPOTENT_ATTRIBUTE));
+    }
+
+    private String getPlatform(HttpRequest request) {
+        if (request == null) {
+            return null;
+        }
+
+        URIAuthority authority = request.getAuthority();
+
+        if (authority == null) {
+            return null;
+        }
+
+        return this.platformEndpoints.getPlatform(request.getScheme(), authority.getHostName(), authority.getPort())
+                                     .orElse(null);
+    }
+
+    private Duration getBackoff(int execCount) {
+        int exponent = Math.min(execCount - 1, 16);
+
+        long ceilingMillis = Math.min(this.initialBackoff.toMillis() << exponent, this.maxBackoff.toMillis());
+
+        long backoffMillis = ThreadLocalRandom.current()
+                                              .nextLong(ceilingMillis + 1L);
+
+        return Duration.ofMillis(backoffMillis);
+    }
+
+    private Duration getJitter() {
+        long jitterMillis = ThreadLocalRandom.current()
+                                             .nextLong(MAX_JITTER.toMillis() + 1L);
+
+        return Duration.ofMillis(jitterMillis);
+    }
+
+    private boolean scheduleRetry(HttpRequest request, Duration delay, int execCount, HttpContext context) {
+        if (execCount > this.maxRetries) {
+            return false;
+        }
+
+        Duration remaining = this.invocationDeadline.getRemaining(this.getPlatform(request));
+
+        if (delay.compareTo(remaining) >= 0) {
+            log.warn("Not retrying, a {} ms delay exceeds the remaining {} ms", delay.toMillis(), remaining.toMillis());
+
+            return false;
+        }
+
+        context.setAttribute(RETRY_DELAY_ATTRIBUTE, delay);
+
+        return true;
+    }
+
+    @Override
+    public boolean retryRequest(HttpRequest request, IOException exception, int execCount, HttpContext context) {
+        boolean notSent = (exception instanceof ConnectTimeoutException) ||
+            (exception instanceof HttpHostConnectException) ||
+            (exception instanceof UnknownHostException);
+
+        if (!notSent) {
+            return false;
+        }
+
+        return this.scheduleRetry(request, this.getBackoff(execCount), execCount, context);
+    }
+
+    @Override
+    public boolean retryRequest(HttpResponse response, int execCount, HttpContext context) {
+        int statusCode = response.getCode();
+
+        Set<Integer> retryableStatusCodes = isNonIdempotent(context) ? NON_IDEMPOTENT_RETRYABLE_STATUS_CODES :
+            RETRYABLE_STATUS_CODES;
+
+        if (!retryableStatusCodes.contains(statusCode)) {
+            return false;
+        }
+
+        Instant now = Instant.now();
+
+        Optional<Instant> resetTime = RateLimitHeaders.getResetTime(response, now);
+
+        Duration delay;
+
+        if (resetTime.isPresent()) {
+            Duration untilReset = Duration.between(now, resetTime.get());
+
+            delay = (untilReset.isNegative() ? Duration.ZERO : untilReset).plus(this.getJitter());
+        } else {
+            delay = this.getBackoff(execCount);
+        }
+
+        HttpRequest request = HttpClientContext.castOrCreate(context)
+                                               .getRequest();
+
+        boolean retry = this.scheduleRetry(request, delay, execCount, context);
+
+        if (retry) {
+            log.info(
+                "Retrying request to {} after status code {} in {} ms (attempt {})",
+                RateLimitInterceptor.getHost(context),
+                statusCode,
+                delay.toMillis(),
+                execCount + 1
+            );
+        }
+
+        return retry;
+    }
+
+    private TimeValue getRetryInterval(HttpContext context) {
+        Object delay = context.getAttribute(RETRY_DELAY_ATTRIBUTE);
+
+        if (delay instanceof Duration duration) {
+            return TimeValue.ofMilliseconds(duration.toMillis());
+        }
+
+        return TimeValue.ofMilliseconds(this.initialBackoff.toMillis());
+    }
+
+    @Override
+    public TimeValue getRetryInterval(HttpRequest request, IOException exception, int execCount, HttpContext context) {
+        return this.getRetryInterval(context);
+    }
+
+    @Override
+    public TimeValue getRetryInterval(HttpResponse response, int execCount, HttpContext context) {
+        return this.getRetryInterval(context);
+    }
+}
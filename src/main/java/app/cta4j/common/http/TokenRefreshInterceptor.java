@@ -1,7 +1,6 @@
 package app.cta4j.common.http;
 
-import app.cta4j.common.service.SecretService;
-import app.cta4j.twitter.service.TwitterTokenRefreshService;
+import app.cta4j.twitter.service.TwitterTokenManager;
 import com.rollbar.notifier.Rollbar;
 import org.apache.hc.core5.http.EntityDetails;
 import org.apache.hc.core5.http.HttpHeaders;
@@ -15,34 +14,25 @@ import org.springframework.stereotype.Component;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.time.Duration;
-import java.time.Instant;
 import java.util.Objects;
-import java.util.concurrent.locks.ReentrantLock;
 
 @Component
 public final class TokenRefreshInterceptor implements HttpRequestInterceptor {
     private static final Logger log = LoggerFactory.getLogger(TokenRefreshInterceptor.class);
 
-    private static final String TWITTER_HOST_NAME = "api.x.com";
-    private static final Duration REFRESH_THRESHOLD = Duration.ofMinutes(5);
-
-    private final SecretService secretService;
-    private final TwitterTokenRefreshService tokenRefreshService;
+    private final TwitterTokenManager tokenManager;
     private final Rollbar rollbar;
-
-    private final ReentrantLock lock;
+    private final PlatformEndpoints platformEndpoints;
 
     @Autowired
     public TokenRefreshInterceptor(
-        SecretService secretService,
-        TwitterTokenRefreshService tokenRefreshService,
-        Rollbar rollbar
+        TwitterTokenManager tokenManager,
+        Rollbar rollbar,
+        PlatformEndpoints platformEndpoints
     ) {
-        this.secretService = secretService;
-        this.tokenRefreshService = tokenRefreshService;
+        this.tokenManager = tokenManager;
         this.rollbar = rollbar;
-        this.lock = new ReentrantLock();
+        this.platformEndpoints = platformEndpoints;
     }
 
     @Override
@@ -61,34 +51,17 @@ public final class TokenRefreshInterceptor implements HttpRequestInterceptor {
             return;
         }
 
-        String host = uri.getHost();
+        String platform = this.platformEndpoints.getPlatform(uri.getScheme(), uri.getHost(), uri.getPort())
+                                                .orElse(null);
 
-        if (!Objects.equals(host, TWITTER_HOST_NAME)) {
+        if (!Objects.equals(platform, PlatformEndpoints.TWITTER)) {
             return;
         }
 
-        this.lock.lock();
-
-        try {
-            Instant now = Instant.now();
-
-            Instant expirationTime = this.secretService.getSecret()
-                                                       .twitter()
-                                                       .expirationTime();
+        String accessToken = this.tokenManager.getAccessToken();
 
-            Instant thresholdTime = expirationTime.minus(REFRESH_THRESHOLD);
+        String authorizationHeader = String.format("Bearer %s", accessToken);
 
-            if (!now.isAfter(thresholdTime)) {
-                return;
-            }
-
-            String newAccessToken = this.tokenRefreshService.refreshAccessToken();
-
-            String newAuthorizationHeader = String.format("Bearer %s", newAccessToken);
-
-            httpRequest.setHeader(HttpHeaders.AUTHORIZATION, newAuthorizationHeader);
-        } finally {
-            this.lock.unlock();
-        }
+        httpRequest.setHeader(HttpHeaders.AUTHORIZATION, authorizationHeader);
     }
 }
@@ -0,0 +1,215 @@
+package app.cta4j.common.loadtest;
+
+import app.cta4j.common.dto.Media;
+import app.cta4j.common.dto.Post;
+import app.cta4j.common.http.PlatformEndpoints;
+import app.cta4j.common.metrics.LatencyHistogram;
+import app.cta4j.common.metrics.MetricKey;
+import app.cta4j.common.metrics.MetricsRegistry;
+import app.cta4j.common.publisher.MultiplatformPublisher;
+import app.cta4j.common.publisher.PublishStatus;
+import app.cta4j.mapbox.service.MapboxService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives posts end to end, from map download through media optimization to every platform, against local endpoints
+ * only, then reports posts per second, per-post latency and the latency of every stage and exits.
+ */
+@Component
+@ConditionalOnProperty(name = "app.load-test.enabled", havingValue = "true")
+public final class LoadTestRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private static final BigDecimal START_LATITUDE = new BigDecimal("41.8781");
+    private static final BigDecimal START_LONGITUDE = new BigDecimal("-87.6298");
+
+    /*
+     * Roughly 55 m, so every post falls in a new geohash cell and downloads its own map.
+     */
+    private static final BigDecimal LATITUDE_STEP = new BigDecimal("0.0005");
+
+    private final MapboxService mapboxService;
+    private final MultiplatformPublisher multiplatformPublisher;
+    private final MetricsRegistry metricsRegistry;
+    private final PlatformEndpoints platformEndpoints;
+    private final ApplicationContext applicationContext;
+
+    private final int posts;
+    private final int concurrency;
+
+    @Autowired
+    public LoadTestRunner(
+        MapboxService mapboxService,
+        MultiplatformPublisher multiplatformPublisher,
+        MetricsRegistry metricsRegistry,
+        PlatformEndpoints platformEndpoints,
+        ApplicationContext applicationContext,
+        @Value("${app.load-test.posts}") int posts,
+        @Value("${app.load-test.concurrency}") int concurrency
+    ) {
+        if ((posts < 1) || (concurrency < 1)) {
+            throw new IllegalArgumentException("Load test posts and concurrency must be positive");
+        }
+
+        this.mapboxService = mapboxService;
+        this.multiplatformPublisher = multiplatformPublisher;
+        this.metricsRegistry = metricsRegistry;
+        this.platformEndpoints = platformEndpoints;
+        this.applicationContext = applicationContext;
+        this.posts = posts;
+        this.concurrency = concurrency;
+    }
+
+    private void checkEndpoints() {
+        for (Map.Entry<String, URI> entry : this.platformEndpoints.getEndpoints()
+                                                                  .entrySet()) {
+            if (!PlatformEndpoints.isLoopback(entry.getValue())) {
+                String message = String.format(
+                    "Load tests only run against local endpoints, but %s is %s",
+                    entry.getKey(),
+                    entry.getValue()
+                );
+
+                throw new IllegalStateException(message);
+            }
+        }
+    }
+
+    private void publishPost(
+        int index,
+        LatencyHistogram postLatency,
+        Map<String, AtomicInteger> statusCounts
+    ) {
+        long startNanos = System.nanoTime();
+
+        BigDecimal latitude = START_LATITUDE.add(LATITUDE_STEP.multiply(BigDecimal.valueOf(index)));
+
+        Media map = this.mapboxService.generateMap(latitude, START_LONGITUDE);
+
+        Post post = new Post(String.format("Load test post %d", index), map);
+
+        Map<String, PublishStatus> statuses = this.multiplatformPublisher.publish(post);
+
+        postLatency.record(Duration.ofNanos(System.nanoTime() - startNanos)
+                                   .toMillis());
+
+        statuses.forEach((platform, status) -> statusCounts.computeIfAbsent(
+            String.format("%s %s", platform, status),
+            key -> new AtomicInteger()
+        ).incrementAndGet());
+    }
+
+    private void logStages(Map<MetricKey, LatencyHistogram> histograms) {
+        List<Map.Entry<MetricKey, LatencyHistogram>> entries = new ArrayList<>(histograms.entrySet());
+
+        entries.sort(Map.Entry.comparingByKey(Comparator.comparing(MetricKey::platform)
+                                                        .thenComparing(MetricKey::stage)
+                                                        .thenComparing(MetricKey::outcome)));
+
+        for (Map.Entry<MetricKey, LatencyHistogram> entry : entries) {
+            MetricKey key = entry.getKey();
+            LatencyHistogram histogram = entry.getValue();
+
+            log.info(
+                "{} {} {}: count={} p50={} p90={} p99={} max={} ms",
+                key.platform(),
+                key.stage(),
+                key.outcome(),
+                histogram.getCount(),
+                histogram.getPercentile(50.0),
+                histogram.getPercentile(90.0),
+                histogram.getPercentile(99.0),
+                histogram.getMax()
+            );
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        this.checkEndpoints();
+
+        this.metricsRegistry.drain();
+
+        LatencyHistogram postLatency = new LatencyHistogram();
+
+        Map<String, AtomicInteger> statusCounts = new ConcurrentHashMap<>();
+
+        AtomicInteger errors = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>(this.posts);
+
+        long startNanos = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(this.concurrency, Thread.ofVirtual().factory())) {
+            for (int i = 0; i < this.posts; i++) {
+                int index = i;
+
+                futures.add(executor.submit(() -> this.publishPost(index, postLatency, statusCounts)));
+            }
+
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    log.warn("Load test post failed", e.getCause());
+
+                    errors.incrementAndGet();
+                }
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+
+        double seconds = Math.max(elapsed.toNanos() / 1e9, 1e-9);
+
+        Map<String, Integer> statuses = new TreeMap<>();
+
+        statusCounts.forEach((key, count) -> statuses.put(key, count.get()));
+
+        log.info(
+            "Published {} posts with concurrency {} in {} ({} posts/s), {} failed before publishing, statuses {}",
+            this.posts,
+            this.concurrency,
+            elapsed,
+            String.format("%.1f", this.posts / seconds),
+            errors.get(),
+            statuses
+        );
+
+        log.info(
+            "Post latency ms p50={} p90={} p99={} max={}",
+            postLatency.getPercentile(50.0),
+            postLatency.getPercentile(90.0),
+            postLatency.getPercentile(99.0),
+            postLatency.getMax()
+        );
+
+        this.logStages(this.metricsRegistry.drain());
+
+        System.exit(SpringApplication.exit(this.applicationContext));
+    }
+}
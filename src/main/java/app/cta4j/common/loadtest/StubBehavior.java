@@ -0,0 +1,26 @@
+package app.cta4j.common.loadtest;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * How the stub platforms respond: a base latency plus uniform jitter, the share of requests answered with 503, and a
+ * fixed-window request budget per platform, where a limit of zero or less disables rate limiting.
+ */
+record StubBehavior(
+    Duration latency,
+    Duration latencyJitter,
+    double errorRate,
+    int rateLimit,
+    Duration rateLimitWindow
+) {
+    StubBehavior {
+        Objects.requireNonNull(latency);
+        Objects.requireNonNull(latencyJitter);
+        Objects.requireNonNull(rateLimitWindow);
+
+        if ((errorRate < 0.0) || (errorRate > 1.0)) {
+            throw new IllegalArgumentException("The stub error rate must be between 0 and 1");
+        }
+    }
+}
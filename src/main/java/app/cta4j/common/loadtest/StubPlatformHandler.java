@@ -0,0 +1,335 @@
+package app.cta4j.common.loadtest;
+
+import app.cta4j.common.http.PlatformEndpoints;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers one platform's upload, post and session endpoints with minimal valid responses, after a configurable
+ * latency. A share of requests fail with 503, and a fixed-window request budget answers 429 with the platform's own
+ * rate limit headers once it is spent.
+ */
+final class StubPlatformHandler implements HttpHandler {
+    private static final String JSON = "application/json";
+    private static final String PNG = "image/png";
+
+    private static final String MAP_ETAG = "\"loadtest-map\"";
+
+    private static final Base64.Encoder JWT_ENCODER = Base64.getUrlEncoder()
+                                                            .withoutPadding();
+
+    private final String platform;
+    private final String basePath;
+    private final ObjectMapper objectMapper;
+    private final StubBehavior behavior;
+    private final byte[] mapImage;
+
+    private final AtomicLong nextId;
+
+    private long windowEnd;
+    private int windowCount;
+
+    private record StubResponse(int statusCode, String contentType, byte[] body, Map<String, String> headers) {
+    }
+
+    StubPlatformHandler(
+        String platform,
+        String basePath,
+        ObjectMapper objectMapper,
+        StubBehavior behavior,
+        byte[] mapImage
+    ) {
+        this.platform = Objects.requireNonNull(platform);
+        this.basePath = Objects.requireNonNull(basePath);
+        this.objectMapper = Objects.requireNonNull(objectMapper);
+        this.behavior = Objects.requireNonNull(behavior);
+        this.mapImage = Objects.requireNonNull(mapImage);
+        this.nextId = new AtomicLong(1_000_000L);
+    }
+
+    private String nextId() {
+        return String.valueOf(this.nextId.getAndIncrement());
+    }
+
+    private StubResponse json(int statusCode, Object body) {
+        byte[] bytes;
+
+        try {
+            bytes = this.objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize stub response", e);
+        }
+
+        return new StubResponse(statusCode, JSON, bytes, new LinkedHashMap<>());
+    }
+
+    private String jwt(Duration lifetime) {
+        long expiration = Instant.now()
+                                 .plus(lifetime)
+                                 .getEpochSecond();
+
+        String header = "{\"alg\":\"none\"}";
+        String payload = String.format("{\"sub\":\"did:plc:loadtest\",\"exp\":%d}", expiration);
+
+        return String.format(
+            "%s.%s.",
+            JWT_ENCODER.encodeToString(header.getBytes(StandardCharsets.UTF_8)),
+            JWT_ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+        );
+    }
+
+    private StubResponse twitter(String path) {
+        return switch (path) {
+            case "/2/oauth2/token" -> this.json(200, Map.of(
+                "token_type", "bearer",
+                "expires_in", 7200,
+                "access_token", "loadtest-" + this.nextId(),
+                "refresh_token", "loadtest-" + this.nextId(),
+                "scope", "tweet.read tweet.write users.read media.write offline.access"
+            ));
+            case "/2/media/upload" -> {
+                String id = this.nextId();
+
+                yield this.json(200, Map.of("data", Map.of("id", id, "media_key", "3_" + id)));
+            }
+            case "/2/tweets" -> this.json(201, Map.of("data", Map.of("id", this.nextId(), "text", "loadtest")));
+            default -> null;
+        };
+    }
+
+    private StubResponse bluesky(String path, String requestContentType, int requestLength) {
+        return switch (path) {
+            case "/xrpc/com.atproto.server.createSession", "/xrpc/com.atproto.server.refreshSession" -> this.json(
+                200,
+                Map.of(
+                    "accessJwt", this.jwt(Duration.ofHours(2L)),
+                    "refreshJwt", this.jwt(Duration.ofDays(60L)),
+                    "handle", "loadtest.bsky.social",
+                    "did", "did:plc:loadtest"
+                )
+            );
+            case "/xrpc/com.atproto.repo.uploadBlob" -> this.json(200, Map.of("blob", Map.of(
+                "$type", "blob",
+                "ref", Map.of("$link", "bafkreiloadtest" + this.nextId()),
+                "mimeType", (requestContentType == null) ? "application/octet-stream" : requestContentType,
+                "size", requestLength
+            )));
+            case "/xrpc/com.atproto.repo.createRecord" -> {
+                String id = this.nextId();
+
+                yield this.json(200, Map.of(
+                    "uri", "at://did:plc:loadtest/app.bsky.feed.post/" + id,
+                    "cid", "bafyreiloadtest" + id
+                ));
+            }
+            default -> null;
+        };
+    }
+
+    private StubResponse mastodon(String path) {
+        return switch (path) {
+            case "/api/v2/media" -> this.json(200, Map.of("id", this.nextId(), "type", "image"));
+            case "/api/v1/statuses" -> this.json(200, Map.of("id", this.nextId(), "content", "<p>loadtest</p>"));
+            default -> null;
+        };
+    }
+
+    private StubResponse mapbox(String path, Headers requestHeaders) {
+        if (!path.startsWith("/styles/v1/mapbox/streets-v12/static/")) {
+            return null;
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+
+        headers.put("ETag", MAP_ETAG);
+
+        if (MAP_ETAG.equals(requestHeaders.getFirst("If-None-Match"))) {
+            return new StubResponse(304, null, new byte[0], headers);
+        }
+
+        return new StubResponse(200, PNG, this.mapImage, headers);
+    }
+
+    private StubResponse route(HttpExchange exchange, String path, int requestLength) {
+        Headers requestHeaders = exchange.getRequestHeaders();
+
+        return switch (this.platform) {
+            case PlatformEndpoints.TWITTER -> this.twitter(path);
+            case PlatformEndpoints.BLUESKY -> this.bluesky(path, requestHeaders.getFirst("Content-Type"), requestLength);
+            case PlatformEndpoints.MASTODON -> this.mastodon(path);
+            case PlatformEndpoints.MAPBOX -> this.mapbox(path, requestHeaders);
+            default -> null;
+        };
+    }
+
+    private void addRateLimitHeaders(Map<String, String> headers, int remaining, long resetMillis) {
+        long resetSeconds = Math.ceilDiv(resetMillis, 1_000L);
+
+        String limit = String.valueOf(this.behavior.rateLimit());
+
+        switch (this.platform) {
+            case PlatformEndpoints.TWITTER -> {
+                headers.put("x-rate-limit-limit", limit);
+                headers.put("x-rate-limit-remaining", String.valueOf(remaining));
+                headers.put("x-rate-limit-reset", String.valueOf(resetSeconds));
+            }
+            case PlatformEndpoints.BLUESKY -> {
+                headers.put("ratelimit-limit", limit);
+                headers.put("ratelimit-remaining", String.valueOf(remaining));
+                headers.put("ratelimit-reset", String.valueOf(resetSeconds));
+            }
+            case PlatformEndpoints.MASTODON -> {
+                headers.put("X-RateLimit-Limit", limit);
+                headers.put("X-RateLimit-Remaining", String.valueOf(remaining));
+                headers.put("X-RateLimit-Reset", Instant.ofEpochMilli(resetMillis).toString());
+            }
+            default -> {
+                headers.put("X-Rate-Limit-Limit", limit);
+                headers.put("X-Rate-Limit-Reset", String.valueOf(resetSeconds));
+            }
+        }
+    }
+
+    /**
+     * Counts the request against the current window and returns the remaining budget, or -1 if it is spent.
+     */
+    private synchronized int acquire(long nowMillis) {
+        if (nowMillis >= this.windowEnd) {
+            this.windowEnd = nowMillis + this.behavior.rateLimitWindow()
+                                                      .toMillis();
+
+            this.windowCount = 0;
+        }
+
+        if (this.windowCount >= this.behavior.rateLimit()) {
+            return -1;
+        }
+
+        this.windowCount++;
+
+        return this.behavior.rateLimit() - this.windowCount;
+    }
+
+    private synchronized long getWindowEnd() {
+        return this.windowEnd;
+    }
+
+    private void sleep() {
+        long latencyNanos = this.behavior.latency()
+                                         .toNanos();
+
+        long jitterNanos = this.behavior.latencyJitter()
+                                        .toNanos();
+
+        if (jitterNanos > 0L) {
+            latencyNanos += ThreadLocalRandom.current()
+                                             .nextLong(jitterNanos + 1L);
+        }
+
+        if (latencyNanos <= 0L) {
+            return;
+        }
+
+        try {
+            Thread.sleep(Duration.ofNanos(latencyNanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+    }
+
+    private StubResponse respond(HttpExchange exchange, int requestLength) {
+        String rawPath = exchange.getRequestURI()
+                                 .getRawPath();
+
+        if (!rawPath.startsWith(this.basePath)) {
+            return this.json(404, Map.of("error", "not stubbed"));
+        }
+
+        Map<String, String> rateLimitHeaders = new LinkedHashMap<>();
+
+        if (this.behavior.rateLimit() > 0) {
+            long nowMillis = System.currentTimeMillis();
+
+            int remaining = this.acquire(nowMillis);
+
+            if (remaining < 0) {
+                StubResponse response = this.json(429, Map.of("error", "RateLimitExceeded"));
+
+                this.addRateLimitHeaders(response.headers(), 0, this.getWindowEnd());
+
+                return response;
+            }
+
+            this.addRateLimitHeaders(rateLimitHeaders, remaining, this.getWindowEnd());
+        }
+
+        if (ThreadLocalRandom.current()
+                             .nextDouble() < this.behavior.errorRate()) {
+            return this.json(503, Map.of("error", "ServiceUnavailable"));
+        }
+
+        StubResponse response = this.route(exchange, rawPath.substring(this.basePath.length()), requestLength);
+
+        if (response == null) {
+            return this.json(404, Map.of("error", "not stubbed"));
+        }
+
+        response.headers()
+                .putAll(rateLimitHeaders);
+
+        return response;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            int requestLength;
+
+            try (InputStream inputStream = exchange.getRequestBody()) {
+                requestLength = (int) inputStream.transferTo(OutputStream.nullOutputStream());
+            }
+
+            this.sleep();
+
+            StubResponse response = this.respond(exchange, requestLength);
+
+            Headers responseHeaders = exchange.getResponseHeaders();
+
+            response.headers()
+                    .forEach(responseHeaders::set);
+
+            if (response.contentType() != null) {
+                responseHeaders.set("Content-Type", response.contentType());
+            }
+
+            byte[] body = response.body();
+
+            boolean noBody = (response.statusCode() == 304) || (body.length == 0);
+
+            exchange.sendResponseHeaders(response.statusCode(), noBody ? -1L : body.length);
+
+            if (!noBody) {
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(body);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package app.cta4j.common.loadtest;
+
+import app.cta4j.common.http.PlatformEndpoints;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves a stub of every platform whose endpoint is a plain HTTP URI on a loopback host, on that endpoint's port.
+ * Endpoints anywhere else are left alone, so stubs can be mixed with real services.
+ */
+@Component
+@ConditionalOnProperty(name = "app.stub.enabled", havingValue = "true")
+public final class StubPlatformServer {
+    private static final Logger log = LoggerFactory.getLogger(StubPlatformServer.class);
+
+    private static final int MAP_WIDTH = 1200;
+    private static final int MAP_HEIGHT = 800;
+
+    private final List<HttpServer> httpServers;
+    private final ExecutorService executor;
+
+    @Autowired
+    public StubPlatformServer(
+        PlatformEndpoints platformEndpoints,
+        ObjectMapper objectMapper,
+        @Value("${app.stub.latency}") Duration latency,
+        @Value("${app.stub.latency-jitter}") Duration latencyJitter,
+        @Value("${app.stub.error-rate}") double errorRate,
+        @Value("${app.stub.rate-limit}") int rateLimit,
+        @Value("${app.stub.rate-limit-window}") Duration rateLimitWindow
+    ) {
+        StubBehavior behavior = new StubBehavior(latency, latencyJitter, errorRate, rateLimit, rateLimitWindow);
+
+        byte[] mapImage = renderMapImage();
+
+        this.httpServers = new ArrayList<>();
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        for (Map.Entry<String, URI> entry : platformEndpoints.getEndpoints()
+                                                             .entrySet()) {
+            String platform = entry.getKey();
+            URI endpoint = entry.getValue();
+
+            if (!"http".equalsIgnoreCase(endpoint.getScheme()) || !PlatformEndpoints.isLoopback(endpoint)) {
+                log.info("{} endpoint {} is not a local HTTP endpoint, it is not stubbed", platform, endpoint);
+
+                continue;
+            }
+
+            String basePath = (endpoint.getRawPath() == null) ? "" : endpoint.getRawPath();
+
+            StubPlatformHandler handler = new StubPlatformHandler(
+                platform,
+                basePath,
+                objectMapper,
+                behavior,
+                mapImage
+            );
+
+            this.httpServers.add(this.startServer(endpoint, handler));
+
+            log.info("Stubbing {} at {}", platform, endpoint);
+        }
+    }
+
+    /**
+     * Draws a street-grid placeholder at the size of a {@code @2x} static map, so media optimization does realistic
+     * work on it.
+     */
+    private static byte[] renderMapImage() {
+        BufferedImage image = new BufferedImage(MAP_WIDTH, MAP_HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+        Graphics2D graphics = image.createGraphics();
+
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+            graphics.setColor(new Color(0xF2EFE9));
+            graphics.fillRect(0, 0, MAP_WIDTH, MAP_HEIGHT);
+
+            graphics.setColor(Color.WHITE);
+            graphics.setStroke(new BasicStroke(14.0f));
+
+            for (int x = 40; x < MAP_WIDTH; x += 160) {
+                graphics.drawLine(x, 0, x, MAP_HEIGHT);
+            }
+
+            for (int y = 60; y < MAP_HEIGHT; y += 160) {
+                graphics.drawLine(0, y, MAP_WIDTH, y);
+            }
+
+            graphics.setColor(new Color(0xAADAFF));
+            graphics.fillRect(MAP_WIDTH - 220, 0, 220, MAP_HEIGHT);
+
+            graphics.setColor(Color.RED);
+            graphics.fillOval((MAP_WIDTH / 2) - 16, (MAP_HEIGHT / 2) - 16, 32, 32);
+        } finally {
+            graphics.dispose();
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try {
+            ImageIO.write(image, "png", outputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to render the stub map image", e);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private HttpServer startServer(URI endpoint, StubPlatformHandler handler) {
+        int port = PlatformEndpoints.getPort(endpoint.getScheme(), endpoint.getPort());
+
+        InetSocketAddress address = new InetSocketAddress(endpoint.getHost(), port);
+
+        HttpServer httpServer;
+
+        try {
+            httpServer = HttpServer.create(address, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start stub server for " + endpoint, e);
+        }
+
+        httpServer.setExecutor(this.executor);
+        httpServer.createContext("/", handler);
+        httpServer.start();
+
+        return httpServer;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (HttpServer httpServer : this.httpServers) {
+            httpServer.stop(0);
+        }
+
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,309 @@
+package app.cta4j.common.media;
+
+import app.cta4j.common.dto.Media;
+import app.cta4j.common.metrics.MetricsRegistry;
+import org.apache.hc.core5.http.ContentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Produces one media variant per distinct {@link MediaProfile}. The source is decoded once, only when some profile
+ * cannot take it as is, and the variants are encoded in parallel. A variant that comes out larger than an original
+ * which already fits is dropped in favour of the original.
+ */
+@Component
+public final class MediaOptimizer {
+    private static final Logger log = LoggerFactory.getLogger(MediaOptimizer.class);
+
+    private static final String STAGE_OPTIMIZE = "media.optimize";
+    private static final String PLATFORM = "Media";
+
+    /**
+     * JPEG quality in hundredths, so the ladder lands exactly on {@link #MIN_QUALITY} rather than drifting past it.
+     */
+    private static final int QUALITY_STEP = 10;
+    private static final int MIN_QUALITY = 50;
+    private static final float QUALITY_SCALE = 100.0F;
+    private static final double SCALE_STEP = 0.8;
+    private static final int MAX_DOWNSCALES = 4;
+
+    private static final int POOL_SIZE = 4;
+    private static final int INITIAL_BUFFER_CAPACITY = 256 * 1024;
+    private static final int MAX_RETAINED_BUFFER_CAPACITY = 8 * 1024 * 1024;
+
+    private final MetricsRegistry metricsRegistry;
+
+    private final OutputBufferPool bufferPool;
+
+    @Autowired
+    public MediaOptimizer(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+        this.bufferPool = new OutputBufferPool(POOL_SIZE, INITIAL_BUFFER_CAPACITY, MAX_RETAINED_BUFFER_CAPACITY);
+    }
+
+    private static ContentType getContentType(MediaProfile.Format format) {
+        return switch (format) {
+            case PNG -> ContentType.IMAGE_PNG;
+            case JPEG -> ContentType.IMAGE_JPEG;
+        };
+    }
+
+    private static boolean accepts(MediaProfile profile, Media media) {
+        String mimeType = getContentType(profile.format()).getMimeType();
+
+        boolean sameFormat = mimeType.equals(media.contentType()
+                                                  .getMimeType());
+
+        return sameFormat && (media.length() <= profile.maxBytes());
+    }
+
+    private static BufferedImage decode(Media media) throws IOException {
+        BufferedImage image = ImageIO.read(new MemoryCacheImageInputStream(media.newInputStream()));
+
+        if (image == null) {
+            throw new IOException("Media is not a readable image");
+        }
+
+        return image;
+    }
+
+    /**
+     * JPEG has no alpha channel, so images are flattened onto white, in the byte layout the JPEG writer encodes
+     * without a per-pixel conversion.
+     */
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+            return image;
+        }
+
+        BufferedImage rgbImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
+
+        Graphics2D graphics = rgbImage.createGraphics();
+
+        try {
+            graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        return rgbImage;
+    }
+
+    private static BufferedImage scale(BufferedImage image, double factor) {
+        int width = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * factor));
+
+        int type = (image.getType() == BufferedImage.TYPE_CUSTOM) ? BufferedImage.TYPE_INT_ARGB : image.getType();
+
+        BufferedImage scaledImage = new BufferedImage(width, height, type);
+
+        Graphics2D graphics = scaledImage.createGraphics();
+
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        return scaledImage;
+    }
+
+    private byte[] encode(BufferedImage image, MediaProfile.Format format, float quality) throws IOException {
+        String formatName = format.name()
+                                  .toLowerCase(Locale.ROOT);
+
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formatName);
+
+        if (!writers.hasNext()) {
+            throw new IOException("No image writer is available for " + formatName);
+        }
+
+        ImageWriter writer = writers.next();
+
+        OutputBufferPool.Buffer buffer = this.bufferPool.acquire();
+
+        try (MemoryCacheImageOutputStream outputStream = new MemoryCacheImageOutputStream(buffer)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+
+            if (format == MediaProfile.Format.JPEG) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+            }
+
+            writer.setOutput(outputStream);
+
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+
+        try {
+            return buffer.toByteArray();
+        } finally {
+            this.bufferPool.release(buffer);
+        }
+    }
+
+    private byte[] encodeWithinLimit(BufferedImage source, MediaProfile profile) throws IOException {
+        MediaProfile.Format format = profile.format();
+
+        BufferedImage image = (format == MediaProfile.Format.JPEG) ? toRgb(source) : source;
+
+        byte[] smallest = null;
+
+        int initialQuality = Math.round(profile.quality() * QUALITY_SCALE);
+
+        for (int downscales = 0; downscales <= MAX_DOWNSCALES; downscales++) {
+            int quality = initialQuality;
+
+            while (true) {
+                byte[] encoded = this.encode(image, format, quality / QUALITY_SCALE);
+
+                if (encoded.length <= profile.maxBytes()) {
+                    return encoded;
+                }
+
+                if ((smallest == null) || (encoded.length < smallest.length)) {
+                    smallest = encoded;
+                }
+
+                if ((format != MediaProfile.Format.JPEG) || (quality <= MIN_QUALITY)) {
+                    break;
+                }
+
+                quality = Math.max(quality - QUALITY_STEP, MIN_QUALITY);
+            }
+
+            if (downscales < MAX_DOWNSCALES) {
+                image = scale(image, SCALE_STEP);
+            }
+        }
+
+        log.warn("Could not fit media under {} bytes as {}, using {} bytes", profile.maxBytes(), format,
+            smallest.length);
+
+        return smallest;
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+
+            throw new IOException("Interrupted while encoding media", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+
+            throw new IOException("Failed to encode media", e.getCause());
+        }
+    }
+
+    private Map<MediaProfile, Media> encodeVariants(Media media, Set<MediaProfile> profiles) throws IOException {
+        BufferedImage image = decode(media);
+
+        Map<MediaProfile, Future<byte[]>> futures = new LinkedHashMap<>();
+
+        Map<MediaProfile, Media> variants = new LinkedHashMap<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (MediaProfile profile : profiles) {
+                Future<byte[]> future = executor.submit(() -> this.encodeWithinLimit(image, profile));
+
+                futures.put(profile, future);
+            }
+
+            for (Map.Entry<MediaProfile, Future<byte[]>> entry : futures.entrySet()) {
+                MediaProfile profile = entry.getKey();
+
+                byte[] data = await(entry.getValue());
+
+                boolean originalFits = media.length() <= profile.maxBytes();
+
+                if (originalFits && (data.length >= media.length())) {
+                    variants.put(profile, media);
+
+                    continue;
+                }
+
+                variants.put(profile, Media.wrap(data, getContentType(profile.format())));
+            }
+        }
+
+        return variants;
+    }
+
+    public Map<MediaProfile, Media> optimize(Media media, Collection<MediaProfile> profiles) {
+        Objects.requireNonNull(media);
+        Objects.requireNonNull(profiles);
+
+        Map<MediaProfile, Media> variants = new LinkedHashMap<>();
+
+        Set<MediaProfile> pendingProfiles = new LinkedHashSet<>();
+
+        for (MediaProfile profile : profiles) {
+            if (accepts(profile, media)) {
+                variants.put(profile, media);
+            } else {
+                pendingProfiles.add(profile);
+            }
+        }
+
+        if (pendingProfiles.isEmpty()) {
+            return variants;
+        }
+
+        Map<MediaProfile, Media> encodedVariants;
+
+        try {
+            encodedVariants = this.metricsRegistry.time(STAGE_OPTIMIZE, PLATFORM, () -> {
+                try {
+                    return this.encodeVariants(media, pendingProfiles);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            log.warn("Failed to optimize media, publishing the original", e);
+
+            for (MediaProfile profile : pendingProfiles) {
+                variants.put(profile, media);
+            }
+
+            return variants;
+        }
+
+        variants.putAll(encodedVariants);
+
+        encodedVariants.forEach((profile, variant) -> log.debug(
+            "Optimized media for {} from {} to {} bytes",
+            profile,
+            media.length(),
+            variant.length()
+        ));
+
+        return variants;
+    }
+}
@@ -0,0 +1,26 @@
+package app.cta4j.common.media;
+
+import java.util.Objects;
+
+/**
+ * The encoding a platform should receive. {@code quality} only applies to JPEG and is the starting point of the
+ * quality ladder used to fit under {@code maxBytes}.
+ */
+public record MediaProfile(Format format, float quality, long maxBytes) {
+    public enum Format {
+        PNG,
+        JPEG
+    }
+
+    public MediaProfile {
+        Objects.requireNonNull(format);
+
+        if ((quality <= 0.0F) || (quality > 1.0F)) {
+            throw new IllegalArgumentException("quality must be in (0, 1]");
+        }
+
+        if (maxBytes <= 0L) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package app.cta4j.common.media;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Keeps a few grown encode buffers around so repeated encodes of similarly sized images do not reallocate and copy
+ * their way up to the final size every time.
+ */
+final class OutputBufferPool {
+    private final BlockingQueue<Buffer> buffers;
+
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+
+    static final class Buffer extends ByteArrayOutputStream {
+        private Buffer(int capacity) {
+            super(capacity);
+        }
+
+        int capacity() {
+            return this.buf.length;
+        }
+    }
+
+    OutputBufferPool(int size, int initialCapacity, int maxRetainedCapacity) {
+        this.buffers = new ArrayBlockingQueue<>(size);
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    Buffer acquire() {
+        Buffer buffer = this.buffers.poll();
+
+        return (buffer == null) ? new Buffer(this.initialCapacity) : buffer;
+    }
+
+    void release(Buffer buffer) {
+        if (buffer.capacity() > this.maxRetainedCapacity) {
+            return;
+        }
+
+        buffer.reset();
+
+        this.buffers.offer(buffer);
+    }
+}
@@ -0,0 +1,136 @@
+package app.cta4j.common.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes drained latency histograms to stdout as CloudWatch Embedded Metric Format lines, which CloudWatch Logs turns
+ * into metrics without any extra API calls.
+ */
+@Component
+public final class EmfMetricsEmitter {
+    private static final Logger log = LoggerFactory.getLogger(EmfMetricsEmitter.class);
+
+    private static final String METRIC_NAME = "Latency";
+    private static final String UNIT = "Milliseconds";
+
+    /*
+     * EMF accepts at most 100 values per metric in a single log line.
+     */
+    private static final int MAX_VALUES_PER_LINE = 100;
+
+    private final MetricsRegistry metricsRegistry;
+    private final ObjectMapper objectMapper;
+
+    private final String namespace;
+    private final boolean enabled;
+
+    private final PrintStream output;
+
+    @Autowired
+    public EmfMetricsEmitter(
+        MetricsRegistry metricsRegistry,
+        ObjectMapper objectMapper,
+        @Value("${app.metrics.namespace}") String namespace,
+        @Value("${app.metrics.emf.enabled}") boolean enabled
+    ) {
+        this.metricsRegistry = metricsRegistry;
+        this.objectMapper = objectMapper;
+        this.namespace = namespace;
+        this.enabled = enabled;
+        this.output = System.out;
+    }
+
+    private List<Long> expandValues(LatencyHistogram histogram) {
+        List<Long> values = new ArrayList<>();
+
+        histogram.getCounts()
+                 .forEach((bucket, count) -> {
+                     for (long i = 0L; i < count; i++) {
+                         values.add(bucket);
+                     }
+                 });
+
+        return values;
+    }
+
+    private ObjectNode buildLine(MetricKey key, List<Long> values, long timestamp) {
+        ObjectNode line = this.objectMapper.createObjectNode();
+
+        ObjectNode aws = line.putObject("_aws");
+
+        aws.put("Timestamp", timestamp);
+
+        ObjectNode directive = aws.putArray("CloudWatchMetrics")
+                                  .addObject();
+
+        directive.put("Namespace", this.namespace);
+
+        directive.putArray("Dimensions")
+                 .addArray()
+                 .add("Stage")
+                 .add("Platform")
+                 .add("Outcome");
+
+        directive.putArray("Metrics")
+                 .addObject()
+                 .put("Name", METRIC_NAME)
+                 .put("Unit", UNIT);
+
+        line.put("Stage", key.stage());
+        line.put("Platform", key.platform());
+        line.put("Outcome", key.outcome());
+
+        ArrayNode valuesNode = line.putArray(METRIC_NAME);
+
+        values.forEach(valuesNode::add);
+
+        return line;
+    }
+
+    public void flush() {
+        Map<MetricKey, LatencyHistogram> histograms = this.metricsRegistry.drain();
+
+        if (!this.enabled || histograms.isEmpty()) {
+            return;
+        }
+
+        long timestamp = System.currentTimeMillis();
+
+        histograms.forEach((key, histogram) -> {
+            List<Long> values = this.expandValues(histogram);
+
+            for (int from = 0; from < values.size(); from += MAX_VALUES_PER_LINE) {
+                int to = Math.min(from + MAX_VALUES_PER_LINE, values.size());
+
+                ObjectNode line = this.buildLine(key, values.subList(from, to), timestamp);
+
+                try {
+                    this.output.println(this.objectMapper.writeValueAsString(line));
+                } catch (JsonProcessingException e) {
+                    log.warn("Failed to write metrics for {}", key, e);
+                }
+            }
+        });
+
+        this.output.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.flush();
+    }
+}
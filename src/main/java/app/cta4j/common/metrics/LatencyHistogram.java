@@ -0,0 +1,89 @@
+package app.cta4j.common.metrics;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Counts latencies in millisecond buckets with about two significant digits of precision, so a histogram stays small
+ * no matter how many samples it holds.
+ */
+public final class LatencyHistogram {
+    private final NavigableMap<Long, Long> counts;
+
+    private long count;
+    private long sum;
+    private long min;
+    private long max;
+
+    public LatencyHistogram() {
+        this.counts = new TreeMap<>();
+        this.min = Long.MAX_VALUE;
+        this.max = Long.MIN_VALUE;
+    }
+
+    static long toBucket(long millis) {
+        if (millis < 100L) {
+            return Math.max(millis, 0L);
+        }
+
+        long scale = 1L;
+
+        while ((millis / scale) >= 100L) {
+            scale *= 10L;
+        }
+
+        return Math.round((double) millis / scale) * scale;
+    }
+
+    public synchronized void record(long millis) {
+        long bucket = toBucket(millis);
+
+        this.counts.merge(bucket, 1L, Long::sum);
+
+        this.count++;
+        this.sum += millis;
+        this.min = Math.min(this.min, millis);
+        this.max = Math.max(this.max, millis);
+    }
+
+    public synchronized Map<Long, Long> getCounts() {
+        return new TreeMap<>(this.counts);
+    }
+
+    public synchronized long getCount() {
+        return this.count;
+    }
+
+    public synchronized long getSum() {
+        return this.sum;
+    }
+
+    public synchronized long getMin() {
+        return (this.count == 0L) ? 0L : this.min;
+    }
+
+    public synchronized long getMax() {
+        return (this.count == 0L) ? 0L : this.max;
+    }
+
+    public synchronized long getPercentile(double percentile) {
+        if (this.count == 0L) {
+            return 0L;
+        }
+
+        long rank = (long) Math.ceil((percentile / 100.0) * this.count);
+
+        long seen = 0L;
+
+        for (Map.Entry<Long, Long> entry : this.counts.entrySet()) {
+            seen += entry.getValue();
+
+            if (seen >= rank) {
+                return entry.getKey();
+            }
+        }
+
+        return this.counts.lastKey();
+    }
+}
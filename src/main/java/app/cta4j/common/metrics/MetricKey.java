@@ -0,0 +1,11 @@
+package app.cta4j.common.metrics;
+
+import java.util.Objects;
+
+public record MetricKey(String stage, String platform, String outcome) {
+    public MetricKey {
+        Objects.requireNonNull(stage);
+        Objects.requireNonNull(platform);
+        Objects.requireNonNull(outcome);
+    }
+}
@@ -0,0 +1,115 @@
+package app.cta4j.common.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * In-memory latency histograms keyed by stage, platform and outcome. {@link EmfMetricsEmitter} drains it at the end
+ * of each invocation.
+ */
+@Component
+public final class MetricsRegistry {
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_FAILURE = "failure";
+
+    private final Map<MetricKey, LatencyHistogram> histograms;
+
+    public MetricsRegistry() {
+        this.histograms = new ConcurrentHashMap<>();
+    }
+
+    public void record(String stage, String platform, String outcome, Duration duration) {
+        Objects.requireNonNull(duration);
+
+        MetricKey key = new MetricKey(stage, platform, outcome);
+
+        this.histograms.computeIfAbsent(key, k -> new LatencyHistogram())
+                       .record(duration.toMillis());
+    }
+
+    private void record(String stage, String platform, String outcome, long startNanos) {
+        Duration duration = Duration.ofNanos(System.nanoTime() - startNanos);
+
+        this.record(stage, platform, outcome, duration);
+    }
+
+    public <T> T time(String stage, String platform, Supplier<T> supplier) {
+        Objects.requireNonNull(supplier);
+
+        long startNanos = System.nanoTime();
+
+        T result;
+
+        try {
+            result = supplier.get();
+        } catch (RuntimeException e) {
+            this.record(stage, platform, OUTCOME_FAILURE, startNanos);
+
+            throw e;
+        }
+
+        this.record(stage, platform, OUTCOME_SUCCESS, startNanos);
+
+        return result;
+    }
+
+    public void time(String stage, String platform, Runnable runnable) {
+        Objects.requireNonNull(runnable);
+
+        this.time(stage, platform, () -> {
+            runnable.run();
+
+            return null;
+        });
+    }
+
+    public <T> CompletableFuture<T> timeAsync(String stage, String platform, Supplier<CompletableFuture<T>> supplier) {
+        Objects.requireNonNull(supplier);
+
+        long startNanos = System.nanoTime();
+
+        CompletableFuture<T> future;
+
+        try {
+            future = supplier.get();
+        } catch (RuntimeException e) {
+            this.record(stage, platform, OUTCOME_FAILURE, startNanos);
+
+            throw e;
+        }
+
+        return future.whenComplete((result, throwable) -> {
+            String outcome = (throwable == null) ? OUTCOME_SUCCESS : OUTCOME_FAILURE;
+
+            this.record(stage, platform, outcome, startNanos);
+        });
+    }
+
+    public Optional<LatencyHistogram> getHistogram(String stage, String platform, String outcome) {
+        MetricKey key = new MetricKey(stage, platform, outcome);
+
+        return Optional.ofNullable(this.histograms.get(key));
+    }
+
+    public Map<MetricKey, LatencyHistogram> drain() {
+        Map<MetricKey, LatencyHistogram> drained = new LinkedHashMap<>();
+
+        for (MetricKey key : this.histograms.keySet()) {
+            LatencyHistogram histogram = this.histograms.remove(key);
+
+            if (histogram != null) {
+                drained.put(key, histogram);
+            }
+        }
+
+        return drained;
+    }
+}
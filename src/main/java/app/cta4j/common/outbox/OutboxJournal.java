@@ -0,0 +1,287 @@
+package app.cta4j.common.outbox;
+
+import app.cta4j.common.dto.Media;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.core5.http.ContentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * An append-only JSONL journal of outbox records. Appends are buffered in memory and written in one batch by
+ * {@link #flush()} without forcing the file to disk, and media is stored once per SHA-256 next to the journal.
+ */
+@Component
+public final class OutboxJournal {
+    private static final Logger log = LoggerFactory.getLogger(OutboxJournal.class);
+
+    private static final String JOURNAL_FILE_NAME = "journal.jsonl";
+    private static final String MEDIA_DIRECTORY_NAME = "media";
+
+    private final ObjectMapper objectMapper;
+
+    private final Path journalFile;
+    private final Path mediaDirectory;
+
+    private final StringBuilder buffer;
+
+    @Autowired
+    public OutboxJournal(
+        ObjectMapper objectMapper,
+        @Value("${app.outbox.directory}") Path directory
+    ) {
+        this.objectMapper = objectMapper;
+        this.journalFile = directory.resolve(JOURNAL_FILE_NAME);
+        this.mediaDirectory = directory.resolve(MEDIA_DIRECTORY_NAME);
+        this.buffer = new StringBuilder();
+    }
+
+    public synchronized void append(OutboxRecord record) {
+        Objects.requireNonNull(record);
+
+        String line;
+
+        try {
+            line = this.objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox record", e);
+        }
+
+        this.buffer.append(line)
+                   .append('\n');
+    }
+
+    /**
+     * A write cut short by a crash leaves a line without a newline, which would swallow the next appended record.
+     */
+    private static boolean endsWithPartialLine(FileChannel channel) throws IOException {
+        long size = channel.size();
+
+        if (size == 0L) {
+            return false;
+        }
+
+        ByteBuffer lastByte = ByteBuffer.allocate(1);
+
+        channel.read(lastByte, size - 1L);
+
+        return lastByte.get(0) != '\n';
+    }
+
+    public synchronized void flush() {
+        if (this.buffer.isEmpty()) {
+            return;
+        }
+
+        byte[] bytes = this.buffer.toString()
+                                  .getBytes(StandardCharsets.UTF_8);
+
+        try {
+            Files.createDirectories(this.journalFile.getParent());
+
+            try (FileChannel channel = FileChannel.open(
+                this.journalFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+            )) {
+                channel.position(channel.size());
+
+                if (endsWithPartialLine(channel)) {
+                    channel.write(ByteBuffer.wrap(new byte[] {'\n'}));
+                }
+
+                ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+            }
+
+            this.buffer.setLength(0);
+        } catch (IOException e) {
+            log.warn("Failed to append to outbox journal {}, will retry on next flush", this.journalFile, e);
+        }
+    }
+
+    public void writeMedia(Media media) {
+        Objects.requireNonNull(media);
+
+        Path file = this.mediaDirectory.resolve(media.sha256());
+
+        if (Files.isRegularFile(file)) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(this.mediaDirectory);
+
+            Path tempFile = Files.createTempFile(this.mediaDirectory, "media", ".tmp");
+
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                ByteBuffer byteBuffer = media.asByteBuffer();
+
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+            }
+
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write outbox media {}", file, e);
+        }
+    }
+
+    public Optional<Media> readMedia(String sha256, String contentType) {
+        Objects.requireNonNull(sha256);
+        Objects.requireNonNull(contentType);
+
+        Path file = this.mediaDirectory.resolve(sha256);
+
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+
+        try {
+            byte[] data = Files.readAllBytes(file);
+
+            return Optional.of(new Media(data, ContentType.parse(contentType)));
+        } catch (IOException e) {
+            log.warn("Failed to read outbox media {}", file, e);
+
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the enqueued records that have not been resolved, in journal order.
+     */
+    public synchronized List<OutboxRecord> readPending() {
+        this.flush();
+
+        Map<String, OutboxRecord> pending = new LinkedHashMap<>();
+
+        if (!Files.isRegularFile(this.journalFile)) {
+            return List.of();
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(this.journalFile, StandardCharsets.UTF_8)) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                OutboxRecord record;
+
+                try {
+                    record = this.objectMapper.readValue(line, OutboxRecord.class);
+                } catch (JsonProcessingException e) {
+                    log.warn("Skipping malformed outbox record in {}", this.journalFile, e);
+
+                    continue;
+                }
+
+                switch (record.type()) {
+                    case ENQUEUED -> pending.put(record.key(), record);
+                    case RESOLVED -> pending.remove(record.key());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read outbox journal {}", this.journalFile, e);
+
+            return List.of();
+        }
+
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Rewrites the journal so it holds only the given pending records and deletes media no record refers to.
+     */
+    public synchronized void compact(Collection<OutboxRecord> pending) {
+        Objects.requireNonNull(pending);
+
+        this.flush();
+
+        if (!this.buffer.isEmpty()) {
+            return;
+        }
+
+        StringBuilder builder = new StringBuilder();
+
+        Set<String> referencedMedia = new HashSet<>();
+
+        for (OutboxRecord record : pending) {
+            try {
+                builder.append(this.objectMapper.writeValueAsString(record))
+                       .append('\n');
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to serialize outbox record", e);
+            }
+
+            if (record.mediaSha256() != null) {
+                referencedMedia.add(record.mediaSha256());
+            }
+        }
+
+        try {
+            Files.createDirectories(this.journalFile.getParent());
+
+            Path tempFile = Files.createTempFile(this.journalFile.getParent(), "journal", ".tmp");
+
+            Files.writeString(tempFile, builder, StandardCharsets.UTF_8);
+
+            Files.move(tempFile, this.journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to compact outbox journal {}", this.journalFile, e);
+
+            return;
+        }
+
+        this.deleteUnreferencedMedia(referencedMedia);
+    }
+
+    private void deleteUnreferencedMedia(Set<String> referencedMedia) {
+        if (!Files.isDirectory(this.mediaDirectory)) {
+            return;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.mediaDirectory)) {
+            for (Path file : stream) {
+                String fileName = file.getFileName()
+                                      .toString();
+
+                if (!referencedMedia.contains(fileName)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete unreferenced outbox media in {}", this.mediaDirectory, e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package app.cta4j.common.outbox;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * One line of the outbox journal. An {@code ENQUEUED} record stays pending until a {@code RESOLVED} record with the
+ * same post ID and platform follows it. {@code arrivalTime} is {@code null} when the train had no arrival.
+ */
+public record OutboxRecord(
+    Type type,
+    String postId,
+    String platform,
+    String run,
+    Instant arrivalTime,
+    String text,
+    String mediaSha256,
+    String mediaContentType,
+    Instant createdAt
+) {
+    public enum Type {
+        ENQUEUED,
+        RESOLVED
+    }
+
+    public OutboxRecord {
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(postId);
+        Objects.requireNonNull(platform);
+        Objects.requireNonNull(run);
+        Objects.requireNonNull(createdAt);
+    }
+
+    public String key() {
+        return String.format("%s/%s", this.postId, this.platform);
+    }
+
+    public OutboxRecord resolve(Instant resolvedAt) {
+        return new OutboxRecord(
+            Type.RESOLVED,
+            this.postId,
+            this.platform,
+            this.run,
+            null,
+            null,
+            null,
+            null,
+            resolvedAt
+        );
+    }
+}
@@ -0,0 +1,269 @@
+package app.cta4j.common.outbox;
+
+import app.cta4j.common.dto.Media;
+import app.cta4j.common.dto.Post;
+import app.cta4j.common.dto.PostResult;
+import app.cta4j.common.publisher.MultiplatformPublisher;
+import app.cta4j.common.publisher.PublishStatus;
+import app.cta4j.common.state.PostStateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps posts that failed on a platform and publishes them again on later invocations.
+ */
+@Service
+public final class OutboxService {
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    private final OutboxJournal outboxJournal;
+    private final MultiplatformPublisher multiplatformPublisher;
+    private final PostStateStore postStateStore;
+
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final Duration replayBudget;
+
+    @Autowired
+    public OutboxService(
+        OutboxJournal outboxJournal,
+        MultiplatformPublisher multiplatformPublisher,
+        PostStateStore postStateStore,
+        @Value("${app.outbox.enabled}") boolean enabled,
+        @Value("${app.outbox.max-age}") Duration maxAge,
+        @Value("${app.outbox.replay-budget}") Duration replayBudget
+    ) {
+        this.outboxJournal = outboxJournal;
+        this.multiplatformPublisher = multiplatformPublisher;
+        this.postStateStore = postStateStore;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.replayBudget = replayBudget;
+    }
+
+    /**
+     * A timed out publish may still have gone through, so only failures and skipped platforms are retried.
+     */
+    public static boolean isRetryable(PublishStatus status) {
+        return (status == PublishStatus.FAILED) || (status == PublishStatus.SKIPPED);
+    }
+
+    private static String getPostId(String run, String fingerprint) {
+        return String.format("%s/%s", run, fingerprint);
+    }
+
+    /**
+     * Queues a run's ready post for the given platform. Returns {@code false} if the outbox is disabled.
+     */
+    public boolean enqueue(String run, PostResult result, String platform) {
+        Objects.requireNonNull(run);
+        Objects.requireNonNull(result);
+        Objects.requireNonNull(platform);
+
+        if (!this.enabled) {
+            return false;
+        }
+
+        Post post = result.post();
+
+        String postId = getPostId(run, result.fingerprint());
+
+        Media media = post.media();
+
+        String mediaSha256 = null;
+        String mediaContentType = null;
+
+        if (media != null) {
+            this.outboxJournal.writeMedia(media);
+
+            mediaSha256 = media.sha256();
+            mediaContentType = media.contentType()
+                                    .toString();
+        }
+
+        OutboxRecord record = new OutboxRecord(
+            OutboxRecord.Type.ENQUEUED,
+            postId,
+            platform,
+            run,
+            result.arrivalTime(),
+            post.text(),
+            mediaSha256,
+            mediaContentType,
+            Instant.now()
+        );
+
+        this.outboxJournal.append(record);
+
+        log.info("Queued post {} for {} in the outbox", postId, platform);
+
+        return true;
+    }
+
+    private Post toPost(OutboxRecord record) {
+        if (record.mediaSha256() == null) {
+            return new Post(record.text(), null);
+        }
+
+        Media media = this.outboxJournal.readMedia(record.mediaSha256(), record.mediaContentType())
+                                        .orElse(null);
+
+        if (media == null) {
+            log.warn("Media for outbox post {} is missing, replaying it as text only", record.postId());
+        }
+
+        return new Post(record.text(), media);
+    }
+
+    private Map<String, List<OutboxRecord>> groupByPost(List<OutboxRecord> records) {
+        Map<String, List<OutboxRecord>> batches = new LinkedHashMap<>();
+
+        for (OutboxRecord record : records) {
+            batches.computeIfAbsent(record.postId(), postId -> new ArrayList<>())
+                   .add(record);
+        }
+
+        return batches;
+    }
+
+    /**
+     * Maps each run to its most recently queued entry.
+     */
+    private static Map<String, OutboxRecord> getLatestByRun(List<OutboxRecord> records) {
+        Map<String, OutboxRecord> latest = new LinkedHashMap<>();
+
+        for (OutboxRecord record : records) {
+            latest.merge(record.run(), record, (a, b) -> b.createdAt()
+                                                          .isBefore(a.createdAt()) ? a : b);
+        }
+
+        return latest;
+    }
+
+    /**
+     * A post is replaced once a newer post for its run has been queued or published, since the state store then holds
+     * the newer fingerprint.
+     */
+    private boolean isSuperseded(OutboxRecord record, Map<String, OutboxRecord> latestByRun) {
+        String run = record.run();
+
+        OutboxRecord latest = latestByRun.get(run);
+
+        if ((latest != null) && !latest.postId().equals(record.postId())) {
+            return true;
+        }
+
+        return this.postStateStore.getFingerprint(run)
+                                  .map(fingerprint -> !getPostId(run, fingerprint).equals(record.postId()))
+                                  .orElse(false);
+    }
+
+    private String getDropReason(OutboxRecord record, Instant now, Map<String, OutboxRecord> latestByRun) {
+        if (record.createdAt()
+                  .isBefore(now.minus(this.maxAge))) {
+            return "stale";
+        }
+
+        Instant arrivalTime = record.arrivalTime();
+
+        if ((arrivalTime != null) && arrivalTime.isBefore(now)) {
+            return "arrived";
+        }
+
+        if (this.isSuperseded(record, latestByRun)) {
+            return "superseded";
+        }
+
+        return null;
+    }
+
+    /**
+     * Drops entries whose train has already arrived, that a newer post for the same run has replaced, or that are
+     * older than the max age, and replays the rest, one post per batch, until the replay budget is spent. Each batch
+     * may only wait for the platforms until the budget runs out, so a slow platform can't delay the invocation's new
+     * posts beyond it. Entries that fail again stay pending.
+     */
+    public void replay() {
+        if (!this.enabled) {
+            return;
+        }
+
+        List<OutboxRecord> pending = this.outboxJournal.readPending();
+
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+
+        Instant deadline = now.plus(this.replayBudget);
+
+        Map<String, OutboxRecord> latestByRun = getLatestByRun(pending);
+
+        List<OutboxRecord> fresh = new ArrayList<>();
+
+        for (OutboxRecord record : pending) {
+            String dropReason = this.getDropReason(record, now, latestByRun);
+
+            if (dropReason == null) {
+                fresh.add(record);
+
+                continue;
+            }
+
+            log.info("Dropping {} outbox post {} for {}", dropReason, record.postId(), record.platform());
+
+            this.outboxJournal.append(record.resolve(now));
+        }
+
+        List<OutboxRecord> remaining = new ArrayList<>();
+
+        for (List<OutboxRecord> batch : this.groupByPost(fresh).values()) {
+            if (Instant.now()
+                       .isAfter(deadline)) {
+                remaining.addAll(batch);
+
+                continue;
+            }
+
+            List<String> platforms = batch.stream()
+                                          .map(OutboxRecord::platform)
+                                          .toList();
+
+            Post post = this.toPost(batch.getFirst());
+
+            Map<String, PublishStatus> statuses = this.multiplatformPublisher.publish(post, platforms, deadline);
+
+            for (OutboxRecord record : batch) {
+                PublishStatus status = statuses.get(record.platform());
+
+                if (isRetryable(status)) {
+                    remaining.add(record);
+                } else {
+                    this.outboxJournal.append(record.resolve(Instant.now()));
+                }
+            }
+        }
+
+        log.info("Replayed outbox, {} of {} entries still pending", remaining.size(), pending.size());
+
+        this.outboxJournal.flush();
+
+        this.outboxJournal.compact(remaining);
+    }
+
+    public void flush() {
+        this.outboxJournal.flush();
+    }
+}
@@ -0,0 +1,108 @@
+package app.cta4j.common.publisher;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row it opens and rejects calls
+ * until {@code openDuration} has passed, then lets a single probe through; the probe's outcome closes or reopens it.
+ */
+public final class CircuitBreaker {
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private CircuitState state;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+
+        this.failureThreshold = failureThreshold;
+        this.openDuration = Objects.requireNonNull(openDuration);
+        this.clock = Objects.requireNonNull(clock);
+        this.state = CircuitState.CLOSED;
+    }
+
+    private boolean isOpenDurationElapsed() {
+        Instant reopenAt = this.openedAt.plus(this.openDuration);
+
+        return !this.clock.instant()
+                          .isBefore(reopenAt);
+    }
+
+    public synchronized CircuitState getState() {
+        if ((this.state == CircuitState.OPEN) && this.isOpenDurationElapsed()) {
+            return CircuitState.HALF_OPEN;
+        }
+
+        return this.state;
+    }
+
+    public synchronized boolean tryAcquire() {
+        return switch (this.state) {
+            case CLOSED -> true;
+            case OPEN -> {
+                if (!this.isOpenDurationElapsed()) {
+                    yield false;
+                }
+
+                this.state = CircuitState.HALF_OPEN;
+                this.probeInFlight = true;
+
+                yield true;
+            }
+            case HALF_OPEN -> {
+                if (this.probeInFlight) {
+                    yield false;
+                }
+
+                this.probeInFlight = true;
+
+                yield true;
+            }
+        };
+    }
+
+    public synchronized void recordSuccess() {
+        this.state = CircuitState.CLOSED;
+        this.consecutiveFailures = 0;
+        this.openedAt = null;
+        this.probeInFlight = false;
+    }
+
+    /**
+     * Returns {@code true} if this failure opened the circuit.
+     */
+    public synchronized boolean recordFailure() {
+        this.probeInFlight = false;
+
+        if (this.state == CircuitState.HALF_OPEN) {
+            this.state = CircuitState.OPEN;
+            this.openedAt = this.clock.instant();
+
+            return true;
+        }
+
+        if (this.state == CircuitState.OPEN) {
+            return false;
+        }
+
+        this.consecutiveFailures++;
+
+        if (this.consecutiveFailures < this.failureThreshold) {
+            return false;
+        }
+
+        this.state = CircuitState.OPEN;
+        this.openedAt = this.clock.instant();
+
+        return true;
+    }
+}
@@ -0,0 +1,51 @@
+package app.cta4j.common.publisher;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link CircuitBreaker} per platform name. The registry is a singleton, so breaker state carries over between
+ * warm invocations.
+ */
+@Component
+public final class CircuitBreakerRegistry {
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private final Map<String, CircuitBreaker> breakers;
+
+    @Autowired
+    public CircuitBreakerRegistry(
+        @Value("${app.circuit-breaker.failure-threshold}") int failureThreshold,
+        @Value("${app.circuit-breaker.open-duration}") Duration openDuration
+    ) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.breakers = new ConcurrentHashMap<>();
+    }
+
+    public CircuitBreaker get(String platformName) {
+        Objects.requireNonNull(platformName);
+
+        return this.breakers.computeIfAbsent(
+            platformName,
+            name -> new CircuitBreaker(this.failureThreshold, this.openDuration, Clock.systemUTC())
+        );
+    }
+
+    public Map<String, CircuitState> getStates() {
+        Map<String, CircuitState> states = new TreeMap<>();
+
+        this.breakers.forEach((platformName, breaker) -> states.put(platformName, breaker.getState()));
+
+        return states;
+    }
+}
@@ -0,0 +1,7 @@
+package app.cta4j.common.publisher;
+
+public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
@@ -1,43 +1,313 @@
 package app.cta4j.common.publisher;
 
+import app.cta4j.common.dto.Media;
 import app.cta4j.common.dto.Post;
+import app.cta4j.common.http.AsyncRequestExecutor;
+import app.cta4j.common.http.InvocationDeadline;
+import app.cta4j.common.http.PlatformEndpoints;
+import app.cta4j.common.media.MediaOptimizer;
+import app.cta4j.common.media.MediaProfile;
+import app.cta4j.common.metrics.MetricsRegistry;
 import com.rollbar.notifier.Rollbar;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
 
 @Component
 public final class MultiplatformPublisher {
     private static final Logger log = LoggerFactory.getLogger(MultiplatformPublisher.class);
 
+    private static final String STAGE_PUBLISH = "publish";
+    private static final String OUTCOME_CIRCUIT_OPEN = "circuit_open";
+
     private final List<SocialPublisher> socialPublishers;
+    private final MediaOptimizer mediaOptimizer;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final MetricsRegistry metricsRegistry;
+    private final InvocationDeadline invocationDeadline;
+    private final AsyncRequestExecutor asyncRequestExecutor;
     private final Rollbar rollbar;
 
+    private final Duration timeout;
+    private final Map<String, Duration> platformTimeouts;
+    private final boolean asyncEnabled;
+
     @Autowired
     public MultiplatformPublisher(
         List<SocialPublisher> socialPublishers,
-        Rollbar rollbar
+        MediaOptimizer mediaOptimizer,
+        CircuitBreakerRegistry circuitBreakerRegistry,
+        MetricsRegistry metricsRegistry,
+        InvocationDeadline invocationDeadline,
+        AsyncRequestExecutor asyncRequestExecutor,
+        Rollbar rollbar,
+        @Value("${app.publisher.timeout}") Duration timeout,
+        @Value("${app.publisher.timeouts.twitter}") Duration twitterTimeout,
+        @Value("${app.publisher.timeouts.bluesky}") Duration blueskyTimeout,
+        @Value("${app.publisher.timeouts.mastodon}") Duration mastodonTimeout,
+        @Value("${app.http.async.enabled}") boolean asyncEnabled
     ) {
         this.socialPublishers = socialPublishers;
+        this.mediaOptimizer = mediaOptimizer;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.metricsRegistry = metricsRegistry;
+        this.invocationDeadline = invocationDeadline;
+        this.asyncRequestExecutor = asyncRequestExecutor;
         this.rollbar = rollbar;
+        this.timeout = timeout;
+        this.platformTimeouts = Map.of(
+            PlatformEndpoints.TWITTER, twitterTimeout,
+            PlatformEndpoints.BLUESKY, blueskyTimeout,
+            PlatformEndpoints.MASTODON, mastodonTimeout
+        );
+        this.asyncEnabled = asyncEnabled;
+    }
+
+    private void reportFailure(SocialPublisher publisher, Throwable throwable) {
+        String platformName = publisher.getPlatformName();
+
+        String message = String.format("Failed to publish post on %s", platformName);
+
+        log.error(message, throwable);
+
+        this.rollbar.error(throwable, message);
+    }
+
+    private Duration getTimeout(SocialPublisher publisher) {
+        return this.platformTimeouts.getOrDefault(publisher.getPlatformName(), this.timeout);
+    }
+
+    /**
+     * On timeout the future is cancelled. An async publish then aborts its in-flight requests, see
+     * {@link AsyncRequestExecutor#executeCancellable}.
+     */
+    private PublishStatus awaitPublish(SocialPublisher publisher, Future<?> future, Instant start, Instant deadline) {
+        Duration remaining = Duration.between(Instant.now(), deadline);
+
+        try {
+            future.get(Math.max(remaining.toNanos(), 0L), TimeUnit.NANOSECONDS);
+
+            return PublishStatus.PUBLISHED;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+
+            String message = String.format(
+                "Publishing on %s did not complete within %s",
+                publisher.getPlatformName(),
+                Duration.between(start, deadline)
+            );
+
+            this.reportFailure(publisher, new TimeoutException(message));
+
+            return PublishStatus.TIMED_OUT;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if ((cause instanceof CompletionException) && (cause.getCause() != null)) {
+                cause = cause.getCause();
+            }
+
+            this.reportFailure(publisher, cause);
+
+            return PublishStatus.FAILED;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+
+            Thread.currentThread()
+                  .interrupt();
+
+            this.reportFailure(publisher, e);
+
+            return PublishStatus.FAILED;
+        }
+    }
+
+    private void recordOutcome(SocialPublisher publisher, PublishStatus status) {
+        String platformName = publisher.getPlatformName();
+
+        CircuitBreaker circuitBreaker = this.circuitBreakerRegistry.get(platformName);
+
+        if (status == PublishStatus.PUBLISHED) {
+            circuitBreaker.recordSuccess();
+
+            return;
+        }
+
+        if (!circuitBreaker.recordFailure()) {
+            return;
+        }
+
+        String message = String.format("Opened circuit for %s, skipping it until a probe succeeds", platformName);
+
+        log.warn(message);
+
+        this.rollbar.warning(message);
+    }
+
+    private Future<?> submit(SocialPublisher publisher, Post post, ExecutorService executor) {
+        if (!this.asyncEnabled) {
+            return executor.submit(() -> publisher.publish(post));
+        }
+
+        try {
+            return this.asyncRequestExecutor.executeCancellable(() -> publisher.publishAsync(post));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Map<SocialPublisher, Post> getPlatformPosts(Post post, List<SocialPublisher> publishers) {
+        Map<SocialPublisher, Post> platformPosts = new LinkedHashMap<>();
+
+        Media media = post.media();
+
+        if (media == null) {
+            publishers.forEach(publisher -> platformPosts.put(publisher, post));
+
+            return platformPosts;
+        }
+
+        List<MediaProfile> profiles = publishers.stream()
+                                                .map(SocialPublisher::getMediaProfile)
+                                                .toList();
+
+        Map<MediaProfile, Media> variants = this.mediaOptimizer.optimize(media, profiles);
+
+        for (SocialPublisher publisher : publishers) {
+            Media variant = variants.get(publisher.getMediaProfile());
+
+            platformPosts.put(publisher, new Post(post.text(), variant));
+        }
+
+        return platformPosts;
+    }
+
+    /**
+     * Each platform's deadline is its configured timeout, capped at {@code maxDeadline} when that is not {@code null}.
+     */
+    private Instant getDeadline(SocialPublisher publisher, Instant start, Instant maxDeadline) {
+        Instant deadline = start.plus(this.getTimeout(publisher));
+
+        if ((maxDeadline != null) && maxDeadline.isBefore(deadline)) {
+            return maxDeadline;
+        }
+
+        return deadline;
     }
 
-    public void publish(Post post) {
-        for (SocialPublisher publisher : this.socialPublishers) {
-            try {
-                publisher.publish(post);
-            } catch (Exception e) {
+    public Map<String, PublishStatus> publish(Post post) {
+        Objects.requireNonNull(post);
+
+        return this.publish(post, this.socialPublishers, null);
+    }
+
+    /**
+     * Publishes only on the named platforms, waiting for none of them past {@code deadline}. Names without a matching
+     * publisher are ignored.
+     */
+    public Map<String, PublishStatus> publish(Post post, Collection<String> platformNames, Instant deadline) {
+        Objects.requireNonNull(post);
+        Objects.requireNonNull(platformNames);
+        Objects.requireNonNull(deadline);
+
+        List<SocialPublisher> publishers = this.socialPublishers.stream()
+                                                                .filter(publisher -> platformNames.contains(
+                                                                    publisher.getPlatformName()
+                                                                ))
+                                                                .toList();
+
+        return this.publish(post, publishers, deadline);
+    }
+
+    /**
+     * Returns the publishers whose circuit lets a request through, so that media is only optimized for platforms that
+     * are actually published to.
+     */
+    private List<SocialPublisher> getAdmittedPublishers(List<SocialPublisher> publishers) {
+        List<SocialPublisher> admitted = new ArrayList<>();
+
+        for (SocialPublisher publisher : publishers) {
+            String platformName = publisher.getPlatformName();
+
+            if (!this.circuitBreakerRegistry.get(platformName)
+                                            .tryAcquire()) {
+                log.info("Circuit for {} is open, skipping it", platformName);
+
+                this.metricsRegistry.record(STAGE_PUBLISH, platformName, OUTCOME_CIRCUIT_OPEN, Duration.ZERO);
+
+                continue;
+            }
+
+            admitted.add(publisher);
+        }
+
+        return admitted;
+    }
+
+    private Map<String, PublishStatus> publish(Post post, List<SocialPublisher> publishers, Instant maxDeadline) {
+        List<SocialPublisher> admitted = this.getAdmittedPublishers(publishers);
+
+        Map<SocialPublisher, Post> platformPosts = this.getPlatformPosts(post, admitted);
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        Map<SocialPublisher, Future<?>> futures = new LinkedHashMap<>();
+
+        Map<String, PublishStatus> statuses = new LinkedHashMap<>();
+
+        Map<SocialPublisher, Instant> deadlines = new LinkedHashMap<>();
+
+        Instant start = Instant.now();
+
+        try {
+            platformPosts.forEach((publisher, platformPost) -> {
                 String platformName = publisher.getPlatformName();
 
-                String message = String.format("Failed to publish post on %s", platformName);
+                Instant deadline = this.getDeadline(publisher, start, maxDeadline);
+
+                deadlines.put(publisher, deadline);
+
+                this.invocationDeadline.startPlatform(platformName, deadline);
+
+                Future<?> future = this.submit(publisher, platformPost, executor);
+
+                futures.put(publisher, future);
+            });
 
-                log.error(message, e);
+            for (SocialPublisher publisher : publishers) {
+                Future<?> future = futures.get(publisher);
 
-                this.rollbar.error(e, message);
+                PublishStatus status = PublishStatus.SKIPPED;
+
+                if (future != null) {
+                    status = this.awaitPublish(publisher, future, start, deadlines.get(publisher));
+
+                    this.recordOutcome(publisher, status);
+                }
+
+                statuses.put(publisher.getPlatformName(), status);
             }
+        } finally {
+            executor.shutdownNow();
+
+            deadlines.forEach((publisher, deadline) -> this.invocationDeadline.endPlatform(
+                publisher.getPlatformName(),
+                deadline
+            ));
         }
+
+        return statuses;
     }
 }
@@ -0,0 +1,8 @@
+package app.cta4j.common.publisher;
+
+public enum PublishStatus {
+    PUBLISHED,
+    FAILED,
+    TIMED_OUT,
+    SKIPPED
+}
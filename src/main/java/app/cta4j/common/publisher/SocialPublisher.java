@@ -1,9 +1,16 @@
 package app.cta4j.common.publisher;
 
 import app.cta4j.common.dto.Post;
+import app.cta4j.common.media.MediaProfile;
+
+import java.util.concurrent.CompletableFuture;
 
 public interface SocialPublisher {
     String getPlatformName();
 
+    MediaProfile getMediaProfile();
+
     void publish(Post post);
+
+    CompletableFuture<Void> publishAsync(Post post);
 }
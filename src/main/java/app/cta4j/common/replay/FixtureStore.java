@@ -0,0 +1,136 @@
+package app.cta4j.common.replay;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Reads and writes the JSONL fixture files under the replay directory: recorded trains, recorded HTTP exchanges and
+ * the placeholder secret used during replay. Secrets are never recorded.
+ */
+@Component
+public final class FixtureStore {
+    private static final Logger log = LoggerFactory.getLogger(FixtureStore.class);
+
+    private static final String TRAINS_FILE_NAME = "trains.jsonl";
+    private static final String EXCHANGES_FILE_NAME = "http.jsonl";
+    private static final String SECRET_FILE_NAME = "secret.json";
+
+    private final ObjectMapper objectMapper;
+
+    private final Path directory;
+
+    @Autowired
+    public FixtureStore(
+        ObjectMapper objectMapper,
+        @Value("${app.replay.directory}") Path directory
+    ) {
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    private synchronized void append(String fileName, Object fixture) {
+        String line;
+
+        try {
+            line = this.objectMapper.writeValueAsString(fixture);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize fixture", e);
+        }
+
+        Path file = this.directory.resolve(fileName);
+
+        try {
+            Files.createDirectories(this.directory);
+
+            Files.writeString(
+                file,
+                line + '\n',
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND
+            );
+        } catch (IOException e) {
+            log.warn("Failed to record fixture to {}", file, e);
+        }
+    }
+
+    private <T> List<T> read(String fileName, Class<T> type) {
+        Path file = this.directory.resolve(fileName);
+
+        if (!Files.isRegularFile(file)) {
+            return List.of();
+        }
+
+        List<T> fixtures = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    fixtures.add(this.objectMapper.readValue(line, type));
+                } catch (JsonProcessingException e) {
+                    log.warn("Skipping malformed fixture in {}", file, e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read fixtures from " + file, e);
+        }
+
+        return fixtures;
+    }
+
+    public void appendTrain(TrainFixture fixture) {
+        Objects.requireNonNull(fixture);
+
+        this.append(TRAINS_FILE_NAME, fixture);
+    }
+
+    public void appendExchange(HttpExchangeFixture fixture) {
+        Objects.requireNonNull(fixture);
+
+        this.append(EXCHANGES_FILE_NAME, fixture);
+    }
+
+    public List<TrainFixture> readTrains() {
+        return this.read(TRAINS_FILE_NAME, TrainFixture.class);
+    }
+
+    public List<HttpExchangeFixture> readExchanges() {
+        return this.read(EXCHANGES_FILE_NAME, HttpExchangeFixture.class);
+    }
+
+    public String readSecret() {
+        Path file = this.directory.resolve(SECRET_FILE_NAME);
+
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Replay needs a placeholder secret in " + file, e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package app.cta4j.common.replay;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One recorded platform HTTP exchange. Only the response is kept, since replay serves responses and never checks
+ * request bodies.
+ */
+public record HttpExchangeFixture(
+    Instant recordedAt,
+    String method,
+    String host,
+    String path,
+    int statusCode,
+    Map<String, String> headers,
+    byte[] body
+) {
+    private static final String DATA_CHARACTERS = ",()@%";
+
+    public HttpExchangeFixture {
+        Objects.requireNonNull(recordedAt);
+        Objects.requireNonNull(method);
+        Objects.requireNonNull(host);
+        Objects.requireNonNull(path);
+
+        headers = (headers == null) ? Map.of() : Map.copyOf(headers);
+        body = (body == null) ? new byte[0] : body;
+    }
+
+    /**
+     * Drops the query and everything from the first segment that carries request data, such as the Mapbox overlay
+     * and coordinates, and replaces numeric IDs, so requests that differ only in their data share a key.
+     */
+    public static String key(String method, String host, String path) {
+        Objects.requireNonNull(method);
+        Objects.requireNonNull(host);
+        Objects.requireNonNull(path);
+
+        int queryIndex = path.indexOf('?');
+
+        String rawPath = (queryIndex >= 0) ? path.substring(0, queryIndex) : path;
+
+        StringBuilder builder = new StringBuilder();
+
+        for (String segment : rawPath.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+
+            if (segment.chars().anyMatch(character -> DATA_CHARACTERS.indexOf(character) >= 0)) {
+                break;
+            }
+
+            builder.append('/');
+
+            builder.append(segment.chars().allMatch(Character::isDigit) ? "{id}" : segment);
+        }
+
+        String normalizedPath = builder.isEmpty() ? "/" : builder.toString();
+
+        return String.format("%s %s%s", method.toUpperCase(Locale.ROOT), host.toLowerCase(Locale.ROOT), normalizedPath);
+    }
+
+    public String key() {
+        return key(this.method, this.host, this.path);
+    }
+}
@@ -0,0 +1,205 @@
+package app.cta4j.common.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.core5.http.*;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.net.URIAuthority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Records every classic client exchange while {@code app.replay.mode} is {@code record}. Access tokens are stripped
+ * from the query and token fields are redacted from JSON bodies before anything is written.
+ */
+@Component
+public final class RecordingExecInterceptor implements ExecChainHandler {
+    private static final Logger log = LoggerFactory.getLogger(RecordingExecInterceptor.class);
+
+    public static final String NAME = "recording";
+
+    private static final String REDACTED = "redacted";
+
+    private static final Set<String> REDACTED_FIELDS = Set.of(
+        "accessJwt",
+        "refreshJwt",
+        "access_token",
+        "refresh_token"
+    );
+
+    private static final Set<String> SKIPPED_HEADERS = Set.of(
+        "content-length",
+        "content-encoding",
+        "transfer-encoding",
+        "connection",
+        "keep-alive",
+        "set-cookie",
+        "date"
+    );
+
+    private final FixtureStore fixtureStore;
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+
+    @Autowired
+    public RecordingExecInterceptor(
+        FixtureStore fixtureStore,
+        ObjectMapper objectMapper,
+        @Value("${app.replay.mode}") ReplayMode replayMode
+    ) {
+        this.fixtureStore = fixtureStore;
+        this.objectMapper = objectMapper;
+        this.enabled = replayMode == ReplayMode.RECORD;
+    }
+
+    private static String stripAccessToken(String path) {
+        int queryIndex = path.indexOf('?');
+
+        if (queryIndex < 0) {
+            return path;
+        }
+
+        StringBuilder builder = new StringBuilder(path.substring(0, queryIndex));
+
+        char separator = '?';
+
+        for (String parameter : path.substring(queryIndex + 1).split("&")) {
+            if (parameter.startsWith("access_token=")) {
+                continue;
+            }
+
+            builder.append(separator)
+                   .append(parameter);
+
+            separator = '&';
+        }
+
+        return builder.toString();
+    }
+
+    private void redact(JsonNode node) {
+        if (node instanceof ObjectNode objectNode) {
+            Iterator<String> fieldNames = objectNode.fieldNames();
+
+            while (fieldNames.hasNext()) {
+                String fieldName = fieldNames.next();
+
+                JsonNode value = objectNode.get(fieldName);
+
+                if (REDACTED_FIELDS.contains(fieldName) && value.isTextual()) {
+                    objectNode.put(fieldName, REDACTED);
+                } else {
+                    this.redact(value);
+                }
+            }
+        } else if (node.isArray()) {
+            node.forEach(this::redact);
+        }
+    }
+
+    private byte[] redactBody(byte[] body, ContentType contentType) {
+        if ((contentType == null) || !ContentType.APPLICATION_JSON.isSameMimeType(contentType)) {
+            return body;
+        }
+
+        try {
+            JsonNode tree = this.objectMapper.readTree(body);
+
+            if (tree == null) {
+                return body;
+            }
+
+            this.redact(tree);
+
+            return this.objectMapper.writeValueAsBytes(tree);
+        } catch (IOException e) {
+            return body;
+        }
+    }
+
+    private static Map<String, String> getHeaders(ClassicHttpResponse response) {
+        Map<String, String> headers = new LinkedHashMap<>();
+
+        for (Header header : response.getHeaders()) {
+            String name = header.getName()
+                                .toLowerCase(Locale.ROOT);
+
+            if (!SKIPPED_HEADERS.contains(name)) {
+                headers.putIfAbsent(name, header.getValue());
+            }
+        }
+
+        return headers;
+    }
+
+    private void record(ClassicHttpRequest request, ClassicHttpResponse response) throws IOException {
+        URIAuthority authority = request.getAuthority();
+
+        if (authority == null) {
+            return;
+        }
+
+        HttpEntity entity = response.getEntity();
+
+        byte[] body = new byte[0];
+
+        ContentType contentType = null;
+
+        if (entity != null) {
+            body = EntityUtils.toByteArray(entity);
+
+            contentType = ContentType.parseLenient(entity.getContentType());
+
+            response.setEntity(new ByteArrayEntity(body, contentType));
+        }
+
+        HttpExchangeFixture fixture = new HttpExchangeFixture(
+            Instant.now(),
+            request.getMethod(),
+            authority.getHostName(),
+            stripAccessToken(request.getPath()),
+            response.getCode(),
+            getHeaders(response),
+            this.redactBody(body, contentType)
+        );
+
+        this.fixtureStore.appendExchange(fixture);
+    }
+
+    @Override
+    public ClassicHttpResponse execute(
+        ClassicHttpRequest request,
+        ExecChain.Scope scope,
+        ExecChain chain
+    ) throws IOException, HttpException {
+        ClassicHttpResponse response = chain.proceed(request, scope);
+
+        if (!this.enabled) {
+            return response;
+        }
+
+        try {
+            this.record(request, response);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to record {} {}", request.getMethod(), request.getAuthority(), e);
+        }
+
+        return response;
+    }
+}
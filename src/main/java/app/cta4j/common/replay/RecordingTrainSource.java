@@ -0,0 +1,29 @@
+package app.cta4j.common.replay;
+
+import com.cta4j.train.model.Train;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Passes calls through to the live source and records every result, including runs that are not in service.
+ */
+public final class RecordingTrainSource implements TrainSource {
+    private final TrainSource delegate;
+    private final FixtureStore fixtureStore;
+
+    public RecordingTrainSource(TrainSource delegate, FixtureStore fixtureStore) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.fixtureStore = Objects.requireNonNull(fixtureStore);
+    }
+
+    @Override
+    public Optional<Train> getTrain(String run) {
+        Optional<Train> train = this.delegate.getTrain(run);
+
+        this.fixtureStore.appendTrain(new TrainFixture(Instant.now(), run, train.orElse(null)));
+
+        return train;
+    }
+}
@@ -0,0 +1,181 @@
+package app.cta4j.common.replay;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local stand-in for every platform host. Requests reach it through {@link ReplayRoutePlanner} with their original
+ * {@code Host} header, and are answered with the recorded responses for the same method, host and normalized path,
+ * in recorded order and cycling once they run out.
+ */
+@Component
+@ConditionalOnProperty(name = "app.replay.mode", havingValue = "replay")
+public final class ReplayHttpServer {
+    private static final Logger log = LoggerFactory.getLogger(ReplayHttpServer.class);
+
+    private static final byte[] NOT_RECORDED_BODY = "{\"error\":\"not recorded\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<String, Responses> responses;
+
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+
+    private static final class Responses {
+        private final List<HttpExchangeFixture> fixtures;
+        private final AtomicInteger next;
+
+        private Responses() {
+            this.fixtures = new ArrayList<>();
+            this.next = new AtomicInteger();
+        }
+
+        private HttpExchangeFixture next() {
+            int index = Math.floorMod(this.next.getAndIncrement(), this.fixtures.size());
+
+            return this.fixtures.get(index);
+        }
+    }
+
+    @Autowired
+    public ReplayHttpServer(
+        FixtureStore fixtureStore,
+        @Value("${app.replay.port}") int port
+    ) {
+        this.responses = groupResponses(fixtureStore.readExchanges());
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+
+        try {
+            this.httpServer = HttpServer.create(address, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start replay HTTP server", e);
+        }
+
+        this.httpServer.setExecutor(this.executor);
+        this.httpServer.createContext("/", this::handle);
+        this.httpServer.start();
+
+        log.info(
+            "Replaying {} recorded endpoints on port {}",
+            this.responses.size(),
+            this.httpServer.getAddress()
+                           .getPort()
+        );
+    }
+
+    private static Map<String, Responses> groupResponses(List<HttpExchangeFixture> fixtures) {
+        Map<String, Responses> responses = new HashMap<>();
+
+        for (HttpExchangeFixture fixture : fixtures) {
+            Responses recorded = responses.computeIfAbsent(fixture.key(), key -> new Responses());
+
+            recorded.fixtures.add(fixture);
+        }
+
+        return Map.copyOf(responses);
+    }
+
+    public int getPort() {
+        return this.httpServer.getAddress()
+                              .getPort();
+    }
+
+    private static String getHost(HttpExchange exchange) {
+        String host = exchange.getRequestHeaders()
+                              .getFirst("Host");
+
+        if (host == null) {
+            return "";
+        }
+
+        int portIndex = host.indexOf(':');
+
+        return (portIndex >= 0) ? host.substring(0, portIndex) : host;
+    }
+
+    private static void respond(HttpExchange exchange, HttpExchangeFixture fixture) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+
+        fixture.headers()
+               .forEach(headers::set);
+
+        byte[] body = fixture.body();
+
+        int statusCode = fixture.statusCode();
+
+        boolean noBody = (statusCode == 204) || (statusCode == 304) || (body.length == 0);
+
+        exchange.sendResponseHeaders(statusCode, noBody ? -1L : body.length);
+
+        if (!noBody) {
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try (InputStream inputStream = exchange.getRequestBody()) {
+                inputStream.transferTo(OutputStream.nullOutputStream());
+            }
+
+            String key = HttpExchangeFixture.key(
+                exchange.getRequestMethod(),
+                getHost(exchange),
+                exchange.getRequestURI()
+                        .getRawPath()
+            );
+
+            Responses recorded = this.responses.get(key);
+
+            if (recorded == null) {
+                log.warn("No recorded response for {}", key);
+
+                exchange.getResponseHeaders()
+                        .set("Content-Type", "application/json");
+
+                exchange.sendResponseHeaders(404, NOT_RECORDED_BODY.length);
+
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(NOT_RECORDED_BODY);
+                }
+
+                return;
+            }
+
+            respond(exchange, recorded.next());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.httpServer.stop(0);
+
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,7 @@
+package app.cta4j.common.replay;
+
+public enum ReplayMode {
+    OFF,
+    RECORD,
+    REPLAY
+}
@@ -0,0 +1,31 @@
+package app.cta4j.common.replay;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.routing.HttpRoutePlanner;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+import java.net.InetAddress;
+
+/**
+ * Sends every request to the local {@link ReplayHttpServer} over plain HTTP. The request keeps its original
+ * authority, so the server can tell the platforms apart by {@code Host}.
+ */
+public final class ReplayRoutePlanner implements HttpRoutePlanner {
+    private final HttpRoute route;
+
+    public ReplayRoutePlanner(int port) {
+        HttpHost target = new HttpHost("http", InetAddress.getLoopbackAddress(), "localhost", port);
+
+        this.route = new HttpRoute(target);
+    }
+
+    public HttpRoute getRoute() {
+        return this.route;
+    }
+
+    @Override
+    public HttpRoute determineRoute(HttpHost target, HttpContext context) {
+        return this.route;
+    }
+}
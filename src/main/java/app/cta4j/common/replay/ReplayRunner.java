@@ -0,0 +1,151 @@
+package app.cta4j.common.replay;
+
+import app.cta4j.common.dto.RunResult;
+import app.cta4j.common.metrics.LatencyHistogram;
+import app.cta4j.common.service.TrainRunService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Replays every recorded poll through {@link TrainRunService}, against the local {@link ReplayHttpServer}, then
+ * reports throughput, per-poll latency and allocation and exits. Gaps between recorded polls are divided by
+ * {@code app.replay.speed}, and a speed of zero or less replays the polls back to back.
+ */
+@Component
+@ConditionalOnProperty(name = "app.replay.mode", havingValue = "replay")
+public final class ReplayRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ReplayRunner.class);
+
+    private final TrainRunService trainRunService;
+    private final TrainFixtureTimeline timeline;
+    private final ApplicationContext applicationContext;
+
+    private final double speed;
+
+    @Autowired
+    public ReplayRunner(
+        TrainRunService trainRunService,
+        TrainFixtureTimeline timeline,
+        ApplicationContext applicationContext,
+        @Value("${app.replay.speed}") double speed
+    ) {
+        this.trainRunService = trainRunService;
+        this.timeline = timeline;
+        this.applicationContext = applicationContext;
+        this.speed = speed;
+    }
+
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean sunThreadMXBean) {
+            return sunThreadMXBean.getTotalThreadAllocatedBytes();
+        }
+
+        return -1L;
+    }
+
+    private void sleep(Instant previous, Instant next) throws InterruptedException {
+        if ((this.speed <= 0.0) || (previous == null)) {
+            return;
+        }
+
+        long gapNanos = Duration.between(previous, next)
+                                .toNanos();
+
+        long sleepNanos = (long) (gapNanos / this.speed);
+
+        if (sleepNanos > 0L) {
+            Thread.sleep(Duration.ofNanos(sleepNanos));
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        Map<String, Integer> statusCounts = new TreeMap<>();
+
+        Instant previous = null;
+        Instant first = null;
+
+        long startAllocatedBytes = getAllocatedBytes();
+        long startNanos = System.nanoTime();
+
+        Optional<TrainFixtureTimeline.Poll> poll;
+
+        while ((poll = this.timeline.advance()).isPresent()) {
+            Instant recordedAt = poll.get()
+                                     .recordedAt();
+
+            this.sleep(previous, recordedAt);
+
+            if (first == null) {
+                first = recordedAt;
+            }
+
+            previous = recordedAt;
+
+            long pollStartNanos = System.nanoTime();
+
+            try {
+                Map<String, RunResult> results = this.trainRunService.publishRuns();
+
+                results.values()
+                       .forEach(result -> statusCounts.merge(result.status(), 1, Integer::sum));
+            } catch (RuntimeException e) {
+                log.warn("Replayed poll recorded at {} failed", recordedAt, e);
+
+                statusCounts.merge("ERROR", 1, Integer::sum);
+            }
+
+            histogram.record((System.nanoTime() - pollStartNanos) / 1_000_000L);
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startNanos);
+
+        long allocatedBytes = getAllocatedBytes() - startAllocatedBytes;
+
+        long polls = histogram.getCount();
+
+        Duration recorded = ((first == null) || (previous == null)) ? Duration.ZERO : Duration.between(first, previous);
+
+        double seconds = Math.max(elapsed.toNanos() / 1e9, 1e-9);
+
+        log.info(
+            "Replayed {} polls spanning {} in {} ({} polls/s), statuses {}",
+            polls,
+            recorded,
+            elapsed,
+            String.format("%.1f", polls / seconds),
+            statusCounts
+        );
+
+        log.info(
+            "Poll latency ms p50={} p90={} p99={} max={}, allocated {} bytes/poll",
+            histogram.getPercentile(50.0),
+            histogram.getPercentile(90.0),
+            histogram.getPercentile(99.0),
+            histogram.getMax(),
+            ((polls == 0L) || (startAllocatedBytes < 0L)) ? "n/a" : String.valueOf(allocatedBytes / polls)
+        );
+
+        System.exit(SpringApplication.exit(this.applicationContext));
+    }
+}
@@ -0,0 +1,59 @@
+package app.cta4j.common.replay;
+
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.DescribeSecretRequest;
+import software.amazon.awssdk.services.secretsmanager.model.DescribeSecretResponse;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+import software.amazon.awssdk.services.secretsmanager.model.PutSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.PutSecretValueResponse;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Serves a placeholder secret during replays and load tests, so no AWS call is made. Writes are accepted and
+ * dropped.
+ */
+public final class ReplaySecretsManagerClient implements SecretsManagerClient {
+    private static final String VERSION_ID = "replay";
+    private static final String CURRENT_VERSION_STAGE = "AWSCURRENT";
+
+    private final String secretString;
+
+    public ReplaySecretsManagerClient(String secretString) {
+        this.secretString = Objects.requireNonNull(secretString);
+    }
+
+    @Override
+    public GetSecretValueResponse getSecretValue(GetSecretValueRequest request) {
+        return GetSecretValueResponse.builder()
+                                     .secretString(this.secretString)
+                                     .versionId(VERSION_ID)
+                                     .build();
+    }
+
+    @Override
+    public DescribeSecretResponse describeSecret(DescribeSecretRequest request) {
+        return DescribeSecretResponse.builder()
+                                     .versionIdsToStages(Map.of(VERSION_ID, List.of(CURRENT_VERSION_STAGE)))
+                                     .build();
+    }
+
+    @Override
+    public PutSecretValueResponse putSecretValue(PutSecretValueRequest request) {
+        return PutSecretValueResponse.builder()
+                                     .versionId(VERSION_ID)
+                                     .build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,16 @@
+package app.cta4j.common.replay;
+
+import com.cta4j.train.model.Train;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * One recorded {@code TrainClient.getTrain} call. {@code train} is {@code null} when the run was not in service.
+ */
+public record TrainFixture(Instant recordedAt, String run, Train train) {
+    public TrainFixture {
+        Objects.requireNonNull(recordedAt);
+        Objects.requireNonNull(run);
+    }
+}
@@ -0,0 +1,100 @@
+package app.cta4j.common.replay;
+
+import com.cta4j.train.model.Train;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Recorded trains grouped into polls. A new poll starts when a run shows up again, since every poll fetches each
+ * run once. {@link #advance()} moves to the next poll, and {@link #getTrain(String)} serves that poll's trains.
+ */
+@Component
+@ConditionalOnProperty(name = "app.replay.mode", havingValue = "replay")
+public final class TrainFixtureTimeline {
+    private static final Logger log = LoggerFactory.getLogger(TrainFixtureTimeline.class);
+
+    private final List<Poll> polls;
+
+    private volatile int index;
+
+    public record Poll(Instant recordedAt, Map<String, Train> trains) {
+    }
+
+    @Autowired
+    public TrainFixtureTimeline(FixtureStore fixtureStore) {
+        this.polls = groupPolls(fixtureStore.readTrains());
+        this.index = -1;
+
+        log.info("Loaded {} recorded polls from {}", this.polls.size(), fixtureStore.getDirectory());
+    }
+
+    private static List<Poll> groupPolls(List<TrainFixture> fixtures) {
+        List<Poll> polls = new ArrayList<>();
+
+        Instant recordedAt = null;
+
+        Map<String, Train> trains = new HashMap<>();
+
+        for (TrainFixture fixture : fixtures) {
+            if (trains.containsKey(fixture.run())) {
+                polls.add(new Poll(recordedAt, trains));
+
+                trains = new HashMap<>();
+            }
+
+            if (trains.isEmpty()) {
+                recordedAt = fixture.recordedAt();
+            }
+
+            trains.put(fixture.run(), fixture.train());
+        }
+
+        if (!trains.isEmpty()) {
+            polls.add(new Poll(recordedAt, trains));
+        }
+
+        return List.copyOf(polls);
+    }
+
+    public int size() {
+        return this.polls.size();
+    }
+
+    /**
+     * Moves to the next poll and returns it, or an empty optional once every poll has been replayed.
+     */
+    public synchronized Optional<Poll> advance() {
+        if ((this.index + 1) >= this.polls.size()) {
+            return Optional.empty();
+        }
+
+        this.index++;
+
+        return Optional.of(this.polls.get(this.index));
+    }
+
+    public Optional<Train> getTrain(String run) {
+        Objects.requireNonNull(run);
+
+        int current = this.index;
+
+        if (current < 0) {
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(this.polls.get(current)
+                                             .trains()
+                                             .get(run));
+    }
+}
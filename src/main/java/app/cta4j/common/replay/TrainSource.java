@@ -0,0 +1,14 @@
+package app.cta4j.common.replay;
+
+import com.cta4j.train.model.Train;
+
+import java.util.Optional;
+
+/**
+ * Where {@code PostService} gets trains from: the live {@code TrainClient}, a recorder wrapped around it, or a
+ * recorded fixture.
+ */
+@FunctionalInterface
+public interface TrainSource {
+    Optional<Train> getTrain(String run);
+}
@@ -1,65 +1,164 @@
 package app.cta4j.common.service;
 
+import app.cta4j.common.dto.Media;
 import app.cta4j.common.dto.Post;
+import app.cta4j.common.dto.PostResult;
+import app.cta4j.common.metrics.MetricsRegistry;
+import app.cta4j.common.replay.TrainSource;
+import app.cta4j.common.state.PostStateStore;
+import app.cta4j.common.station.StationLocation;
+import app.cta4j.common.telemetry.Trail;
 import app.cta4j.mapbox.service.MapboxService;
-import com.cta4j.train.client.TrainClient;
 import com.cta4j.train.model.Route;
 import com.cta4j.train.model.Train;
 import com.cta4j.train.model.TrainCoordinates;
 import com.cta4j.train.model.UpcomingTrainArrival;
+import com.rollbar.notifier.Rollbar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 @Service
 public final class PostService {
+    private static final Logger log = LoggerFactory.getLogger(PostService.class);
+
     private static final ZoneId ZONE = ZoneId.of("America/Chicago");
     private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("h:mm a");
+    private static final int FINGERPRINT_LENGTH = 16;
+
+    private static final String STAGE_GET_TRAIN = "cta.getTrain";
+    private static final String STAGE_GENERATE_MAP = "mapbox.generateMap";
 
-    private final TrainClient trainClient;
+    private final TrainSource trainSource;
     private final MapboxService mapboxService;
+    private final PostStateStore postStateStore;
+    private final MetricsRegistry metricsRegistry;
+    private final StationService stationService;
+    private final TelemetryService telemetryService;
+    private final Rollbar rollbar;
 
     @Autowired
     public PostService(
-        TrainClient trainClient,
-        MapboxService mapboxService
+        TrainSource trainSource,
+        MapboxService mapboxService,
+        PostStateStore postStateStore,
+        MetricsRegistry metricsRegistry,
+        StationService stationService,
+        TelemetryService telemetryService,
+        Rollbar rollbar
     ) {
-        this.trainClient = trainClient;
+        this.trainSource = trainSource;
         this.mapboxService = mapboxService;
+        this.postStateStore = postStateStore;
+        this.metricsRegistry = metricsRegistry;
+        this.stationService = stationService;
+        this.telemetryService = telemetryService;
+        this.rollbar = rollbar;
     }
 
-    private String toTitleCase(Route route) {
-        if (route == null) {
-            throw new IllegalArgumentException("route is null");
-        }
-
-        String string = route.toString();
+    private Optional<Train> getTrain(String run) {
+        return this.metricsRegistry.time(STAGE_GET_TRAIN, "CTA", () -> this.trainSource.getTrain(run));
+    }
 
+    private String toTitleCase(String string) {
         return string.substring(0, 1).toUpperCase() + string.substring(1).toLowerCase();
     }
 
-    private String buildText(UpcomingTrainArrival arrival) {
-        String route = this.toTitleCase(arrival.route());
+    public String buildText(String route, String destinationName, String stationName, ZonedDateTime arrivalTime) {
+        return this.buildText(route, destinationName, stationName, arrivalTime, null);
+    }
 
-        String arrivalTime = arrival.arrivalTime()
-                                    .atZone(ZONE)
-                                    .toLocalDateTime()
-                                    .format(TIME_FORMAT);
+    public String buildText(
+        String route,
+        String destinationName,
+        String stationName,
+        ZonedDateTime arrivalTime,
+        String location
+    ) {
+        Objects.requireNonNull(route);
+        Objects.requireNonNull(arrivalTime);
+
+        String formattedArrivalTime = arrivalTime.withZoneSameInstant(ZONE)
+                                                 .toLocalDateTime()
+                                                 .format(TIME_FORMAT);
+
+        if (location != null) {
+            return String.format(
+                "%s Line train to %s, currently %s, will be arriving at %s at %s 🎅",
+                this.toTitleCase(route),
+                destinationName,
+                location,
+                stationName,
+                formattedArrivalTime
+            );
+        }
 
         return String.format(
             "%s Line train to %s will be arriving at %s at %s 🎅",
-            route,
+            this.toTitleCase(route),
+            destinationName,
+            stationName,
+            formattedArrivalTime
+        );
+    }
+
+    private String describeLocation(UpcomingTrainArrival arrival, TrainCoordinates coordinates) {
+        Optional<StationLocation> optionalLocation = this.stationService.locate(coordinates, arrival.route());
+
+        if (optionalLocation.isEmpty()) {
+            return null;
+        }
+
+        StationLocation location = optionalLocation.get();
+
+        boolean arrivalStation = location.station()
+                                         .name()
+                                         .equals(arrival.stationName());
+
+        if (arrivalStation && (location.otherStation() == null)) {
+            return null;
+        }
+
+        return this.stationService.describe(location);
+    }
+
+    private String buildText(UpcomingTrainArrival arrival, TrainCoordinates coordinates) {
+        Route route = arrival.route();
+
+        if (route == null) {
+            throw new IllegalArgumentException("route is null");
+        }
+
+        ZonedDateTime arrivalTime = arrival.arrivalTime()
+                                           .atZone(ZONE);
+
+        String location = this.describeLocation(arrival, coordinates);
+
+        return this.buildText(
+            route.toString(),
             arrival.destinationName(),
             arrival.stationName(),
-            arrivalTime
+            arrivalTime,
+            location
         );
     }
 
-    private File generateMap(TrainCoordinates coordinates) {
+    private Media generateMap(String run, TrainCoordinates coordinates) {
         if (coordinates == null) {
             return null;
         }
@@ -68,14 +167,61 @@ public final class PostService {
             return null;
         }
 
-        return this.mapboxService.generateMap(coordinates.latitude(), coordinates.longitude());
+        Trail trail = this.telemetryService.getTrail(run);
+
+        return this.metricsRegistry.time(
+            STAGE_GENERATE_MAP,
+            "Mapbox",
+            () -> this.mapboxService.generateMap(coordinates.latitude(), coordinates.longitude(), trail)
+        );
+    }
+
+    private static String toPlainString(BigDecimal value) {
+        return (value == null) ? "" : value.stripTrailingZeros()
+                                           .toPlainString();
+    }
+
+    private static String fingerprint(UpcomingTrainArrival arrival, TrainCoordinates coordinates) {
+        long arrivalEpochSecond = arrival.arrivalTime()
+                                         .atZone(ZONE)
+                                         .toEpochSecond();
+
+        String latitude = (coordinates == null) ? "" : toPlainString(coordinates.latitude());
+        String longitude = (coordinates == null) ? "" : toPlainString(coordinates.longitude());
+
+        String state = String.join(
+            "|",
+            arrival.stationName(),
+            arrival.destinationName(),
+            String.valueOf(arrivalEpochSecond),
+            latitude,
+            longitude
+        );
+
+        MessageDigest digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        byte[] hash = digest.digest(state.getBytes(StandardCharsets.UTF_8));
+
+        return HexFormat.of()
+                        .formatHex(hash, 0, FINGERPRINT_LENGTH / 2);
     }
 
-    private Post buildPost(Train train) {
+    public PostResult buildPost(String run, Train train) {
+        Objects.requireNonNull(run);
+        Objects.requireNonNull(train);
+
         List<UpcomingTrainArrival> arrivals = train.arrivals();
 
         if (arrivals.isEmpty()) {
-            return null;
+            this.telemetryService.record(run, train, null);
+
+            return PostResult.noPost();
         }
 
         List<UpcomingTrainArrival> copy = new ArrayList<>(arrivals);
@@ -84,28 +230,102 @@ public final class PostService {
 
         UpcomingTrainArrival arrival = copy.getFirst();
 
-        String text = this.buildText(arrival);
+        this.telemetryService.record(run, train, arrival);
 
         TrainCoordinates coordinates = train.coordinates();
 
-        File media = this.generateMap(coordinates);
+        String fingerprint = fingerprint(arrival, coordinates);
+
+        Instant arrivalTime = arrival.arrivalTime()
+                                     .atZone(ZONE)
+                                     .toInstant();
+
+        Optional<String> lastFingerprint = this.postStateStore.getFingerprint(run);
+
+        if (lastFingerprint.isPresent() && lastFingerprint.get().equals(fingerprint)) {
+            return PostResult.noChange(fingerprint, arrivalTime);
+        }
+
+        String text = this.buildText(arrival, coordinates);
+
+        Media media = this.generateMap(run, coordinates);
+
+        Post post = new Post(text, media);
+
+        return PostResult.ready(post, fingerprint, arrivalTime);
+    }
+
+    private PostResult reportFailure(String run, Throwable throwable) {
+        String message = String.format("Failed to build post for train run %s", run);
 
-        return new Post(text, media);
+        log.error(message, throwable);
+
+        this.rollbar.error(throwable, message);
+
+        return PostResult.failed();
+    }
+
+    private PostResult await(String run, Future<PostResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+
+            return this.reportFailure(run, e);
+        } catch (ExecutionException e) {
+            return this.reportFailure(run, e.getCause());
+        }
     }
 
-    public Optional<Post> buildPost(String run) {
+    /**
+     * Builds a post for every distinct run concurrently. A run whose train or map cannot be fetched is reported and
+     * gets a {@link PostResult.Status#FAILED} result, so the other runs still build and publish.
+     */
+    public Map<String, PostResult> buildPosts(Collection<String> runs) {
+        Objects.requireNonNull(runs);
+
+        Set<String> distinctRuns = new LinkedHashSet<>(runs);
+
+        Map<String, Future<PostResult>> futures = new LinkedHashMap<>();
+
+        Map<String, PostResult> results = new LinkedHashMap<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String run : distinctRuns) {
+                Future<PostResult> future = executor.submit(() -> this.buildPost(run));
+
+                futures.put(run, future);
+            }
+
+            futures.forEach((run, future) -> results.put(run, this.await(run, future)));
+        }
+
+        return results;
+    }
+
+    public PostResult buildPost(String run) {
         Objects.requireNonNull(run);
 
-        Optional<Train> optionalTrain = this.trainClient.getTrain(run);
+        Optional<Train> optionalTrain = this.getTrain(run);
 
         if (optionalTrain.isEmpty()) {
-            return Optional.empty();
+            return PostResult.noPost();
         }
 
         Train train = optionalTrain.get();
 
-        Post post = this.buildPost(train);
+        return this.buildPost(run, train);
+    }
+
+    public void markPublished(String run, PostResult result) {
+        Objects.requireNonNull(run);
+        Objects.requireNonNull(result);
+
+        if (result.status() != PostResult.Status.READY) {
+            throw new IllegalArgumentException("Only a ready result can be marked as published");
+        }
 
-        return Optional.ofNullable(post);
+        this.postStateStore.putFingerprint(run, result.fingerprint());
     }
 }
@@ -1,78 +1,181 @@
 package app.cta4j.common.service;
 
 import app.cta4j.common.dto.Secret;
+import app.cta4j.common.metrics.MetricsRegistry;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.Getter;
-import lombok.Synchronized;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.DescribeSecretRequest;
+import software.amazon.awssdk.services.secretsmanager.model.DescribeSecretResponse;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueRequest;
 import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
 import software.amazon.awssdk.services.secretsmanager.model.PutSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.PutSecretValueResponse;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public final class SecretService {
+    private static final Logger log = LoggerFactory.getLogger(SecretService.class);
+
+    private static final String CURRENT_VERSION_STAGE = "AWSCURRENT";
+    private static final Duration PENDING_WRITE_TIMEOUT = Duration.ofSeconds(10);
+    private static final String PLATFORM = "SecretsManager";
+
+    private static final String STAGE_GET_SECRET_VALUE = "secretsmanager.getSecretValue";
+    private static final String STAGE_DESCRIBE_SECRET = "secretsmanager.describeSecret";
+    private static final String STAGE_PUT_SECRET_VALUE = "secretsmanager.putSecretValue";
+
     private final SecretsManagerClient secretsManagerClient;
     private final ObjectMapper objectMapper;
+    private final MetricsRegistry metricsRegistry;
 
     private final String secretId;
 
-    @Getter(onMethod_ = @Synchronized)
-    private volatile Secret secret;
+    private final AtomicReference<Snapshot> snapshot;
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * A {@code null} version ID marks a locally updated secret that has not been written back yet.
+     */
+    private record Snapshot(Secret secret, String versionId) {
+    }
 
     @Autowired
     public SecretService(
         SecretsManagerClient secretsManagerClient,
         ObjectMapper objectMapper,
-        @Value("${app.aws.secrets-manager.secret-id}") String secretId
+        MetricsRegistry metricsRegistry,
+        @Value("${app.aws.secrets-manager.secret-id}") String secretId,
+        @Value("${app.aws.secrets-manager.refresh-interval}") Duration refreshInterval
     ) {
         this.secretsManagerClient = secretsManagerClient;
         this.objectMapper = objectMapper;
+        this.metricsRegistry = metricsRegistry;
         this.secretId = secretId;
-        this.secret = loadSecret(secretsManagerClient, objectMapper, secretId);
+        this.snapshot = new AtomicReference<>(this.loadSnapshot());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform()
+                  .name("secret-refresh")
+                  .daemon()
+                  .factory()
+        );
+
+        long intervalMillis = refreshInterval.toMillis();
+
+        this.scheduler.scheduleWithFixedDelay(this::refresh, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
     }
 
-    private static Secret loadSecret(
-        SecretsManagerClient secretsManagerClient,
-        ObjectMapper objectMapper,
-        String secretId
-    ) {
+    private Snapshot loadSnapshot() {
         GetSecretValueRequest request = GetSecretValueRequest.builder()
-                                                             .secretId(secretId)
+                                                             .secretId(this.secretId)
                                                              .build();
 
-        GetSecretValueResponse response = secretsManagerClient.getSecretValue(request);
+        GetSecretValueResponse response = this.metricsRegistry.time(
+            STAGE_GET_SECRET_VALUE,
+            PLATFORM,
+            () -> this.secretsManagerClient.getSecretValue(request)
+        );
 
         String secretString = response.secretString();
 
         Secret secret;
 
         try {
-            secret = objectMapper.readValue(secretString, Secret.class);
+            secret = this.objectMapper.readValue(secretString, Secret.class);
         } catch (JsonProcessingException e) {
             throw new IllegalStateException("Failed to parse secret JSON string from AWS Secrets Manager", e);
         }
 
-        return secret;
+        return new Snapshot(secret, response.versionId());
     }
 
-    public synchronized void setTwitterTokens(String accessToken, String refreshToken, Instant expirationTime) {
-        Objects.requireNonNull(accessToken);
-        Objects.requireNonNull(refreshToken);
-        Objects.requireNonNull(expirationTime);
+    private String getCurrentVersionId() {
+        DescribeSecretRequest request = DescribeSecretRequest.builder()
+                                                             .secretId(this.secretId)
+                                                             .build();
+
+        DescribeSecretResponse response = this.metricsRegistry.time(
+            STAGE_DESCRIBE_SECRET,
+            PLATFORM,
+            () -> this.secretsManagerClient.describeSecret(request)
+        );
+
+        for (Map.Entry<String, List<String>> entry : response.versionIdsToStages().entrySet()) {
+            if (entry.getValue().contains(CURRENT_VERSION_STAGE)) {
+                return entry.getKey();
+            }
+        }
+
+        return null;
+    }
 
-        Secret newSecret = this.secret.withTwitterTokens(accessToken, refreshToken, expirationTime);
+    private void refresh() {
+        try {
+            Snapshot current = this.snapshot.get();
+
+            if (current.versionId() == null) {
+                this.persistPendingWrite();
+
+                return;
+            }
+
+            String currentVersionId = this.getCurrentVersionId();
+
+            if (Objects.equals(current.versionId(), currentVersionId)) {
+                return;
+            }
+
+            Snapshot loaded = this.loadSnapshot();
+
+            if (this.snapshot.compareAndSet(current, loaded)) {
+                log.info("Loaded new secret version {}", loaded.versionId());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh secret from AWS Secrets Manager", e);
+        }
+    }
+
+    public void reload() {
+        Snapshot loaded = this.loadSnapshot();
+
+        this.snapshot.updateAndGet(current -> (current.versionId() == null) ? current : loaded);
+    }
+
+    public Secret getSecret() {
+        return this.snapshot.get()
+                            .secret();
+    }
+
+    private void persistPendingWrite() {
+        Snapshot current = this.snapshot.get();
+
+        if (current.versionId() != null) {
+            return;
+        }
 
         String secretString;
 
         try {
-            secretString = this.objectMapper.writeValueAsString(newSecret);
+            secretString = this.objectMapper.writeValueAsString(current.secret());
         } catch (JsonProcessingException e) {
             throw new IllegalStateException("Failed to serialize secret to JSON string", e);
         }
@@ -82,8 +185,55 @@ public final class SecretService {
                                                              .secretString(secretString)
                                                              .build();
 
-        this.secretsManagerClient.putSecretValue(request);
+        PutSecretValueResponse response = this.metricsRegistry.time(
+            STAGE_PUT_SECRET_VALUE,
+            PLATFORM,
+            () -> this.secretsManagerClient.putSecretValue(request)
+        );
+
+        Snapshot persisted = new Snapshot(current.secret(), response.versionId());
+
+        this.snapshot.compareAndSet(current, persisted);
+    }
+
+    private void persistPendingWriteSafely() {
+        try {
+            this.persistPendingWrite();
+        } catch (RuntimeException e) {
+            log.error("Failed to write secret to AWS Secrets Manager, will retry on next refresh", e);
+        }
+    }
+
+    public void setTwitterTokens(String accessToken, String refreshToken, Instant expirationTime) {
+        Objects.requireNonNull(accessToken);
+        Objects.requireNonNull(refreshToken);
+        Objects.requireNonNull(expirationTime);
+
+        this.snapshot.updateAndGet(current -> {
+            Secret newSecret = current.secret()
+                                      .withTwitterTokens(accessToken, refreshToken, expirationTime);
+
+            return new Snapshot(newSecret, null);
+        });
+
+        this.scheduler.execute(this::persistPendingWriteSafely);
+    }
+
+    public void awaitPendingWrites() {
+        Future<?> future = this.scheduler.submit(this::persistPendingWriteSafely);
+
+        try {
+            future.get(PENDING_WRITE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Pending secret write did not complete", e);
+        }
+    }
 
-        this.secret = newSecret;
+    @PreDestroy
+    public void shutdown() {
+        this.scheduler.shutdownNow();
     }
 }
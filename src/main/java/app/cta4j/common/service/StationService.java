@@ -0,0 +1,105 @@
+package app.cta4j.common.service;
+
+import app.cta4j.common.station.Station;
+import app.cta4j.common.station.StationIndex;
+import app.cta4j.common.station.StationLocation;
+import com.cta4j.train.model.Route;
+import com.cta4j.train.model.TrainCoordinates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.Optional;
+
+@Service
+public final class StationService {
+    private static final Logger log = LoggerFactory.getLogger(StationService.class);
+
+    private final StationIndex stationIndex;
+
+    private final double atStationRadius;
+    private final double maxDistance;
+
+    @Autowired
+    public StationService(
+        @Value("${app.stations.resource}") Resource resource,
+        @Value("${app.stations.at-station-radius}") double atStationRadius,
+        @Value("${app.stations.max-distance}") double maxDistance
+    ) {
+        this.stationIndex = loadIndex(resource);
+        this.atStationRadius = atStationRadius;
+        this.maxDistance = maxDistance;
+    }
+
+    private static StationIndex loadIndex(Resource resource) {
+        long start = System.nanoTime();
+
+        StationIndex stationIndex;
+
+        try (InputStream inputStream = resource.getInputStream()) {
+            stationIndex = StationIndex.load(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load stations from " + resource, e);
+        }
+
+        long elapsedMicros = (System.nanoTime() - start) / 1_000L;
+
+        log.info("Loaded {} stations in {} µs", stationIndex.size(), elapsedMicros);
+
+        return stationIndex;
+    }
+
+    /**
+     * Locates the train among the stations on {@code route}, so that it is never described as between stations on
+     * different lines. {@code route} may be {@code null}.
+     */
+    public Optional<StationLocation> locate(TrainCoordinates coordinates, Route route) {
+        if (coordinates == null) {
+            return Optional.empty();
+        }
+
+        if ((coordinates.latitude() == null) || (coordinates.longitude() == null)) {
+            return Optional.empty();
+        }
+
+        return this.stationIndex.locate(
+            coordinates.latitude()
+                       .doubleValue(),
+            coordinates.longitude()
+                       .doubleValue(),
+            this.maxDistance,
+            (route == null) ? null : route.name()
+        );
+    }
+
+    public int findStationId(String stationName, double latitude, double longitude) {
+        Objects.requireNonNull(stationName);
+
+        return this.stationIndex.findId(stationName, latitude, longitude);
+    }
+
+    public String describe(StationLocation location) {
+        Objects.requireNonNull(location);
+
+        Station station = location.station();
+
+        if (location.distanceMeters() <= this.atStationRadius) {
+            return String.format("at %s", station.name());
+        }
+
+        Station otherStation = location.otherStation();
+
+        if (otherStation == null) {
+            return String.format("near %s", station.name());
+        }
+
+        return String.format("between %s and %s", station.name(), otherStation.name());
+    }
+}
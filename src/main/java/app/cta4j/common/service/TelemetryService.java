@@ -0,0 +1,142 @@
+package app.cta4j.common.service;
+
+import app.cta4j.common.telemetry.TelemetryLog;
+import app.cta4j.common.telemetry.Trail;
+import com.cta4j.train.model.Train;
+import com.cta4j.train.model.TrainCoordinates;
+import com.cta4j.train.model.UpcomingTrainArrival;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Objects;
+
+/**
+ * Records every fetched train in the telemetry log and reads back its recent trail for the map.
+ */
+@Service
+public final class TelemetryService {
+    private static final Logger log = LoggerFactory.getLogger(TelemetryService.class);
+
+    private static final ZoneId ZONE = ZoneId.of("America/Chicago");
+
+    private final StationService stationService;
+
+    private final TelemetryLog telemetryLog;
+
+    private final int trailLength;
+    private final Duration trailMaxAge;
+
+    @Autowired
+    public TelemetryService(
+        StationService stationService,
+        @Value("${app.telemetry.enabled}") boolean enabled,
+        @Value("${app.telemetry.directory}") Path directory,
+        @Value("${app.telemetry.segment-records}") int segmentRecords,
+        @Value("${app.telemetry.max-segments}") int maxSegments,
+        @Value("${app.telemetry.trail-length}") int trailLength,
+        @Value("${app.telemetry.trail-max-age}") Duration trailMaxAge
+    ) {
+        this.stationService = stationService;
+        this.telemetryLog = enabled ? openLog(directory, segmentRecords, maxSegments) : null;
+        this.trailLength = trailLength;
+        this.trailMaxAge = trailMaxAge;
+    }
+
+    private static TelemetryLog openLog(Path directory, int segmentRecords, int maxSegments) {
+        try {
+            TelemetryLog telemetryLog = TelemetryLog.open(directory, segmentRecords, maxSegments);
+
+            log.info("Opened telemetry log {} with {} samples", directory, telemetryLog.getSampleCount());
+
+            return telemetryLog;
+        } catch (IOException e) {
+            log.warn("Failed to open telemetry log {}, telemetry is disabled", directory, e);
+
+            return null;
+        }
+    }
+
+    private static int parseRun(String run) {
+        try {
+            return Integer.parseInt(run);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public void record(String run, Train train, UpcomingTrainArrival arrival) {
+        Objects.requireNonNull(run);
+        Objects.requireNonNull(train);
+
+        if (this.telemetryLog == null) {
+            return;
+        }
+
+        TrainCoordinates coordinates = train.coordinates();
+
+        if ((coordinates == null) || (coordinates.latitude() == null) || (coordinates.longitude() == null)) {
+            return;
+        }
+
+        int runNumber = parseRun(run);
+
+        if (runNumber < 0) {
+            log.debug("Train run {} is not numeric, skipping telemetry", run);
+
+            return;
+        }
+
+        double latitude = coordinates.latitude()
+                                     .doubleValue();
+
+        double longitude = coordinates.longitude()
+                                      .doubleValue();
+
+        int stationId = -1;
+        long etaMillis = 0L;
+
+        if (arrival != null) {
+            stationId = this.stationService.findStationId(arrival.stationName(), latitude, longitude);
+
+            etaMillis = arrival.arrivalTime()
+                               .atZone(ZONE)
+                               .toInstant()
+                               .toEpochMilli();
+        }
+
+        try {
+            this.telemetryLog.append(System.currentTimeMillis(), runNumber, stationId, latitude, longitude, etaMillis);
+        } catch (IOException e) {
+            log.warn("Failed to append telemetry for train run {}", run, e);
+        }
+    }
+
+    /**
+     * Returns the run's distinct positions within the trail max age, oldest first. The trail is empty if telemetry
+     * is disabled.
+     */
+    public Trail getTrail(String run) {
+        Objects.requireNonNull(run);
+
+        int runNumber = parseRun(run);
+
+        if ((this.telemetryLog == null) || (runNumber < 0)) {
+            return new Trail(0);
+        }
+
+        Trail trail = new Trail(this.trailLength);
+
+        long minTimestampMillis = System.currentTimeMillis() - this.trailMaxAge.toMillis();
+
+        this.telemetryLog.readTrail(runNumber, minTimestampMillis, trail);
+
+        return trail;
+    }
+}
@@ -0,0 +1,163 @@
+package app.cta4j.common.service;
+
+import app.cta4j.common.dto.PostResult;
+import app.cta4j.common.dto.RunResult;
+import app.cta4j.common.http.InvocationDeadline;
+import app.cta4j.common.metrics.EmfMetricsEmitter;
+import app.cta4j.common.outbox.OutboxService;
+import app.cta4j.common.publisher.MultiplatformPublisher;
+import app.cta4j.common.publisher.PublishStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds and publishes posts for every configured train run. Shared by the Lambda function and the daemon.
+ */
+@Service
+public final class TrainRunService {
+    private static final Logger log = LoggerFactory.getLogger(TrainRunService.class);
+
+    public static final String STATUS_OK = "OK";
+    public static final String STATUS_NO_POST = "NO_POST";
+    public static final String STATUS_NO_CHANGE = "NO_CHANGE";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_QUEUED = "QUEUED";
+
+    private final PostService postService;
+    private final MultiplatformPublisher multiplatformPublisher;
+    private final SecretService secretService;
+    private final InvocationDeadline invocationDeadline;
+    private final EmfMetricsEmitter metricsEmitter;
+    private final OutboxService outboxService;
+
+    private final List<String> trainRuns;
+
+    @Autowired
+    public TrainRunService(
+        PostService postService,
+        MultiplatformPublisher multiplatformPublisher,
+        SecretService secretService,
+        InvocationDeadline invocationDeadline,
+        EmfMetricsEmitter metricsEmitter,
+        OutboxService outboxService,
+        @Value("${app.cta.train.runs}") List<String> trainRuns
+    ) {
+        this.postService = postService;
+        this.multiplatformPublisher = multiplatformPublisher;
+        this.secretService = secretService;
+        this.invocationDeadline = invocationDeadline;
+        this.metricsEmitter = metricsEmitter;
+        this.outboxService = outboxService;
+        this.trainRuns = List.copyOf(trainRuns);
+    }
+
+    private String publish(String run, PostResult result) {
+        Map<String, PublishStatus> statuses = this.multiplatformPublisher.publish(result.post());
+
+        boolean queued = false;
+
+        for (Map.Entry<String, PublishStatus> entry : statuses.entrySet()) {
+            if (OutboxService.isRetryable(entry.getValue())) {
+                queued |= this.outboxService.enqueue(run, result, entry.getKey());
+            }
+        }
+
+        boolean published = statuses.containsValue(PublishStatus.PUBLISHED);
+
+        if (!published && !queued) {
+            return STATUS_FAILED;
+        }
+
+        this.postService.markPublished(run, result);
+
+        return published ? STATUS_OK : STATUS_QUEUED;
+    }
+
+    private String await(String run, Future<String> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+
+            return STATUS_FAILED;
+        } catch (ExecutionException e) {
+            log.error("Failed to publish post for train run {}", run, e.getCause());
+
+            return STATUS_FAILED;
+        }
+    }
+
+    private Map<String, RunResult> publishPosts(Map<String, PostResult> posts) {
+        Map<String, Future<String>> futures = new LinkedHashMap<>();
+
+        Map<String, RunResult> results = new LinkedHashMap<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            posts.forEach((run, result) -> {
+                switch (result.status()) {
+                    case NO_POST -> log.info("No post to publish for train run {}", run);
+                    case NO_CHANGE -> log.info("Train run {} has not changed since the last post", run);
+                    case FAILED -> log.info("Skipping train run {}, its post could not be built", run);
+                    case READY -> futures.put(run, executor.submit(() -> this.publish(run, result)));
+                }
+            });
+
+            posts.forEach((run, result) -> {
+                String status = switch (result.status()) {
+                    case NO_POST -> STATUS_NO_POST;
+                    case NO_CHANGE -> STATUS_NO_CHANGE;
+                    case FAILED -> STATUS_FAILED;
+                    case READY -> this.await(run, futures.get(run));
+                };
+
+                results.put(run, new RunResult(status, result.arrivalTime()));
+            });
+        }
+
+        return results;
+    }
+
+    public Map<String, RunResult> publishRuns() {
+        this.invocationDeadline.start();
+
+        return this.runInvocation();
+    }
+
+    /**
+     * Publishes within {@code remainingTime}, the time the Lambda runtime reports is left for this invocation.
+     */
+    public Map<String, RunResult> publishRuns(Duration remainingTime) {
+        this.invocationDeadline.start(remainingTime);
+
+        return this.runInvocation();
+    }
+
+    private Map<String, RunResult> runInvocation() {
+        try {
+            this.outboxService.replay();
+
+            Map<String, PostResult> posts = this.postService.buildPosts(this.trainRuns);
+
+            return this.publishPosts(posts);
+        } finally {
+            this.outboxService.flush();
+
+            this.secretService.awaitPendingWrites();
+
+            this.metricsEmitter.flush();
+        }
+    }
+}
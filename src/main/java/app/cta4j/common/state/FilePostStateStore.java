@@ -0,0 +1,108 @@
+package app.cta4j.common.state;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "app.state.store", havingValue = "file", matchIfMissing = true)
+public final class FilePostStateStore implements PostStateStore {
+    private static final Logger log = LoggerFactory.getLogger(FilePostStateStore.class);
+
+    private static final TypeReference<Map<String, String>> STATE_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    private final Path file;
+
+    private Map<String, String> fingerprints;
+
+    @Autowired
+    public FilePostStateStore(
+        ObjectMapper objectMapper,
+        @Value("${app.state.file}") Path file
+    ) {
+        this.objectMapper = objectMapper;
+        this.file = file;
+    }
+
+    private Map<String, String> load() {
+        if (!Files.isRegularFile(this.file)) {
+            return new LinkedHashMap<>();
+        }
+
+        try {
+            Map<String, String> loaded = this.objectMapper.readValue(this.file.toFile(), STATE_TYPE);
+
+            return new LinkedHashMap<>(loaded);
+        } catch (IOException e) {
+            log.warn("Failed to read post state from {}, starting empty", this.file, e);
+
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private Map<String, String> getFingerprints() {
+        if (this.fingerprints == null) {
+            this.fingerprints = this.load();
+        }
+
+        return this.fingerprints;
+    }
+
+    private void save() {
+        try {
+            Files.createDirectories(this.file.toAbsolutePath()
+                                             .getParent());
+
+            Path tempFile = Files.createTempFile(this.file.toAbsolutePath()
+                                                          .getParent(), "state", ".tmp");
+
+            this.objectMapper.writeValue(tempFile.toFile(), this.fingerprints);
+
+            Files.move(tempFile, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to write post state to {}", this.file, e);
+        }
+    }
+
+    @Override
+    public synchronized Optional<String> getFingerprint(String run) {
+        Objects.requireNonNull(run);
+
+        String fingerprint = this.getFingerprints()
+                                 .get(run);
+
+        return Optional.ofNullable(fingerprint);
+    }
+
+    @Override
+    public synchronized void putFingerprint(String run, String fingerprint) {
+        Objects.requireNonNull(run);
+        Objects.requireNonNull(fingerprint);
+
+        String previous = this.getFingerprints()
+                              .put(run, fingerprint);
+
+        if (fingerprint.equals(previous)) {
+            return;
+        }
+
+        this.save();
+    }
+}
@@ -0,0 +1,12 @@
+package app.cta4j.common.state;
+
+import java.util.Optional;
+
+/**
+ * Holds the fingerprint of the last post published for each train run.
+ */
+public interface PostStateStore {
+    Optional<String> getFingerprint(String run);
+
+    void putFingerprint(String run, String fingerprint);
+}
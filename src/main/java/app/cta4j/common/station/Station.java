@@ -0,0 +1,9 @@
+package app.cta4j.common.station;
+
+import java.util.Objects;
+
+public record Station(int id, String name, double latitude, double longitude) {
+    public Station {
+        Objects.requireNonNull(name);
+    }
+}
@@ -0,0 +1,413 @@
+package app.cta4j.common.station;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Immutable uniform-grid index over GTFS parent stations. Coordinates live in primitive arrays and the grid is stored
+ * in compressed-row form, so a lookup only touches the few cells around the query point. Each station also carries the
+ * routes that serve it as a bit mask, so a lookup can be limited to the stations on one line.
+ */
+public final class StationIndex {
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    private static final double CELL_SIZE_DEGREES = 0.01;
+
+    private static final String HEADER = "stop_id,stop_name,stop_lat,stop_lon,routes";
+
+    private static final List<String> ROUTES = List.of(
+        "RED",
+        "BLUE",
+        "BROWN",
+        "GREEN",
+        "ORANGE",
+        "PINK",
+        "PURPLE",
+        "YELLOW"
+    );
+
+    private static final int ALL_ROUTES = -1;
+
+    private final int[] ids;
+    private final String[] names;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] routes;
+
+    private final double minLatitude;
+    private final double minLongitude;
+    private final int rows;
+    private final int columns;
+
+    private final int[] cellStarts;
+    private final int[] cellStations;
+
+    private final double cellSizeMeters;
+
+    private StationIndex(int[] ids, String[] names, double[] latitudes, double[] longitudes, int[] routes) {
+        if (ids.length == 0) {
+            throw new IllegalArgumentException("At least one station is required");
+        }
+
+        this.ids = ids;
+        this.names = names;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.routes = routes;
+
+        double minLatitude = Arrays.stream(latitudes)
+                                   .min()
+                                   .orElseThrow();
+
+        double maxLatitude = Arrays.stream(latitudes)
+                                   .max()
+                                   .orElseThrow();
+
+        double minLongitude = Arrays.stream(longitudes)
+                                    .min()
+                                    .orElseThrow();
+
+        double maxLongitude = Arrays.stream(longitudes)
+                                    .max()
+                                    .orElseThrow();
+
+        this.minLatitude = minLatitude;
+        this.minLongitude = minLongitude;
+        this.rows = (int) ((maxLatitude - minLatitude) / CELL_SIZE_DEGREES) + 1;
+        this.columns = (int) ((maxLongitude - minLongitude) / CELL_SIZE_DEGREES) + 1;
+
+        int[] cells = new int[ids.length];
+
+        this.cellStarts = new int[(this.rows * this.columns) + 1];
+
+        for (int i = 0; i < ids.length; i++) {
+            int cell = (this.getRow(latitudes[i]) * this.columns) + this.getColumn(longitudes[i]);
+
+            cells[i] = cell;
+
+            this.cellStarts[cell + 1]++;
+        }
+
+        for (int i = 1; i < this.cellStarts.length; i++) {
+            this.cellStarts[i] += this.cellStarts[i - 1];
+        }
+
+        int[] offsets = Arrays.copyOf(this.cellStarts, this.cellStarts.length - 1);
+
+        this.cellStations = new int[ids.length];
+
+        for (int i = 0; i < ids.length; i++) {
+            this.cellStations[offsets[cells[i]]++] = i;
+        }
+
+        double longitudeScale = Math.cos(Math.toRadians(maxLatitude));
+
+        this.cellSizeMeters = CELL_SIZE_DEGREES * METERS_PER_DEGREE * longitudeScale;
+    }
+
+    public static StationIndex load(InputStream inputStream) throws IOException {
+        Objects.requireNonNull(inputStream);
+
+        int[] ids = new int[256];
+        String[] names = new String[256];
+        double[] latitudes = new double[256];
+        double[] longitudes = new double[256];
+        int[] routes = new int[256];
+
+        int size = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+        String header = reader.readLine();
+
+        if (!HEADER.equals(header)) {
+            throw new IOException("Unexpected station file header: " + header);
+        }
+
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+
+            String[] fields = line.split(",", -1);
+
+            if (fields.length != 5) {
+                throw new IOException("Malformed station line: " + line);
+            }
+
+            if (size == ids.length) {
+                int capacity = size * 2;
+
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                routes = Arrays.copyOf(routes, capacity);
+            }
+
+            try {
+                ids[size] = Integer.parseInt(fields[0]);
+                latitudes[size] = Double.parseDouble(fields[2]);
+                longitudes[size] = Double.parseDouble(fields[3]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed station line: " + line, e);
+            }
+
+            names[size] = fields[1];
+
+            routes[size] = parseRoutes(fields[4], line);
+
+            size++;
+        }
+
+        return new StationIndex(
+            Arrays.copyOf(ids, size),
+            Arrays.copyOf(names, size),
+            Arrays.copyOf(latitudes, size),
+            Arrays.copyOf(longitudes, size),
+            Arrays.copyOf(routes, size)
+        );
+    }
+
+    /**
+     * Parses the space-separated routes that serve a station, such as {@code RED PURPLE YELLOW} at Howard.
+     */
+    private static int parseRoutes(String field, String line) throws IOException {
+        int mask = 0;
+
+        for (String route : field.trim()
+                                 .split(" +")) {
+            int index = ROUTES.indexOf(route);
+
+            if (index == -1) {
+                throw new IOException("Unknown route in station line: " + line);
+            }
+
+            mask |= 1 << index;
+        }
+
+        return mask;
+    }
+
+    /**
+     * Returns the mask of the stations served by {@code route}, or of every station when the route is {@code null} or
+     * not one this index knows.
+     */
+    private static int getRouteMask(String route) {
+        int index = (route == null) ? -1 : ROUTES.indexOf(route);
+
+        return (index == -1) ? ALL_ROUTES : (1 << index);
+    }
+
+    private int getRow(double latitude) {
+        return (int) Math.floor((latitude - this.minLatitude) / CELL_SIZE_DEGREES);
+    }
+
+    private int getColumn(double longitude) {
+        return (int) Math.floor((longitude - this.minLongitude) / CELL_SIZE_DEGREES);
+    }
+
+    public static double distanceMeters(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double longitudeScale = Math.cos(Math.toRadians((latitude1 + latitude2) / 2.0));
+
+        double dy = (latitude2 - latitude1) * METERS_PER_DEGREE;
+        double dx = (longitude2 - longitude1) * METERS_PER_DEGREE * longitudeScale;
+
+        return Math.sqrt((dx * dx) + (dy * dy));
+    }
+
+    private double distanceTo(int station, double latitude, double longitude) {
+        return distanceMeters(latitude, longitude, this.latitudes[station], this.longitudes[station]);
+    }
+
+    private static void insert(int station, double distance, int[] nearest, double[] distances) {
+        int i = distances.length - 1;
+
+        if (distance >= distances[i]) {
+            return;
+        }
+
+        while ((i > 0) && (distance < distances[i - 1])) {
+            nearest[i] = nearest[i - 1];
+            distances[i] = distances[i - 1];
+
+            i--;
+        }
+
+        nearest[i] = station;
+        distances[i] = distance;
+    }
+
+    private void scanCell(int row, int column, double latitude, double longitude, int routeMask, int[] nearest,
+                          double[] distances) {
+        if ((row < 0) || (row >= this.rows) || (column < 0) || (column >= this.columns)) {
+            return;
+        }
+
+        int cell = (row * this.columns) + column;
+
+        for (int i = this.cellStarts[cell]; i < this.cellStarts[cell + 1]; i++) {
+            int station = this.cellStations[i];
+
+            if ((this.routes[station] & routeMask) == 0) {
+                continue;
+            }
+
+            insert(station, this.distanceTo(station, latitude, longitude), nearest, distances);
+        }
+    }
+
+    private void scanRing(int row, int column, int ring, double latitude, double longitude, int routeMask,
+                          int[] nearest, double[] distances) {
+        if (ring == 0) {
+            this.scanCell(row, column, latitude, longitude, routeMask, nearest, distances);
+
+            return;
+        }
+
+        for (int offset = -ring; offset <= ring; offset++) {
+            this.scanCell(row - ring, column + offset, latitude, longitude, routeMask, nearest, distances);
+            this.scanCell(row + ring, column + offset, latitude, longitude, routeMask, nearest, distances);
+        }
+
+        for (int offset = -ring + 1; offset < ring; offset++) {
+            this.scanCell(row + offset, column - ring, latitude, longitude, routeMask, nearest, distances);
+            this.scanCell(row + offset, column + ring, latitude, longitude, routeMask, nearest, distances);
+        }
+    }
+
+    /**
+     * Gives up once the rings scanned cover {@code maxDistance} without finding a station within it, so a point far
+     * outside the network only scans a couple of empty rings instead of every ring out to the grid's edge.
+     */
+    private int[] findNearest(double latitude, double longitude, int count, double maxDistance, int routeMask) {
+        int[] nearest = new int[count];
+        double[] distances = new double[count];
+
+        Arrays.fill(nearest, -1);
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+
+        int row = this.getRow(latitude);
+        int column = this.getColumn(longitude);
+
+        int maxRing = Math.max(
+            Math.max(Math.abs(row), Math.abs(this.rows - 1 - row)),
+            Math.max(Math.abs(column), Math.abs(this.columns - 1 - column))
+        );
+
+        int searchRing = (int) Math.min(Math.ceil(maxDistance / this.cellSizeMeters), maxRing);
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            this.scanRing(row, column, ring, latitude, longitude, routeMask, nearest, distances);
+
+            if (distances[count - 1] <= (ring * this.cellSizeMeters)) {
+                break;
+            }
+
+            if ((ring >= searchRing) && (distances[0] > maxDistance)) {
+                break;
+            }
+        }
+
+        return nearest;
+    }
+
+    public Station getStation(int station) {
+        return new Station(
+            this.ids[station],
+            this.names[station],
+            this.latitudes[station],
+            this.longitudes[station]
+        );
+    }
+
+    /**
+     * Returns the ID of the closest station with the given name, or {@code -1} if there is none. Several lines have
+     * stations with the same name, such as Western.
+     */
+    public int findId(String name, double latitude, double longitude) {
+        Objects.requireNonNull(name);
+
+        int closest = -1;
+
+        double closestDistance = Double.MAX_VALUE;
+
+        for (int i = 0; i < this.names.length; i++) {
+            if (!this.names[i].equals(name)) {
+                continue;
+            }
+
+            double distance = this.distanceTo(i, latitude, longitude);
+
+            if (distance < closestDistance) {
+                closest = i;
+                closestDistance = distance;
+            }
+        }
+
+        return (closest == -1) ? -1 : this.ids[closest];
+    }
+
+    public int size() {
+        return this.ids.length;
+    }
+
+    public Station nearest(double latitude, double longitude) {
+        int[] nearest = this.findNearest(latitude, longitude, 1, Double.POSITIVE_INFINITY, ALL_ROUTES);
+
+        return this.getStation(nearest[0]);
+    }
+
+    public Optional<StationLocation> locate(double latitude, double longitude, double maxDistance) {
+        return this.locate(latitude, longitude, maxDistance, null);
+    }
+
+    /**
+     * Finds the nearest station on {@code route} within {@code maxDistance} meters and, when the point lies between
+     * them, the second nearest one on the other side, which may be farther away. Lines run side by side in the Loop
+     * and on the North Side, so only stations served by {@code route} are considered, and a second station that
+     * shares no route with the first is never paired with it. {@code route} may be {@code null}, in which case every
+     * station is considered.
+     */
+    public Optional<StationLocation> locate(double latitude, double longitude, double maxDistance, String route) {
+        int[] nearest = this.findNearest(latitude, longitude, 2, maxDistance, getRouteMask(route));
+
+        if (nearest[0] == -1) {
+            return Optional.empty();
+        }
+
+        double distance = this.distanceTo(nearest[0], latitude, longitude);
+
+        if (distance > maxDistance) {
+            return Optional.empty();
+        }
+
+        Station station = this.getStation(nearest[0]);
+
+        if ((nearest[1] == -1) || ((this.routes[nearest[0]] & this.routes[nearest[1]]) == 0)) {
+            return Optional.of(new StationLocation(station, distance, null));
+        }
+
+        double longitudeScale = Math.cos(Math.toRadians(latitude));
+
+        double dx1 = (this.longitudes[nearest[0]] - longitude) * longitudeScale;
+        double dy1 = this.latitudes[nearest[0]] - latitude;
+        double dx2 = (this.longitudes[nearest[1]] - longitude) * longitudeScale;
+        double dy2 = this.latitudes[nearest[1]] - latitude;
+
+        double dotProduct = (dx1 * dx2) + (dy1 * dy2);
+
+        Station otherStation = (dotProduct < 0.0) ? this.getStation(nearest[1]) : null;
+
+        return Optional.of(new StationLocation(station, distance, otherStation));
+    }
+}
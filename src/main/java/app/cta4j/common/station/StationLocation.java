@@ -0,0 +1,12 @@
+package app.cta4j.common.station;
+
+import java.util.Objects;
+
+/**
+ * {@code otherStation} is {@code null} unless the point lies between {@code station} and a second station.
+ */
+public record StationLocation(Station station, double distanceMeters, Station otherStation) {
+    public StationLocation {
+        Objects.requireNonNull(station);
+    }
+}
@@ -0,0 +1,62 @@
+package app.cta4j.common.telemetry;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Writes every sample in a telemetry log directory to standard output as CSV, oldest first, for offline analysis.
+ * <p>
+ * Usage: {@code java -cp <jar> app.cta4j.common.telemetry.TelemetryExport <directory>}
+ */
+public final class TelemetryExport {
+    private static final String HEADER = "timestamp,run,station_id,lat,lon,eta";
+
+    private TelemetryExport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TelemetryExport <directory>");
+
+            System.exit(1);
+        }
+
+        TelemetryLog telemetryLog = TelemetryLog.open(Path.of(args[0]), 1, Integer.MAX_VALUE);
+
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+
+        writer.write(HEADER);
+        writer.newLine();
+
+        telemetryLog.scan((timestampMillis, run, stationId, latitude, longitude, etaMillis) -> {
+            String eta = (etaMillis == 0L) ? "" : Instant.ofEpochMilli(etaMillis)
+                                                         .toString();
+
+            String line = String.format(
+                Locale.ROOT,
+                "%s,%d,%s,%.6f,%.6f,%s",
+                Instant.ofEpochMilli(timestampMillis),
+                run,
+                (stationId == -1) ? "" : String.valueOf(stationId),
+                latitude,
+                longitude,
+                eta
+            );
+
+            try {
+                writer.write(line);
+                writer.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        writer.flush();
+    }
+}
@@ -0,0 +1,327 @@
+package app.cta4j.common.telemetry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Append-only log of train samples stored as fixed-width records in rolling, memory-mapped segment files. Each
+ * segment has a small header whose record count is bumped after the record is written, so a reader never sees a
+ * partial record. Once {@code maxSegments} segments are full, the oldest one is deleted. Appends and reads work on
+ * the mapped buffers with absolute gets and puts and do not allocate.
+ */
+public final class TelemetryLog {
+    private static final Logger log = LoggerFactory.getLogger(TelemetryLog.class);
+
+    static final int MAGIC = 0x43544C47;
+    static final int VERSION = 1;
+
+    static final int HEADER_LENGTH = 16;
+    static final int RECORD_LENGTH = 40;
+
+    private static final int COUNT_OFFSET = 12;
+
+    private static final int TIMESTAMP_OFFSET = 0;
+    private static final int RUN_OFFSET = 8;
+    private static final int STATION_OFFSET = 12;
+    private static final int LATITUDE_OFFSET = 16;
+    private static final int LONGITUDE_OFFSET = 24;
+    private static final int ETA_OFFSET = 32;
+
+    private static final String SEGMENT_PREFIX = "telemetry-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final int maxSegments;
+
+    private final List<Segment> segments;
+
+    private static final class Segment {
+        private final long sequence;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+
+        private int count;
+
+        private Segment(long sequence, Path path, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.buffer = buffer;
+            this.capacity = (buffer.capacity() - HEADER_LENGTH) / RECORD_LENGTH;
+            this.count = Math.min(Math.max(buffer.getInt(COUNT_OFFSET), 0), this.capacity);
+        }
+
+        private boolean isFull() {
+            return this.count >= this.capacity;
+        }
+
+        private int offset(int record) {
+            return HEADER_LENGTH + (record * RECORD_LENGTH);
+        }
+    }
+
+    private TelemetryLog(Path directory, int segmentRecords, int maxSegments, List<Segment> segments) {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.maxSegments = maxSegments;
+        this.segments = segments;
+    }
+
+    private static Path getSegmentPath(Path directory, long sequence) {
+        String fileName = String.format("%s%016d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX);
+
+        return directory.resolve(fileName);
+    }
+
+    private static long getSequence(Path path) {
+        String fileName = path.getFileName()
+                              .toString();
+
+        String sequence = fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length());
+
+        try {
+            return Long.parseLong(sequence);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private static MappedByteBuffer map(Path path, long size, StandardOpenOption... options) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+        }
+    }
+
+    private static Segment openSegment(Path path) throws IOException {
+        long size = Files.size(path);
+
+        if ((size < (HEADER_LENGTH + RECORD_LENGTH)) || (size > Integer.MAX_VALUE)) {
+            throw new IOException("Telemetry segment has an invalid size");
+        }
+
+        MappedByteBuffer buffer = map(path, size, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("File is not a telemetry segment");
+        }
+
+        int version = buffer.getInt(4);
+
+        if (version != VERSION) {
+            throw new IOException("Unsupported telemetry segment version " + version);
+        }
+
+        if (buffer.getInt(8) != RECORD_LENGTH) {
+            throw new IOException("Telemetry segment has an unexpected record length");
+        }
+
+        return new Segment(getSequence(path), path, buffer);
+    }
+
+    private static Segment createSegment(Path directory, long sequence, int records) throws IOException {
+        Path path = getSegmentPath(directory, sequence);
+
+        long size = HEADER_LENGTH + ((long) records * RECORD_LENGTH);
+
+        MappedByteBuffer buffer = map(
+            path,
+            size,
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE
+        );
+
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, RECORD_LENGTH);
+        buffer.putInt(COUNT_OFFSET, 0);
+
+        return new Segment(sequence, path, buffer);
+    }
+
+    public static TelemetryLog open(Path directory, int segmentRecords, int maxSegments) throws IOException {
+        Objects.requireNonNull(directory);
+
+        if (segmentRecords < 1) {
+            throw new IllegalArgumentException("segmentRecords must be positive");
+        }
+
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("maxSegments must be positive");
+        }
+
+        Files.createDirectories(directory);
+
+        List<Segment> segments = new ArrayList<>();
+
+        String glob = String.format("%s*%s", SEGMENT_PREFIX, SEGMENT_SUFFIX);
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path path : stream) {
+                if (getSequence(path) < 0L) {
+                    continue;
+                }
+
+                try {
+                    segments.add(openSegment(path));
+                } catch (IOException e) {
+                    log.warn("Deleting unreadable telemetry segment {}", path, e);
+
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+
+        segments.sort(Comparator.comparingLong(segment -> segment.sequence));
+
+        TelemetryLog telemetryLog = new TelemetryLog(directory, segmentRecords, maxSegments, segments);
+
+        telemetryLog.trim();
+
+        return telemetryLog;
+    }
+
+    private void trim() throws IOException {
+        while (this.segments.size() > this.maxSegments) {
+            Segment oldest = this.segments.removeFirst();
+
+            Files.deleteIfExists(oldest.path);
+        }
+    }
+
+    private Segment getWritableSegment() throws IOException {
+        Segment last = this.segments.isEmpty() ? null : this.segments.getLast();
+
+        if ((last != null) && !last.isFull()) {
+            return last;
+        }
+
+        long sequence = (last == null) ? 0L : (last.sequence + 1L);
+
+        Segment segment = createSegment(this.directory, sequence, this.segmentRecords);
+
+        this.segments.add(segment);
+
+        this.trim();
+
+        return segment;
+    }
+
+    public synchronized void append(
+        long timestampMillis,
+        int run,
+        int stationId,
+        double latitude,
+        double longitude,
+        long etaMillis
+    ) throws IOException {
+        Segment segment = this.getWritableSegment();
+
+        MappedByteBuffer buffer = segment.buffer;
+
+        int offset = segment.offset(segment.count);
+
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestampMillis);
+        buffer.putInt(offset + RUN_OFFSET, run);
+        buffer.putInt(offset + STATION_OFFSET, stationId);
+        buffer.putDouble(offset + LATITUDE_OFFSET, latitude);
+        buffer.putDouble(offset + LONGITUDE_OFFSET, longitude);
+        buffer.putLong(offset + ETA_OFFSET, etaMillis);
+
+        segment.count++;
+
+        buffer.putInt(COUNT_OFFSET, segment.count);
+    }
+
+    /**
+     * Scans backwards from the newest sample and fills the trail, oldest first, with up to its capacity of distinct
+     * positions for the run. The scan stops at the first sample older than {@code minTimestampMillis}.
+     */
+    public synchronized void readTrail(int run, long minTimestampMillis, Trail trail) {
+        Objects.requireNonNull(trail);
+
+        trail.clear();
+
+        for (int i = this.segments.size() - 1; i >= 0; i--) {
+            Segment segment = this.segments.get(i);
+
+            MappedByteBuffer buffer = segment.buffer;
+
+            for (int record = segment.count - 1; record >= 0; record--) {
+                if (trail.isFull()) {
+                    trail.reverse();
+
+                    return;
+                }
+
+                int offset = segment.offset(record);
+
+                if (buffer.getLong(offset + TIMESTAMP_OFFSET) < minTimestampMillis) {
+                    trail.reverse();
+
+                    return;
+                }
+
+                if (buffer.getInt(offset + RUN_OFFSET) != run) {
+                    continue;
+                }
+
+                double latitude = buffer.getDouble(offset + LATITUDE_OFFSET);
+                double longitude = buffer.getDouble(offset + LONGITUDE_OFFSET);
+
+                if (!trail.isLast(latitude, longitude)) {
+                    trail.add(latitude, longitude);
+                }
+            }
+        }
+
+        trail.reverse();
+    }
+
+    /**
+     * Visits every sample from oldest to newest.
+     */
+    public synchronized void scan(TelemetryVisitor visitor) {
+        Objects.requireNonNull(visitor);
+
+        for (Segment segment : this.segments) {
+            MappedByteBuffer buffer = segment.buffer;
+
+            for (int record = 0; record < segment.count; record++) {
+                int offset = segment.offset(record);
+
+                visitor.visit(
+                    buffer.getLong(offset + TIMESTAMP_OFFSET),
+                    buffer.getInt(offset + RUN_OFFSET),
+                    buffer.getInt(offset + STATION_OFFSET),
+                    buffer.getDouble(offset + LATITUDE_OFFSET),
+                    buffer.getDouble(offset + LONGITUDE_OFFSET),
+                    buffer.getLong(offset + ETA_OFFSET)
+                );
+            }
+        }
+    }
+
+    public synchronized long getSampleCount() {
+        long count = 0L;
+
+        for (Segment segment : this.segments) {
+            count += segment.count;
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,6 @@
+package app.cta4j.common.telemetry;
+
+@FunctionalInterface
+public interface TelemetryVisitor {
+    void visit(long timestampMillis, int run, int stationId, double latitude, double longitude, long etaMillis);
+}
@@ -0,0 +1,83 @@
+package app.cta4j.common.telemetry;
+
+import app.cta4j.common.util.Polyline;
+
+/**
+ * A train's recent positions, oldest first, held in primitive arrays that {@link TelemetryLog#readTrail} fills in
+ * place.
+ */
+public final class Trail {
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    private int size;
+
+    public Trail(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+    }
+
+    public int capacity() {
+        return this.latitudes.length;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public double latitude(int index) {
+        return this.latitudes[index];
+    }
+
+    public double longitude(int index) {
+        return this.longitudes[index];
+    }
+
+    public String toPolyline() {
+        return Polyline.encode(this.latitudes, this.longitudes, this.size);
+    }
+
+    void clear() {
+        this.size = 0;
+    }
+
+    boolean isFull() {
+        return this.size == this.latitudes.length;
+    }
+
+    boolean isLast(double latitude, double longitude) {
+        if (this.size == 0) {
+            return false;
+        }
+
+        return (this.latitudes[this.size - 1] == latitude) && (this.longitudes[this.size - 1] == longitude);
+    }
+
+    void add(double latitude, double longitude) {
+        this.latitudes[this.size] = latitude;
+        this.longitudes[this.size] = longitude;
+
+        this.size++;
+    }
+
+    void reverse() {
+        for (int i = 0, j = this.size - 1; i < j; i++, j--) {
+            double latitude = this.latitudes[i];
+            double longitude = this.longitudes[i];
+
+            this.latitudes[i] = this.latitudes[j];
+            this.longitudes[i] = this.longitudes[j];
+
+            this.latitudes[j] = latitude;
+            this.longitudes[j] = longitude;
+        }
+    }
+}
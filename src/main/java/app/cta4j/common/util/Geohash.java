@@ -0,0 +1,117 @@
+package app.cta4j.common.util;
+
+import java.math.BigDecimal;
+
+public final class Geohash {
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private static final int MAX_PRECISION = 12;
+
+    private Geohash() {
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        if ((precision < 1) || (precision > MAX_PRECISION)) {
+            throw new IllegalArgumentException("precision must be between 1 and " + MAX_PRECISION);
+        }
+
+        double minLatitude = -90.0;
+        double maxLatitude = 90.0;
+        double minLongitude = -180.0;
+        double maxLongitude = 180.0;
+
+        StringBuilder builder = new StringBuilder(precision);
+
+        boolean even = true;
+        int bit = 0;
+        int index = 0;
+
+        while (builder.length() < precision) {
+            if (even) {
+                double middle = (minLongitude + maxLongitude) / 2.0;
+
+                if (longitude >= middle) {
+                    index = (index << 1) | 1;
+                    minLongitude = middle;
+                } else {
+                    index <<= 1;
+                    maxLongitude = middle;
+                }
+            } else {
+                double middle = (minLatitude + maxLatitude) / 2.0;
+
+                if (latitude >= middle) {
+                    index = (index << 1) | 1;
+                    minLatitude = middle;
+                } else {
+                    index <<= 1;
+                    maxLatitude = middle;
+                }
+            }
+
+            even = !even;
+
+            if (++bit == 5) {
+                builder.append(BASE32.charAt(index));
+
+                bit = 0;
+                index = 0;
+            }
+        }
+
+        return builder.toString();
+    }
+
+    public static String encode(BigDecimal latitude, BigDecimal longitude, int precision) {
+        return encode(latitude.doubleValue(), longitude.doubleValue(), precision);
+    }
+
+    /**
+     * Returns the center of the cell identified by {@code geohash} as a {@code [latitude, longitude]} pair.
+     */
+    public static double[] decode(String geohash) {
+        double minLatitude = -90.0;
+        double maxLatitude = 90.0;
+        double minLongitude = -180.0;
+        double maxLongitude = 180.0;
+
+        boolean even = true;
+
+        for (int i = 0; i < geohash.length(); i++) {
+            int index = BASE32.indexOf(geohash.charAt(i));
+
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid geohash character: " + geohash.charAt(i));
+            }
+
+            for (int shift = 4; shift >= 0; shift--) {
+                boolean set = ((index >> shift) & 1) == 1;
+
+                if (even) {
+                    double middle = (minLongitude + maxLongitude) / 2.0;
+
+                    if (set) {
+                        minLongitude = middle;
+                    } else {
+                        maxLongitude = middle;
+                    }
+                } else {
+                    double middle = (minLatitude + maxLatitude) / 2.0;
+
+                    if (set) {
+                        minLatitude = middle;
+                    } else {
+                        maxLatitude = middle;
+                    }
+                }
+
+                even = !even;
+            }
+        }
+
+        return new double[] {
+            (minLatitude + maxLatitude) / 2.0,
+            (minLongitude + maxLongitude) / 2.0
+        };
+    }
+}
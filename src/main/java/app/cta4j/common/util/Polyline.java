@@ -0,0 +1,48 @@
+package app.cta4j.common.util;
+
+/**
+ * Encodes coordinates in the Google encoded polyline format with five decimal places, as used by Mapbox path
+ * overlays.
+ */
+public final class Polyline {
+    private static final double FACTOR = 1e5;
+
+    private Polyline() {
+    }
+
+    private static void encodeValue(long value, StringBuilder builder) {
+        long shifted = (value < 0L) ? ~(value << 1) : (value << 1);
+
+        while (shifted >= 0x20L) {
+            builder.append((char) ((0x20L | (shifted & 0x1FL)) + 63L));
+
+            shifted >>= 5;
+        }
+
+        builder.append((char) (shifted + 63L));
+    }
+
+    public static String encode(double[] latitudes, double[] longitudes, int size) {
+        if ((size < 0) || (size > latitudes.length) || (size > longitudes.length)) {
+            throw new IllegalArgumentException("size is out of range");
+        }
+
+        StringBuilder builder = new StringBuilder(size * 8);
+
+        long previousLatitude = 0L;
+        long previousLongitude = 0L;
+
+        for (int i = 0; i < size; i++) {
+            long latitude = Math.round(latitudes[i] * FACTOR);
+            long longitude = Math.round(longitudes[i] * FACTOR);
+
+            encodeValue(latitude - previousLatitude, builder);
+            encodeValue(longitude - previousLongitude, builder);
+
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+        }
+
+        return builder.toString();
+    }
+}
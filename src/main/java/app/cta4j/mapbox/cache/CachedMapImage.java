@@ -0,0 +1,15 @@
+package app.cta4j.mapbox.cache;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A cached map and the validator it was served with. {@code etag} is {@code null} for maps rendered locally or
+ * served without one.
+ */
+public record CachedMapImage(byte[] image, String etag, Instant fetchedAt) {
+    public CachedMapImage {
+        Objects.requireNonNull(image);
+        Objects.requireNonNull(fetchedAt);
+    }
+}
@@ -0,0 +1,251 @@
+package app.cta4j.mapbox.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Component
+public final class MapboxImageCache {
+    private static final Logger log = LoggerFactory.getLogger(MapboxImageCache.class);
+
+    private static final String FILE_EXTENSION = ".png";
+    private static final String METADATA_EXTENSION = ".meta";
+
+    private final Path directory;
+    private final int diskCapacity;
+
+    private final Map<String, CachedMapImage> memoryTier;
+
+    private final AtomicLong memoryHits;
+    private final AtomicLong diskHits;
+    private final AtomicLong misses;
+
+    @Autowired
+    public MapboxImageCache(
+        @Value("${app.mapbox.cache.directory}") Path directory,
+        @Value("${app.mapbox.cache.memory-capacity}") int memoryCapacity,
+        @Value("${app.mapbox.cache.disk-capacity}") int diskCapacity
+    ) {
+        this.directory = directory;
+        this.diskCapacity = diskCapacity;
+        this.memoryTier = new LinkedHashMap<>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedMapImage> eldest) {
+                return this.size() > memoryCapacity;
+            }
+        };
+        this.memoryHits = new AtomicLong();
+        this.diskHits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    private Path resolve(String key) {
+        return this.directory.resolve(key + FILE_EXTENSION);
+    }
+
+    private Path resolveMetadata(String key) {
+        return this.directory.resolve(key + METADATA_EXTENSION);
+    }
+
+    private CachedMapImage getFromMemory(String key) {
+        synchronized (this.memoryTier) {
+            return this.memoryTier.get(key);
+        }
+    }
+
+    private void putInMemory(String key, CachedMapImage entry) {
+        synchronized (this.memoryTier) {
+            this.memoryTier.put(key, entry);
+        }
+    }
+
+    /**
+     * The metadata file holds the fetch time in epoch milliseconds and, on a second line, the ETag if there is one.
+     * Images cached before metadata was written count as fetched at their last modification.
+     */
+    private CachedMapImage readMetadata(String key, byte[] image, FileTime lastModifiedTime) throws IOException {
+        Path metadataPath = this.resolveMetadata(key);
+
+        if (!Files.isRegularFile(metadataPath)) {
+            return new CachedMapImage(image, null, lastModifiedTime.toInstant());
+        }
+
+        List<String> lines = Files.readAllLines(metadataPath);
+
+        Instant fetchedAt;
+
+        try {
+            fetchedAt = Instant.ofEpochMilli(Long.parseLong(lines.getFirst()));
+        } catch (NumberFormatException | NoSuchElementException e) {
+            throw new IOException("Malformed cache metadata " + metadataPath, e);
+        }
+
+        String etag = (lines.size() > 1) ? lines.get(1) : null;
+
+        return new CachedMapImage(image, etag, fetchedAt);
+    }
+
+    private CachedMapImage getFromDisk(String key) {
+        Path path = this.resolve(key);
+
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        try {
+            byte[] image = Files.readAllBytes(path);
+
+            CachedMapImage entry = this.readMetadata(key, image, Files.getLastModifiedTime(path));
+
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+
+            return entry;
+        } catch (IOException e) {
+            log.warn("Failed to read cached Mapbox image {}", path, e);
+
+            return null;
+        }
+    }
+
+    private void evictFromDisk() throws IOException {
+        List<Path> paths;
+
+        try (Stream<Path> stream = Files.list(this.directory)) {
+            paths = stream.filter(path -> path.getFileName()
+                                              .toString()
+                                              .endsWith(FILE_EXTENSION))
+                          .sorted(Comparator.comparing(MapboxImageCache::lastModifiedTime))
+                          .toList();
+        }
+
+        int excess = paths.size() - this.diskCapacity;
+
+        for (int i = 0; i < excess; i++) {
+            Path path = paths.get(i);
+
+            String fileName = path.getFileName()
+                                  .toString();
+
+            String key = fileName.substring(0, fileName.length() - FILE_EXTENSION.length());
+
+            Files.deleteIfExists(path);
+
+            Files.deleteIfExists(this.resolveMetadata(key));
+        }
+    }
+
+    private static FileTime lastModifiedTime(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0L);
+        }
+    }
+
+    private void write(Path path, String key, byte[] data) throws IOException {
+        Path tempPath = Files.createTempFile(this.directory, key, ".tmp");
+
+        Files.write(tempPath, data);
+
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void putOnDisk(String key, CachedMapImage entry) {
+        Path path = this.resolve(key);
+
+        String metadata = String.valueOf(entry.fetchedAt()
+                                              .toEpochMilli());
+
+        if (entry.etag() != null) {
+            metadata += System.lineSeparator() + entry.etag();
+        }
+
+        try {
+            Files.createDirectories(this.directory);
+
+            this.write(this.resolveMetadata(key), key, metadata.getBytes(StandardCharsets.UTF_8));
+
+            this.write(path, key, entry.image());
+
+            this.evictFromDisk();
+        } catch (IOException e) {
+            log.warn("Failed to write cached Mapbox image {}", path, e);
+        }
+    }
+
+    public Optional<CachedMapImage> get(String key) {
+        Objects.requireNonNull(key);
+
+        CachedMapImage entry = this.getFromMemory(key);
+
+        if (entry != null) {
+            this.memoryHits.incrementAndGet();
+
+            return Optional.of(entry);
+        }
+
+        entry = this.getFromDisk(key);
+
+        if (entry != null) {
+            this.diskHits.incrementAndGet();
+
+            this.putInMemory(key, entry);
+
+            return Optional.of(entry);
+        }
+
+        this.misses.incrementAndGet();
+
+        return Optional.empty();
+    }
+
+    public void put(String key, CachedMapImage entry) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(entry);
+
+        this.putInMemory(key, entry);
+
+        this.putOnDisk(key, entry);
+    }
+
+    public void put(String key, byte[] image) {
+        Objects.requireNonNull(image);
+
+        this.put(key, new CachedMapImage(image, null, Instant.now()));
+    }
+
+    public long getMemoryHitCount() {
+        return this.memoryHits.get();
+    }
+
+    public long getDiskHitCount() {
+        return this.diskHits.get();
+    }
+
+    public long getHitCount() {
+        return this.memoryHits.get() + this.diskHits.get();
+    }
+
+    public long getMissCount() {
+        return this.misses.get();
+    }
+}
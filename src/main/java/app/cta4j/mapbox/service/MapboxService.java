@@ -1,75 +1,355 @@
 package app.cta4j.mapbox.service;
 
+import app.cta4j.common.dto.Media;
+import app.cta4j.common.http.JsonResponseHandler;
+import app.cta4j.common.http.LatencyExecInterceptor;
+import app.cta4j.common.http.PlatformEndpoints;
+import app.cta4j.common.telemetry.Trail;
+import app.cta4j.common.util.Geohash;
+import app.cta4j.mapbox.cache.CachedMapImage;
+import app.cta4j.mapbox.cache.MapboxImageCache;
 import app.cta4j.mapbox.exception.MapboxException;
-import app.cta4j.common.dto.Secret;
+import app.cta4j.mapbox.tile.OfflineMapRenderer;
 import app.cta4j.common.service.SecretService;
-import org.apache.commons.io.FileUtils;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.*;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
-import java.net.MalformedURLException;
 import java.net.URI;
-import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.Optional;
 
 @Service
 public final class MapboxService {
+    private static final Logger log = LoggerFactory.getLogger(MapboxService.class);
+
     private static final String MAPBOX_API_URL_TEMPLATE = """
-    https://api.mapbox.com/styles/v1/mapbox/streets-v12/static/\
-    pin-s+ff0000(%f,%f)/%f,%f,15,0,0/600x400@2x?access_token=%s""";
+    %s/styles/v1/mapbox/streets-v12/static/%s/%f,%f,15,0,0/600x400@2x?access_token=%s""";
+
+    private static final String PIN_OVERLAY_TEMPLATE = "pin-s+ff0000(%f,%f)";
+    private static final String PATH_OVERLAY_TEMPLATE = "path-4+ff0000-0.6(%s),";
+
+    private static final String METRICS_STAGE = "GET /styles/v1/mapbox/streets-v12/static";
+
+    private static final int MAX_IMAGE_BYTES = 8 * 1024 * 1024;
+
+    private static final int TRAIL_KEY_LENGTH = 16;
+
+    private final SecretService secretService;
+    private final MapboxImageCache imageCache;
+    private final OfflineMapRenderer offlineMapRenderer;
+    private final CloseableHttpClient httpClient;
+
+    private final URI baseUri;
 
-    private final Secret secret;
+    private final int geohashPrecision;
+    private final Duration maxAge;
+
+    private final HttpClientResponseHandler<MapResponse> responseHandler;
+
+    private record MapResponse(int statusCode, byte[] image, String etag) {
+    }
 
     @Autowired
-    public MapboxService(SecretService secretService) {
-        this.secret = secretService.getSecret();
+    public MapboxService(
+        SecretService secretService,
+        MapboxImageCache imageCache,
+        OfflineMapRenderer offlineMapRenderer,
+        CloseableHttpClient httpClient,
+        PlatformEndpoints platformEndpoints,
+        @Value("${app.mapbox.cache.geohash-precision}") int geohashPrecision,
+        @Value("${app.mapbox.cache.max-age}") Duration maxAge
+    ) {
+        this.secretService = secretService;
+        this.imageCache = imageCache;
+        this.offlineMapRenderer = offlineMapRenderer;
+        this.httpClient = httpClient;
+        this.baseUri = platformEndpoints.getMapbox();
+        this.geohashPrecision = geohashPrecision;
+        this.maxAge = maxAge;
+        this.responseHandler = MapboxService::handleResponse;
     }
 
-    public File generateMap(BigDecimal latitude, BigDecimal longitude) {
-        Objects.requireNonNull(latitude);
-        Objects.requireNonNull(longitude);
+    /**
+     * Reads the body straight into an array sized from {@code Content-Length}, so the image is copied off the
+     * connection exactly once.
+     */
+    private static byte[] readImage(HttpEntity entity) throws IOException {
+        long contentLength = entity.getContentLength();
+
+        if (contentLength > MAX_IMAGE_BYTES) {
+            throw new IOException(String.format("Mapbox image of %d bytes exceeds %d bytes", contentLength,
+                MAX_IMAGE_BYTES));
+        }
+
+        try (InputStream inputStream = entity.getContent()) {
+            if (contentLength >= 0L) {
+                byte[] image = inputStream.readNBytes((int) contentLength);
+
+                if (image.length != contentLength) {
+                    throw new IOException("Mapbox image response was truncated");
+                }
+
+                return image;
+            }
+
+            byte[] image = inputStream.readNBytes(MAX_IMAGE_BYTES + 1);
+
+            if (image.length > MAX_IMAGE_BYTES) {
+                throw new IOException(String.format("Mapbox image exceeds %d bytes", MAX_IMAGE_BYTES));
+            }
+
+            return image;
+        }
+    }
+
+    private static MapResponse handleResponse(ClassicHttpResponse httpResponse) throws IOException {
+        int statusCode = httpResponse.getCode();
+
+        HttpEntity entity = httpResponse.getEntity();
+
+        if (statusCode == HttpStatus.SC_NOT_MODIFIED) {
+            EntityUtils.consume(entity);
+
+            return new MapResponse(statusCode, null, null);
+        }
 
-        String accessToken = this.secret.mapbox()
-                                        .accessToken();
+        if ((statusCode != HttpStatus.SC_OK) || (entity == null)) {
+            String snippet = JsonResponseHandler.readSnippet(entity);
+
+            log.warn("Unexpected status code {} with body: {}", statusCode, snippet);
+
+            return new MapResponse(statusCode, null, null);
+        }
+
+        byte[] image = readImage(entity);
+
+        Header etagHeader = httpResponse.getFirstHeader(HttpHeaders.ETAG);
+
+        String etag = (etagHeader == null) ? null : etagHeader.getValue();
+
+        return new MapResponse(statusCode, image, etag);
+    }
+
+    private URI buildUri(double latitude, double longitude, String polyline) {
+        String accessToken = this.secretService.getSecret()
+                                               .mapbox()
+                                               .accessToken();
+
+        String overlay = String.format(Locale.ROOT, PIN_OVERLAY_TEMPLATE, longitude, latitude);
+
+        if (polyline != null) {
+            String encodedPolyline = URLEncoder.encode(polyline, StandardCharsets.UTF_8);
+
+            overlay = String.format(PATH_OVERLAY_TEMPLATE, encodedPolyline) + overlay;
+        }
 
         String uriString = String.format(
+            Locale.ROOT,
             MAPBOX_API_URL_TEMPLATE,
-            longitude,
-            latitude,
+            this.baseUri,
+            overlay,
             longitude,
             latitude,
             accessToken
         );
 
-        URI uri = URI.create(uriString);
+        try {
+            return URI.create(uriString);
+        } catch (IllegalArgumentException e) {
+            throw new MapboxException("Failed to build Mapbox URI", e);
+        }
+    }
 
-        URL url;
+    private MapResponse fetchMap(double latitude, double longitude, String polyline, String etag) {
+        HttpGet httpGet = new HttpGet(this.buildUri(latitude, longitude, polyline));
 
-        try {
-            url = uri.toURL();
-        } catch (MalformedURLException e) {
-            throw new MapboxException("Failed to convert Mapbox URI to URL", e);
+        if (etag != null) {
+            httpGet.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
         }
 
-        File tempFile;
+        HttpClientContext context = HttpClientContext.create();
+
+        context.setAttribute(LatencyExecInterceptor.STAGE_ATTRIBUTE, METRICS_STAGE);
+
+        MapResponse response;
 
         try {
-            tempFile = File.createTempFile("mapbox-", ".png");
+            response = this.httpClient.execute(httpGet, context, this.responseHandler);
         } catch (IOException e) {
-            throw new MapboxException("Failed to create temporary file for Mapbox image", e);
+            throw new MapboxException("Failed to download Mapbox image", e);
+        }
+
+        int statusCode = response.statusCode();
+
+        if ((statusCode != HttpStatus.SC_OK) && (statusCode != HttpStatus.SC_NOT_MODIFIED)) {
+            String message = String.format("Failed to download Mapbox image, status code %d", statusCode);
+
+            throw new MapboxException(message);
         }
 
+        if ((statusCode == HttpStatus.SC_OK) && (response.image() == null)) {
+            throw new MapboxException("Mapbox returned an empty image response");
+        }
+
+        return response;
+    }
+
+    private byte[] downloadMap(
+        String key,
+        double latitude,
+        double longitude,
+        String polyline,
+        CachedMapImage cachedEntry
+    ) {
+        String etag = (cachedEntry == null) ? null : cachedEntry.etag();
+
+        MapResponse response;
+
         try {
-            FileUtils.copyURLToFile(url, tempFile);
-        } catch (IOException e) {
-            throw new MapboxException("Failed to download Mapbox image to temporary file", e);
+            response = this.fetchMap(latitude, longitude, polyline, etag);
+        } catch (MapboxException e) {
+            if (cachedEntry == null) {
+                throw e;
+            }
+
+            log.warn("Failed to refresh Mapbox image for {}, using the cached one", key, e);
+
+            return cachedEntry.image();
+        }
+
+        Instant now = Instant.now();
+
+        if (response.statusCode() == HttpStatus.SC_NOT_MODIFIED) {
+            if (cachedEntry == null) {
+                throw new MapboxException("Mapbox returned 304 without a conditional request");
+            }
+
+            this.imageCache.put(key, new CachedMapImage(cachedEntry.image(), etag, now));
+
+            return cachedEntry.image();
+        }
+
+        this.imageCache.put(key, new CachedMapImage(response.image(), response.etag(), now));
+
+        return response.image();
+    }
+
+    private boolean isFresh(CachedMapImage entry) {
+        Instant expiration = entry.fetchedAt()
+                                  .plus(this.maxAge);
+
+        return Instant.now()
+                      .isBefore(expiration);
+    }
+
+    private static String encodeTrail(Trail trail) {
+        if ((trail == null) || (trail.size() < 2)) {
+            return null;
+        }
+
+        return trail.toPolyline();
+    }
+
+    /**
+     * Hashes the geohash cells the trail passes through rather than its exact points, so trails that differ by less
+     * than a cell share a cached map, just as the center does. The SHA-256 prefix keeps distinct trails apart.
+     */
+    private String getTrailKey(Trail trail) {
+        StringBuilder builder = new StringBuilder();
+
+        String previousCell = null;
+
+        for (int i = 0; i < trail.size(); i++) {
+            String cell = Geohash.encode(trail.latitude(i), trail.longitude(i), this.geohashPrecision);
+
+            if (!cell.equals(previousCell)) {
+                builder.append(cell)
+                       .append('|');
+
+                previousCell = cell;
+            }
+        }
+
+        MessageDigest digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        byte[] hash = digest.digest(builder.toString()
+                                           .getBytes(StandardCharsets.UTF_8));
+
+        return HexFormat.of()
+                        .formatHex(hash, 0, TRAIL_KEY_LENGTH / 2);
+    }
+
+    public Media generateMap(BigDecimal latitude, BigDecimal longitude) {
+        return this.generateMap(latitude, longitude, null);
+    }
+
+    /**
+     * Generates a map centered on the train, with its trail drawn as a path when it has at least two points. Maps
+     * with a trail are cached under the geohash plus a hash of the cells along the trail.
+     */
+    public Media generateMap(BigDecimal latitude, BigDecimal longitude, Trail trail) {
+        Objects.requireNonNull(latitude);
+        Objects.requireNonNull(longitude);
+
+        String geohash = Geohash.encode(latitude, longitude, this.geohashPrecision);
+
+        String polyline = encodeTrail(trail);
+
+        String key = (polyline == null) ? geohash : String.format("%s-%s", geohash, this.getTrailKey(trail));
+
+        Optional<CachedMapImage> cachedEntry = this.imageCache.get(key);
+
+        byte[] image;
+
+        if (cachedEntry.isPresent() && this.isFresh(cachedEntry.get())) {
+            image = cachedEntry.get()
+                               .image();
+        } else {
+            double[] center = Geohash.decode(geohash);
+
+            Optional<byte[]> renderedImage = this.offlineMapRenderer.render(center[0], center[1], trail);
+
+            if (renderedImage.isPresent()) {
+                image = renderedImage.get();
+
+                this.imageCache.put(key, image);
+            } else {
+                image = this.downloadMap(key, center[0], center[1], polyline, cachedEntry.orElse(null));
+            }
         }
 
-        tempFile.deleteOnExit();
+        log.debug(
+            "Mapbox image cache hits: {}, misses: {}",
+            this.imageCache.getHitCount(),
+            this.imageCache.getMissCount()
+        );
 
-        return tempFile;
+        return new Media(image, ContentType.IMAGE_PNG);
     }
 }
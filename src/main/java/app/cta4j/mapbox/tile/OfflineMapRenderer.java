@@ -0,0 +1,253 @@
+package app.cta4j.mapbox.tile;
+
+import app.cta4j.common.telemetry.Trail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Composes map images from a memory-mapped {@link TilePack} and draws the pin locally, so a map costs a few tile
+ * decodes instead of a Mapbox Static Images call. Renders nothing when no pack is configured or a tile is missing,
+ * leaving the caller to fall back to the API.
+ */
+@Component
+public final class OfflineMapRenderer {
+    private static final Logger log = LoggerFactory.getLogger(OfflineMapRenderer.class);
+
+    private static final Color PIN_COLOR = new Color(0xFF0000);
+    private static final Color TRAIL_COLOR = new Color(255, 0, 0, 153);
+    private static final Color BACKGROUND_COLOR = new Color(0xF2EFE9);
+    private static final String ATTRIBUTION = "© Mapbox © OpenStreetMap";
+
+    private final TilePack tilePack;
+
+    private final int zoom;
+    private final int width;
+    private final int height;
+
+    @Autowired
+    public OfflineMapRenderer(
+        @Value("${app.mapbox.offline.tile-pack}") String tilePackPath,
+        @Value("${app.mapbox.offline.zoom}") int zoom,
+        @Value("${app.mapbox.offline.width}") int width,
+        @Value("${app.mapbox.offline.height}") int height
+    ) {
+        this.tilePack = openTilePack(tilePackPath);
+        this.zoom = zoom;
+        this.width = width;
+        this.height = height;
+    }
+
+    private static TilePack openTilePack(String tilePackPath) {
+        if ((tilePackPath == null) || tilePackPath.isBlank()) {
+            return null;
+        }
+
+        TilePack tilePack;
+
+        try {
+            tilePack = TilePack.open(Path.of(tilePackPath));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open tile pack " + tilePackPath, e);
+        }
+
+        log.info("Opened tile pack {} with {} tiles", tilePackPath, tilePack.getTileCount());
+
+        return tilePack;
+    }
+
+    public boolean isEnabled() {
+        return this.tilePack != null;
+    }
+
+    private static BufferedImage decode(ByteBuffer tile) throws IOException {
+        byte[] bytes = new byte[tile.remaining()];
+
+        tile.get(bytes);
+
+        BufferedImage image = ImageIO.read(new MemoryCacheImageInputStream(new ByteArrayInputStream(bytes)));
+
+        if (image == null) {
+            throw new IOException("Tile is not a readable image");
+        }
+
+        return image;
+    }
+
+    private void drawPin(Graphics2D graphics, double x, double y) {
+        double scale = this.width / 600.0;
+
+        double radius = 10.0 * scale;
+        double tipLength = 26.0 * scale;
+
+        double centerY = y - tipLength;
+
+        Path2D.Double pin = new Path2D.Double();
+
+        pin.moveTo(x, y);
+        pin.lineTo(x - (radius * 0.8), centerY + (radius * 0.6));
+        pin.lineTo(x + (radius * 0.8), centerY + (radius * 0.6));
+        pin.closePath();
+
+        Ellipse2D.Double head = new Ellipse2D.Double(x - radius, centerY - radius, radius * 2.0, radius * 2.0);
+
+        graphics.setColor(PIN_COLOR);
+        graphics.fill(pin);
+        graphics.fill(head);
+
+        graphics.setColor(Color.WHITE);
+        graphics.setStroke(new BasicStroke((float) (1.5 * scale)));
+        graphics.draw(head);
+
+        double dotRadius = radius * 0.35;
+
+        graphics.fill(new Ellipse2D.Double(x - dotRadius, centerY - dotRadius, dotRadius * 2.0, dotRadius * 2.0));
+    }
+
+    private void drawTrail(Graphics2D graphics, Trail trail, double worldSize, double left, double top) {
+        Path2D.Double path = new Path2D.Double();
+
+        for (int i = 0; i < trail.size(); i++) {
+            double x = WebMercator.toPixelX(trail.longitude(i), worldSize) - left;
+            double y = WebMercator.toPixelY(trail.latitude(i), worldSize) - top;
+
+            if (i == 0) {
+                path.moveTo(x, y);
+            } else {
+                path.lineTo(x, y);
+            }
+        }
+
+        float strokeWidth = (float) (4.0 * (this.width / 600.0));
+
+        graphics.setColor(TRAIL_COLOR);
+        graphics.setStroke(new BasicStroke(strokeWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        graphics.draw(path);
+    }
+
+    private void drawAttribution(Graphics2D graphics) {
+        float fontSize = (float) (10.0 * (this.width / 600.0));
+
+        graphics.setFont(graphics.getFont()
+                                 .deriveFont(fontSize));
+
+        FontMetrics metrics = graphics.getFontMetrics();
+
+        int textWidth = metrics.stringWidth(ATTRIBUTION);
+        int padding = metrics.getDescent() + 2;
+
+        int x = this.width - textWidth - (padding * 2);
+        int y = this.height - metrics.getHeight() - padding;
+
+        graphics.setColor(new Color(255, 255, 255, 180));
+        graphics.fillRect(x, y, textWidth + (padding * 2), metrics.getHeight() + padding);
+
+        graphics.setColor(Color.DARK_GRAY);
+        graphics.drawString(ATTRIBUTION, x + padding, (y + metrics.getAscent()) + (padding / 2));
+    }
+
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try (MemoryCacheImageOutputStream imageOutputStream = new MemoryCacheImageOutputStream(outputStream)) {
+            if (!ImageIO.write(image, "png", imageOutputStream)) {
+                throw new IOException("No PNG writer is available");
+            }
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    public Optional<byte[]> render(double latitude, double longitude) {
+        return this.render(latitude, longitude, null);
+    }
+
+    public Optional<byte[]> render(double latitude, double longitude, Trail trail) {
+        if (this.tilePack == null) {
+            return Optional.empty();
+        }
+
+        int tileSize = this.tilePack.getTileSize();
+
+        double worldSize = WebMercator.getWorldSize(this.zoom, tileSize);
+
+        double centerX = WebMercator.toPixelX(longitude, worldSize);
+        double centerY = WebMercator.toPixelY(latitude, worldSize);
+
+        double left = centerX - (this.width / 2.0);
+        double top = centerY - (this.height / 2.0);
+
+        int minTileX = (int) Math.floor(left / tileSize);
+        int maxTileX = (int) Math.floor((left + this.width - 1) / tileSize);
+        int minTileY = (int) Math.floor(top / tileSize);
+        int maxTileY = (int) Math.floor((top + this.height - 1) / tileSize);
+
+        BufferedImage image = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_RGB);
+
+        Graphics2D graphics = image.createGraphics();
+
+        try {
+            graphics.setColor(BACKGROUND_COLOR);
+            graphics.fillRect(0, 0, this.width, this.height);
+
+            for (int tileY = minTileY; tileY <= maxTileY; tileY++) {
+                for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+                    ByteBuffer tile = this.tilePack.getTile(this.zoom, tileX, tileY);
+
+                    if (tile == null) {
+                        log.debug("Tile pack does not cover tile {}/{}/{}", this.zoom, tileX, tileY);
+
+                        return Optional.empty();
+                    }
+
+                    int x = (int) Math.round(((double) tileX * tileSize) - left);
+                    int y = (int) Math.round(((double) tileY * tileSize) - top);
+
+                    graphics.drawImage(decode(tile), x, y, null);
+                }
+            }
+
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+            if ((trail != null) && (trail.size() >= 2)) {
+                this.drawTrail(graphics, trail, worldSize, left, top);
+            }
+
+            this.drawPin(graphics, this.width / 2.0, this.height / 2.0);
+
+            this.drawAttribution(graphics);
+        } catch (IOException e) {
+            log.warn("Failed to render map from tile pack", e);
+
+            return Optional.empty();
+        } finally {
+            graphics.dispose();
+        }
+
+        try {
+            return Optional.of(encode(image));
+        } catch (IOException e) {
+            log.warn("Failed to encode rendered map", e);
+
+            return Optional.empty();
+        }
+    }
+}
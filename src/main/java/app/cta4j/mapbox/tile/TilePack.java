@@ -0,0 +1,112 @@
+package app.cta4j.mapbox.tile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Read-only view of a tile pack file: a small header, a sorted index of {@code (key, offset, length)} entries and the
+ * concatenated tile images. The whole file is memory-mapped, so lookups are a binary search over the mapped index
+ * and tiles are never copied onto the heap until they are decoded.
+ */
+public final class TilePack {
+    static final int MAGIC = 0x43544150;
+    static final int VERSION = 1;
+
+    static final int HEADER_LENGTH = 16;
+    static final int ENTRY_LENGTH = 20;
+
+    private final MappedByteBuffer buffer;
+
+    private final int tileSize;
+    private final int count;
+
+    private TilePack(MappedByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("File is not a tile pack");
+        }
+
+        int version = buffer.getInt(4);
+
+        if (version != VERSION) {
+            throw new IOException("Unsupported tile pack version " + version);
+        }
+
+        this.tileSize = buffer.getInt(8);
+        this.count = buffer.getInt(12);
+
+        if (buffer.capacity() < (HEADER_LENGTH + ((long) this.count * ENTRY_LENGTH))) {
+            throw new IOException("Tile pack index is truncated");
+        }
+    }
+
+    public static TilePack open(Path path) throws IOException {
+        Objects.requireNonNull(path);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Tile pack is larger than 2 GiB");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+
+            return new TilePack(buffer);
+        }
+    }
+
+    public static long key(int zoom, int x, int y) {
+        return ((long) zoom << 56) | ((long) x << 28) | y;
+    }
+
+    public int getTileSize() {
+        return this.tileSize;
+    }
+
+    public int getTileCount() {
+        return this.count;
+    }
+
+    private long getKey(int index) {
+        return this.buffer.getLong(HEADER_LENGTH + (index * ENTRY_LENGTH));
+    }
+
+    /**
+     * Returns a read-only slice holding the encoded tile, or {@code null} when the pack does not cover it.
+     */
+    public ByteBuffer getTile(int zoom, int x, int y) {
+        long key = key(zoom, x, y);
+
+        int low = 0;
+        int high = this.count - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+
+            long middleKey = this.getKey(middle);
+
+            if (middleKey < key) {
+                low = middle + 1;
+            } else if (middleKey > key) {
+                high = middle - 1;
+            } else {
+                int entry = HEADER_LENGTH + (middle * ENTRY_LENGTH);
+
+                int offset = (int) this.buffer.getLong(entry + 8);
+                int length = this.buffer.getInt(entry + 16);
+
+                return this.buffer.slice(offset, length)
+                                  .asReadOnlyBuffer();
+            }
+        }
+
+        return null;
+    }
+}
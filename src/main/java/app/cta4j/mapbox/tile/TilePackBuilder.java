@@ -0,0 +1,256 @@
+package app.cta4j.mapbox.tile;
+
+import app.cta4j.common.station.Station;
+import app.cta4j.common.station.StationIndex;
+import org.apache.hc.client5.http.HttpResponseException;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Downloads the Mapbox raster tiles around every bundled station and writes them into a {@link TilePack}.
+ * <p>
+ * Usage: {@code MAPBOX_ACCESS_TOKEN=... java -cp <jar> app.cta4j.mapbox.tile.TilePackBuilder <output> [zoom] [radius]}
+ * <p>
+ * Tiles are downloaded from {@code APP_ENDPOINTS_MAPBOX} when it is set. A tile that times out or gets a 429 or 5xx
+ * response is retried a few times, and the build fails on any other non-200 response, so an error body is never
+ * written into the pack.
+ */
+public final class TilePackBuilder {
+    private static final String TILE_URL_TEMPLATE = """
+    %s/styles/v1/mapbox/streets-v12/tiles/512/%d/%d/%d@2x?access_token=%s""";
+
+    private static final String DEFAULT_BASE_URL = "https://api.mapbox.com";
+
+    private static final int TILE_SIZE = 1024;
+
+    private static final int DEFAULT_ZOOM = 15;
+    private static final int DEFAULT_RADIUS = 3;
+
+    private static final String STATIONS_RESOURCE = "/cta/stations.csv";
+
+    private static final Timeout CONNECT_TIMEOUT = Timeout.ofSeconds(10);
+    private static final Timeout READ_TIMEOUT = Timeout.ofSeconds(30);
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(2);
+
+    private TilePackBuilder() {
+    }
+
+    private static StationIndex loadStations() throws IOException {
+        try (InputStream inputStream = TilePackBuilder.class.getResourceAsStream(STATIONS_RESOURCE)) {
+            if (inputStream == null) {
+                throw new IOException("Missing resource " + STATIONS_RESOURCE);
+            }
+
+            return StationIndex.load(inputStream);
+        }
+    }
+
+    private static Set<Long> getTileKeys(StationIndex stationIndex, int zoom, int radius) {
+        double worldSize = WebMercator.getWorldSize(zoom, TILE_SIZE);
+
+        Set<Long> keys = new LinkedHashSet<>();
+
+        for (int i = 0; i < stationIndex.size(); i++) {
+            Station station = stationIndex.getStation(i);
+
+            int tileX = (int) (WebMercator.toPixelX(station.longitude(), worldSize) / TILE_SIZE);
+            int tileY = (int) (WebMercator.toPixelY(station.latitude(), worldSize) / TILE_SIZE);
+
+            for (int dy = -radius; dy <= radius; dy++) {
+                for (int dx = -radius; dx <= radius; dx++) {
+                    keys.add(TilePack.key(zoom, tileX + dx, tileY + dy));
+                }
+            }
+        }
+
+        return keys;
+    }
+
+    private static String getBaseUrl() {
+        String baseUrl = System.getenv("APP_ENDPOINTS_MAPBOX");
+
+        if ((baseUrl == null) || baseUrl.isBlank()) {
+            return DEFAULT_BASE_URL;
+        }
+
+        return baseUrl.replaceAll("/+$", "");
+    }
+
+    /**
+     * Automatic retries are disabled, since {@link #downloadTile} retries on its own and only on failures that may pass.
+     */
+    private static CloseableHttpClient createHttpClient() {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                                                            .setConnectTimeout(CONNECT_TIMEOUT)
+                                                            .setSocketTimeout(READ_TIMEOUT)
+                                                            .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                                                   .setResponseTimeout(READ_TIMEOUT)
+                                                   .build();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setDefaultConnectionConfig(connectionConfig)
+            .build();
+
+        return HttpClients.custom()
+                          .setConnectionManager(connectionManager)
+                          .setDefaultRequestConfig(requestConfig)
+                          .disableAutomaticRetries()
+                          .build();
+    }
+
+    private static String getTileName(int zoom, int x, int y) {
+        return String.format("%d/%d/%d", zoom, x, y);
+    }
+
+    private static byte[] readTile(ClassicHttpResponse response, int zoom, int x, int y) throws IOException {
+        HttpEntity entity = response.getEntity();
+
+        int statusCode = response.getCode();
+
+        if (statusCode != HttpStatus.SC_OK) {
+            EntityUtils.consume(entity);
+
+            String message = String.format("Failed to download tile %s", getTileName(zoom, x, y));
+
+            throw new HttpResponseException(statusCode, message);
+        }
+
+        if (entity == null) {
+            throw new IOException(String.format("Tile %s returned no body", getTileName(zoom, x, y)));
+        }
+
+        return EntityUtils.toByteArray(entity);
+    }
+
+    private static boolean isRetryable(int statusCode) {
+        return (statusCode == HttpStatus.SC_TOO_MANY_REQUESTS) || (statusCode >= HttpStatus.SC_SERVER_ERROR);
+    }
+
+    private static void sleep(Duration delay) throws InterruptedIOException {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+
+            throw new InterruptedIOException("Interrupted while waiting to retry a tile download");
+        }
+    }
+
+    private static byte[] downloadTile(CloseableHttpClient httpClient, String baseUrl, int zoom, int x, int y,
+                                       String accessToken) throws IOException {
+        String uriString = String.format(TILE_URL_TEMPLATE, baseUrl, zoom, x, y, accessToken);
+
+        HttpGet httpGet = new HttpGet(URI.create(uriString));
+
+        IOException failure = null;
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            if (attempt > 1) {
+                sleep(RETRY_DELAY.multipliedBy(attempt - 1));
+            }
+
+            try {
+                return httpClient.execute(httpGet, response -> readTile(response, zoom, x, y));
+            } catch (HttpResponseException e) {
+                if (!isRetryable(e.getStatusCode())) {
+                    throw e;
+                }
+
+                failure = e;
+            } catch (InterruptedIOException e) {
+                if (Thread.currentThread()
+                          .isInterrupted()) {
+                    throw e;
+                }
+
+                failure = e;
+            } catch (IOException e) {
+                failure = e;
+            }
+
+            System.err.printf(
+                "Attempt %d/%d to download tile %s failed: %s%n",
+                attempt,
+                MAX_ATTEMPTS,
+                getTileName(zoom, x, y),
+                failure.getMessage()
+            );
+        }
+
+        String message = String.format(
+            "Failed to download tile %s after %d attempts",
+            getTileName(zoom, x, y),
+            MAX_ATTEMPTS
+        );
+
+        throw new IOException(message, failure);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TilePackBuilder <output> [zoom] [radius]");
+
+            System.exit(1);
+        }
+
+        String accessToken = System.getenv("MAPBOX_ACCESS_TOKEN");
+
+        if ((accessToken == null) || accessToken.isBlank()) {
+            System.err.println("MAPBOX_ACCESS_TOKEN is not set");
+
+            System.exit(1);
+        }
+
+        Path output = Path.of(args[0]);
+
+        int zoom = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_ZOOM;
+        int radius = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_RADIUS;
+
+        String baseUrl = getBaseUrl();
+
+        Set<Long> keys = getTileKeys(loadStations(), zoom, radius);
+
+        Map<Long, byte[]> tiles = new LinkedHashMap<>();
+
+        try (CloseableHttpClient httpClient = createHttpClient()) {
+            for (long key : keys) {
+                int x = (int) ((key >>> 28) & 0xFFFFFFFL);
+                int y = (int) (key & 0xFFFFFFFL);
+
+                tiles.put(key, downloadTile(httpClient, baseUrl, zoom, x, y, accessToken));
+
+                System.out.printf("Downloaded %d/%d tiles%n", tiles.size(), keys.size());
+            }
+        }
+
+        TilePackWriter.write(output, TILE_SIZE, tiles);
+
+        System.out.printf("Wrote %d tiles to %s%n", tiles.size(), output);
+    }
+}
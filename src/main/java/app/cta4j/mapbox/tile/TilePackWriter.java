@@ -0,0 +1,69 @@
+package app.cta4j.mapbox.tile;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+public final class TilePackWriter {
+    private TilePackWriter() {
+    }
+
+    /**
+     * Writes {@code tiles}, keyed by {@link TilePack#key(int, int, int)}, to {@code path} through a temporary file.
+     */
+    public static void write(Path path, int tileSize, Map<Long, byte[]> tiles) throws IOException {
+        Objects.requireNonNull(path);
+        Objects.requireNonNull(tiles);
+
+        SortedMap<Long, byte[]> sortedTiles = new TreeMap<>(tiles);
+
+        long offset = TilePack.HEADER_LENGTH + ((long) sortedTiles.size() * TilePack.ENTRY_LENGTH);
+
+        Path directory = path.toAbsolutePath()
+                             .getParent();
+
+        Files.createDirectories(directory);
+
+        Path tempPath = Files.createTempFile(directory, "tiles", ".tmp");
+
+        try (OutputStream outputStream = Files.newOutputStream(tempPath);
+             DataOutputStream dataOutputStream = new DataOutputStream(new BufferedOutputStream(outputStream))) {
+            dataOutputStream.writeInt(TilePack.MAGIC);
+            dataOutputStream.writeInt(TilePack.VERSION);
+            dataOutputStream.writeInt(tileSize);
+            dataOutputStream.writeInt(sortedTiles.size());
+
+            for (Map.Entry<Long, byte[]> entry : sortedTiles.entrySet()) {
+                int length = entry.getValue().length;
+
+                dataOutputStream.writeLong(entry.getKey());
+                dataOutputStream.writeLong(offset);
+                dataOutputStream.writeInt(length);
+
+                offset += length;
+            }
+
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Tile pack would be larger than 2 GiB");
+            }
+
+            for (byte[] tile : sortedTiles.values()) {
+                dataOutputStream.write(tile);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tempPath);
+
+            throw e;
+        }
+
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,26 @@
+package app.cta4j.mapbox.tile;
+
+public final class WebMercator {
+    private static final double MAX_LATITUDE = 85.05112878;
+
+    private WebMercator() {
+    }
+
+    public static double getWorldSize(int zoom, int tileSize) {
+        return Math.scalb((double) tileSize, zoom);
+    }
+
+    public static double toPixelX(double longitude, double worldSize) {
+        return ((longitude + 180.0) / 360.0) * worldSize;
+    }
+
+    public static double toPixelY(double latitude, double worldSize) {
+        double clampedLatitude = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+
+        double sinLatitude = Math.sin(Math.toRadians(clampedLatitude));
+
+        double y = 0.5 - (Math.log((1.0 + sinLatitude) / (1.0 - sinLatitude)) / (4.0 * Math.PI));
+
+        return y * worldSize;
+    }
+}
@@ -1,16 +1,24 @@
 package app.cta4j.mastodon.publisher;
 
+import app.cta4j.common.cache.MediaIdCache;
+import app.cta4j.common.dto.Media;
 import app.cta4j.common.dto.Post;
+import app.cta4j.common.media.MediaProfile;
 import app.cta4j.common.publisher.SocialPublisher;
+import app.cta4j.mastodon.dto.MastodonMedia;
 import app.cta4j.mastodon.dto.MastodonStatus;
 import app.cta4j.mastodon.service.MastodonMediaService;
 import app.cta4j.mastodon.service.MastodonStatusService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public final class MastodonPublisher implements SocialPublisher {
@@ -20,14 +28,26 @@ public final class MastodonPublisher implements SocialPublisher {
 
     private final MastodonMediaService mediaService;
     private final MastodonStatusService statusService;
+    private final MediaIdCache mediaIdCache;
+
+    private final Duration mediaReuseWindow;
+    private final MediaProfile mediaProfile;
 
     @Autowired
     public MastodonPublisher(
         MastodonMediaService mediaService,
-        MastodonStatusService statusService
+        MastodonStatusService statusService,
+        MediaIdCache mediaIdCache,
+        @Value("${app.media-cache.mastodon.reuse-window}") Duration mediaReuseWindow,
+        @Value("${app.media.mastodon.format}") MediaProfile.Format mediaFormat,
+        @Value("${app.media.mastodon.quality}") float mediaQuality,
+        @Value("${app.media.mastodon.max-bytes}") long mediaMaxBytes
     ) {
         this.mediaService = mediaService;
         this.statusService = statusService;
+        this.mediaIdCache = mediaIdCache;
+        this.mediaReuseWindow = mediaReuseWindow;
+        this.mediaProfile = new MediaProfile(mediaFormat, mediaQuality, mediaMaxBytes);
     }
 
     @Override
@@ -35,6 +55,50 @@ public final class MastodonPublisher implements SocialPublisher {
         return PLATFORM_NAME;
     }
 
+    @Override
+    public MediaProfile getMediaProfile() {
+        return this.mediaProfile;
+    }
+
+    private Optional<String> getCachedMediaId(Media media) {
+        Optional<String> cachedMediaId = this.mediaIdCache.get(PLATFORM_NAME, media, String.class);
+
+        cachedMediaId.ifPresent(mediaId -> log.info("Reusing uploaded media with ID {} on Mastodon", mediaId));
+
+        return cachedMediaId;
+    }
+
+    private String uploadMedia(Media media) {
+        Optional<String> cachedMediaId = this.getCachedMediaId(media);
+
+        if (cachedMediaId.isPresent()) {
+            return cachedMediaId.get();
+        }
+
+        String mediaId = this.mediaService.uploadMedia(media)
+                                          .id();
+
+        this.mediaIdCache.put(PLATFORM_NAME, media, mediaId, this.mediaReuseWindow);
+
+        return mediaId;
+    }
+
+    private CompletableFuture<String> uploadMediaAsync(Media media) {
+        Optional<String> cachedMediaId = this.getCachedMediaId(media);
+
+        if (cachedMediaId.isPresent()) {
+            return CompletableFuture.completedFuture(cachedMediaId.get());
+        }
+
+        return this.mediaService.uploadMediaAsync(media)
+                                .thenApply(MastodonMedia::id)
+                                .thenApply(mediaId -> {
+                                    this.mediaIdCache.put(PLATFORM_NAME, media, mediaId, this.mediaReuseWindow);
+
+                                    return mediaId;
+                                });
+    }
+
     @Override
     public void publish(Post post) {
         Objects.requireNonNull(post);
@@ -47,11 +111,44 @@ public final class MastodonPublisher implements SocialPublisher {
             return;
         }
 
-        String mediaId = this.mediaService.uploadMedia(post.media())
-                                          .id();
+        Media media = post.media();
 
-        MastodonStatus status = this.statusService.postStatus(post.text(), mediaId);
+        String mediaId = this.uploadMedia(media);
+
+        MastodonStatus status;
+
+        try {
+            status = this.statusService.postStatus(post.text(), mediaId);
+        } catch (RuntimeException e) {
+            this.mediaIdCache.invalidate(PLATFORM_NAME, media);
+
+            throw e;
+        }
 
         log.info("Status created on Mastodon with ID {}", status.id());
     }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(Post post) {
+        Objects.requireNonNull(post);
+
+        if (post.media() == null) {
+            return this.statusService.postStatusAsync(post.text(), null)
+                                     .thenAccept(status -> log.info(
+                                         "Status created without image on Mastodon with ID {}",
+                                         status.id()
+                                     ));
+        }
+
+        Media media = post.media();
+
+        return this.uploadMediaAsync(media)
+                   .thenCompose(mediaId -> this.statusService.postStatusAsync(post.text(), mediaId))
+                   .whenComplete((status, throwable) -> {
+                       if (throwable != null) {
+                           this.mediaIdCache.invalidate(PLATFORM_NAME, media);
+                       }
+                   })
+                   .thenAccept(status -> log.info("Status created on Mastodon with ID {}", status.id()));
+    }
 }
@@ -1,55 +1,72 @@
 package app.cta4j.mastodon.service;
 
+import app.cta4j.common.dto.Media;
 import app.cta4j.common.dto.Response;
+import app.cta4j.common.http.AsyncRequestExecutor;
+import app.cta4j.common.http.JsonResponseHandler;
+import app.cta4j.common.http.MediaEntityProducer;
+import app.cta4j.common.http.PlatformEndpoints;
 import app.cta4j.common.service.SecretService;
 import app.cta4j.mastodon.dto.MastodonMedia;
 import app.cta4j.mastodon.exception.MastodonException;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.entity.mime.MultipartEntityBuilder;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.core5.http.*;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
 import org.apache.hc.core5.net.URIBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Service
 public final class MastodonMediaService {
-    private static final String SCHEME = "https";
-    private static final String HOST_NAME = "mastodon.social";
     private static final String MEDIA_ENDPOINT = "/api/v2/media";
+    private static final String FILE_PART = "file";
 
     private final SecretService secretService;
     private final CloseableHttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    private final AsyncRequestExecutor asyncRequestExecutor;
+
+    private final URI baseUri;
+
+    private final JsonResponseHandler<MastodonMedia, MastodonMedia> responseHandler;
 
     @Autowired
     public MastodonMediaService(
         SecretService secretService,
         CloseableHttpClient httpClient,
-        ObjectMapper objectMapper
+        ObjectMapper objectMapper,
+        AsyncRequestExecutor asyncRequestExecutor,
+        PlatformEndpoints platformEndpoints
     ) {
         this.secretService = secretService;
         this.httpClient = httpClient;
-        this.objectMapper = objectMapper;
+        this.asyncRequestExecutor = asyncRequestExecutor;
+        this.baseUri = platformEndpoints.getMastodon();
+        this.responseHandler = new JsonResponseHandler<>(
+            objectMapper.readerFor(MastodonMedia.class),
+            Set.of(HttpStatus.SC_OK, HttpStatus.SC_ACCEPTED),
+            Function.identity(),
+            e -> new MastodonException("Failed to parse media response", e)
+        );
     }
 
     private URI buildUri() {
         URI uri;
 
         try {
-            uri = new URIBuilder().setScheme(SCHEME)
-                                  .setHost(HOST_NAME)
-                                  .setPath(MEDIA_ENDPOINT)
-                                  .build();
+            uri = new URIBuilder(this.baseUri).appendPath(MEDIA_ENDPOINT)
+                                              .build();
         } catch (URISyntaxException e) {
             throw new MastodonException("Failed to build URI for media endpoint", e);
         }
@@ -65,15 +82,13 @@ public final class MastodonMediaService {
         return String.format("Bearer %s", accessToken);
     }
 
-    private HttpEntity buildEntity(File file) {
-        String filename = file.getName();
-
+    private HttpEntity buildEntity(Media media) {
         return MultipartEntityBuilder.create()
-                                     .addBinaryBody("file", file, ContentType.IMAGE_PNG, filename)
+                                     .addPart(FILE_PART, media.toContentBody())
                                      .build();
     }
 
-    private HttpPost buildRequest(File file) {
+    private HttpPost buildRequest() {
         URI uri = this.buildUri();
 
         HttpPost httpPost = new HttpPost(uri);
@@ -84,56 +99,49 @@ public final class MastodonMediaService {
 
         httpPost.addHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON);
 
-        HttpEntity entity = this.buildEntity(file);
-
-        httpPost.setEntity(entity);
-
         return httpPost;
     }
 
-    private Response<MastodonMedia> handleResponse(ClassicHttpResponse httpResponse) throws IOException, ParseException {
-        int statusCode = httpResponse.getCode();
+    private MastodonMedia getMedia(Response<MastodonMedia> response) {
+        MastodonMedia mastodonMedia = response.data();
 
-        if ((statusCode != HttpStatus.SC_OK) && (statusCode != HttpStatus.SC_ACCEPTED)) {
-            return new Response<>(statusCode, null);
-        }
-
-        HttpEntity entity = httpResponse.getEntity();
-
-        String entityString = EntityUtils.toString(entity);
-
-        MastodonMedia media;
+        if (mastodonMedia == null) {
+            String message = String.format("Failed to upload media, status code: %d", response.statusCode());
 
-        try {
-            media = this.objectMapper.readValue(entityString, MastodonMedia.class);
-        } catch (JsonProcessingException e) {
-            throw new MastodonException("Failed to parse media response", e);
+            throw new MastodonException(message);
         }
 
-        return new Response<>(statusCode, media);
+        return mastodonMedia;
     }
 
-    public MastodonMedia uploadMedia(File file) {
-        Objects.requireNonNull(file);
+    public MastodonMedia uploadMedia(Media media) {
+        Objects.requireNonNull(media);
+
+        HttpPost httpPost = this.buildRequest();
 
-        HttpPost httpPost = this.buildRequest(file);
+        HttpEntity entity = this.buildEntity(media);
+
+        httpPost.setEntity(entity);
 
         Response<MastodonMedia> response;
 
         try {
-            response = this.httpClient.execute(httpPost, this::handleResponse);
+            response = this.httpClient.execute(httpPost, this.responseHandler);
         } catch (IOException e) {
             throw new MastodonException("Failed to execute media upload request", e);
         }
 
-        MastodonMedia media = response.data();
+        return this.getMedia(response);
+    }
 
-        if (media == null) {
-            String message = String.format("Failed to upload media, status code: %d", response.statusCode());
+    public CompletableFuture<MastodonMedia> uploadMediaAsync(Media media) {
+        Objects.requireNonNull(media);
 
-            throw new MastodonException(message);
-        }
+        HttpPost httpPost = this.buildRequest();
+
+        AsyncEntityProducer entityProducer = MediaEntityProducer.multipart(FILE_PART, media, Map.of());
 
-        return media;
+        return this.asyncRequestExecutor.execute(httpPost, entityProducer, this.responseHandler)
+                                        .thenApply(this::getMedia);
     }
 }
@@ -1,6 +1,10 @@
 package app.cta4j.mastodon.service;
 
 import app.cta4j.common.dto.Response;
+import app.cta4j.common.http.AsyncRequestExecutor;
+import app.cta4j.common.http.JsonResponseHandler;
+import app.cta4j.common.http.PlatformEndpoints;
+import app.cta4j.common.http.RateLimitRetryStrategy;
 import app.cta4j.common.service.SecretService;
 import app.cta4j.mastodon.dto.CreateStatusRequest;
 import app.cta4j.mastodon.dto.MastodonStatus;
@@ -9,8 +13,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.http.*;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.net.URIBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,36 +26,50 @@ import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Service
 public final class MastodonStatusService {
-    private static final String SCHEME = "https";
-    private static final String HOST_NAME = "mastodon.social";
     private static final String STATUS_ENDPOINT = "/api/v1/statuses";
 
     private final SecretService secretService;
     private final CloseableHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final AsyncRequestExecutor asyncRequestExecutor;
+
+    private final URI baseUri;
+
+    private final JsonResponseHandler<MastodonStatus, MastodonStatus> responseHandler;
 
     @Autowired
     public MastodonStatusService(
         SecretService secretService,
         CloseableHttpClient httpClient,
-        ObjectMapper objectMapper
+        ObjectMapper objectMapper,
+        AsyncRequestExecutor asyncRequestExecutor,
+        PlatformEndpoints platformEndpoints
     ) {
         this.secretService = secretService;
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
+        this.asyncRequestExecutor = asyncRequestExecutor;
+        this.baseUri = platformEndpoints.getMastodon();
+        this.responseHandler = new JsonResponseHandler<>(
+            objectMapper.readerFor(MastodonStatus.class),
+            Set.of(HttpStatus.SC_OK),
+            Function.identity(),
+            e -> new MastodonException("Failed to parse status response", e)
+        );
     }
 
     private URI buildUri() {
         URI uri;
 
         try {
-            uri = new URIBuilder().setScheme(SCHEME)
-                                  .setHost(HOST_NAME)
-                                  .setPath(STATUS_ENDPOINT)
-                                  .build();
+            uri = new URIBuilder(this.baseUri).appendPath(STATUS_ENDPOINT)
+                                              .build();
         } catch (URISyntaxException e) {
             throw new MastodonException("Failed to build URI for status endpoint", e);
         }
@@ -109,26 +127,16 @@ public final class MastodonStatusService {
         return httpPost;
     }
 
-    private Response<MastodonStatus> handleResponse(ClassicHttpResponse httpResponse) throws IOException, ParseException {
-        int statusCode = httpResponse.getCode();
-
-        if (statusCode != HttpStatus.SC_OK) {
-            return new Response<>(statusCode, null);
-        }
-
-        HttpEntity entity = httpResponse.getEntity();
-
-        String entityString = EntityUtils.toString(entity);
+    private MastodonStatus getStatus(Response<MastodonStatus> response) {
+        MastodonStatus status = response.data();
 
-        MastodonStatus status;
+        if (status == null) {
+            String message = String.format("Failed to create status, status code: %d", response.statusCode());
 
-        try {
-            status = this.objectMapper.readValue(entityString, MastodonStatus.class);
-        } catch (JsonProcessingException e) {
-            throw new MastodonException("Failed to parse status response", e);
+            throw new MastodonException(message);
         }
 
-        return new Response<>(statusCode, status);
+        return status;
     }
 
     public MastodonStatus postStatus(String text, String mediaId) {
@@ -136,23 +144,30 @@ public final class MastodonStatusService {
 
         HttpPost httpPost = this.buildRequest(text, mediaId);
 
+
+        HttpClientContext context = RateLimitRetryStrategy.createNonIdempotentContext();
+
         Response<MastodonStatus> response;
 
         try {
-            response = this.httpClient.execute(httpPost, this::handleResponse);
+            response = this.httpClient.execute(httpPost, context, this.responseHandler);
         } catch (IOException e) {
             throw new MastodonException("Failed to execute create status request", e);
         }
 
-        MastodonStatus status = response.data();
+        return this.getStatus(response);
+    }
 
-        if (status == null) {
-            String message = String.format("Failed to create status, status code: %d", response.statusCode());
+    public CompletableFuture<MastodonStatus> postStatusAsync(String text, String mediaId) {
+        Objects.requireNonNull(text);
 
-            throw new MastodonException(message);
-        }
+        HttpPost httpPost = this.buildRequest(text, mediaId);
 
-        return status;
+
+        HttpClientContext context = RateLimitRetryStrategy.createNonIdempotentContext();
+
+        return this.asyncRequestExecutor.execute(httpPost, context, this.responseHandler)
+                                        .thenApply(this::getStatus);
     }
 
     public MastodonStatus postStatus(String text) {
@@ -1,16 +1,24 @@
 package app.cta4j.twitter.publisher;
 
+import app.cta4j.common.cache.MediaIdCache;
+import app.cta4j.common.dto.Media;
 import app.cta4j.common.dto.Post;
+import app.cta4j.common.media.MediaProfile;
 import app.cta4j.common.publisher.SocialPublisher;
 import app.cta4j.twitter.dto.Tweet;
+import app.cta4j.twitter.dto.TwitterMedia;
 import app.cta4j.twitter.service.TwitterMediaService;
 import app.cta4j.twitter.service.TweetService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public final class TwitterPublisher implements SocialPublisher {
@@ -20,11 +28,26 @@ public final class TwitterPublisher implements SocialPublisher {
 
     private final TwitterMediaService mediaService;
     private final TweetService tweetService;
+    private final MediaIdCache mediaIdCache;
+
+    private final Duration mediaReuseWindow;
+    private final MediaProfile mediaProfile;
 
     @Autowired
-    public TwitterPublisher(TwitterMediaService mediaService, TweetService tweetService) {
+    public TwitterPublisher(
+        TwitterMediaService mediaService,
+        TweetService tweetService,
+        MediaIdCache mediaIdCache,
+        @Value("${app.media-cache.twitter.reuse-window}") Duration mediaReuseWindow,
+        @Value("${app.media.twitter.format}") MediaProfile.Format mediaFormat,
+        @Value("${app.media.twitter.quality}") float mediaQuality,
+        @Value("${app.media.twitter.max-bytes}") long mediaMaxBytes
+    ) {
         this.mediaService = mediaService;
         this.tweetService = tweetService;
+        this.mediaIdCache = mediaIdCache;
+        this.mediaReuseWindow = mediaReuseWindow;
+        this.mediaProfile = new MediaProfile(mediaFormat, mediaQuality, mediaMaxBytes);
     }
 
     @Override
@@ -32,6 +55,50 @@ public final class TwitterPublisher implements SocialPublisher {
         return PLATFORM_NAME;
     }
 
+    @Override
+    public MediaProfile getMediaProfile() {
+        return this.mediaProfile;
+    }
+
+    private Optional<String> getCachedMediaId(Media media) {
+        Optional<String> cachedMediaId = this.mediaIdCache.get(PLATFORM_NAME, media, String.class);
+
+        cachedMediaId.ifPresent(mediaId -> log.info("Reusing uploaded media with ID {} on Twitter", mediaId));
+
+        return cachedMediaId;
+    }
+
+    private String uploadMedia(Media media) {
+        Optional<String> cachedMediaId = this.getCachedMediaId(media);
+
+        if (cachedMediaId.isPresent()) {
+            return cachedMediaId.get();
+        }
+
+        String mediaId = this.mediaService.uploadMedia(media)
+                                          .id();
+
+        this.mediaIdCache.put(PLATFORM_NAME, media, mediaId, this.mediaReuseWindow);
+
+        return mediaId;
+    }
+
+    private CompletableFuture<String> uploadMediaAsync(Media media) {
+        Optional<String> cachedMediaId = this.getCachedMediaId(media);
+
+        if (cachedMediaId.isPresent()) {
+            return CompletableFuture.completedFuture(cachedMediaId.get());
+        }
+
+        return this.mediaService.uploadMediaAsync(media)
+                                .thenApply(TwitterMedia::id)
+                                .thenApply(mediaId -> {
+                                    this.mediaIdCache.put(PLATFORM_NAME, media, mediaId, this.mediaReuseWindow);
+
+                                    return mediaId;
+                                });
+    }
+
     @Override
     public void publish(Post post) {
         Objects.requireNonNull(post);
@@ -44,11 +111,44 @@ public final class TwitterPublisher implements SocialPublisher {
             return;
         }
 
-        String mediaId = this.mediaService.uploadMedia(post.media())
-                                          .id();
+        Media media = post.media();
 
-        Tweet tweet = this.tweetService.postTweet(post.text(), mediaId);
+        String mediaId = this.uploadMedia(media);
+
+        Tweet tweet;
+
+        try {
+            tweet = this.tweetService.postTweet(post.text(), mediaId);
+        } catch (RuntimeException e) {
+            this.mediaIdCache.invalidate(PLATFORM_NAME, media);
+
+            throw e;
+        }
 
         log.info("Tweet created on Twitter with ID {}", tweet.id());
     }
+
+    @Override
+    public CompletableFuture<Void> publishAsync(Post post) {
+        Objects.requireNonNull(post);
+
+        if (post.media() == null) {
+            return this.tweetService.postTweetAsync(post.text(), null)
+                                    .thenAccept(tweet -> log.info(
+                                        "Tweet created without image on Twitter with ID {}",
+                                        tweet.id()
+                                    ));
+        }
+
+        Media media = post.media();
+
+        return this.uploadMediaAsync(media)
+                   .thenCompose(mediaId -> this.tweetService.postTweetAsync(post.text(), mediaId))
+                   .whenComplete((tweet, throwable) -> {
+                       if (throwable != null) {
+                           this.mediaIdCache.invalidate(PLATFORM_NAME, media);
+                       }
+                   })
+                   .thenAccept(tweet -> log.info("Tweet created on Twitter with ID {}", tweet.id()));
+    }
 }
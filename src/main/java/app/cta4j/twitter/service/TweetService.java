@@ -1,6 +1,10 @@
 package app.cta4j.twitter.service;
 
 import app.cta4j.common.dto.Response;
+import app.cta4j.common.http.AsyncRequestExecutor;
+import app.cta4j.common.http.JsonResponseHandler;
+import app.cta4j.common.http.PlatformEndpoints;
+import app.cta4j.common.http.RateLimitRetryStrategy;
 import app.cta4j.twitter.dto.CreateTweetMedia;
 import app.cta4j.twitter.dto.CreateTweetRequest;
 import app.cta4j.twitter.dto.CreateTweetResponse;
@@ -11,8 +15,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.http.*;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.net.URIBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,36 +28,52 @@ import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public final class TweetService {
-    private static final String SCHEME = "https";
-    private static final String HOST_NAME = "api.x.com";
     private static final String TWEET_ENDPOINT = "/2/tweets";
 
     private final SecretService secretService;
+    private final TwitterTokenManager tokenManager;
     private final CloseableHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final AsyncRequestExecutor asyncRequestExecutor;
+
+    private final URI baseUri;
+
+    private final JsonResponseHandler<CreateTweetResponse, Tweet> responseHandler;
 
     @Autowired
     public TweetService(
         SecretService secretService,
+        TwitterTokenManager tokenManager,
         CloseableHttpClient httpClient,
-        ObjectMapper objectMapper
+        ObjectMapper objectMapper,
+        AsyncRequestExecutor asyncRequestExecutor,
+        PlatformEndpoints platformEndpoints
     ) {
         this.secretService = secretService;
+        this.tokenManager = tokenManager;
         this.httpClient = httpClient;
         this.objectMapper = objectMapper;
+        this.asyncRequestExecutor = asyncRequestExecutor;
+        this.baseUri = platformEndpoints.getTwitter();
+        this.responseHandler = new JsonResponseHandler<>(
+            objectMapper.readerFor(CreateTweetResponse.class),
+            Set.of(HttpStatus.SC_CREATED),
+            CreateTweetResponse::data,
+            e -> new TwitterException("Failed to parse create tweet response", e)
+        );
     }
 
     private URI buildUri() {
         URI uri;
 
         try {
-            uri = new URIBuilder()
-                .setScheme(SCHEME)
-                .setHost(HOST_NAME)
-                .setPath(TWEET_ENDPOINT)
+            uri = new URIBuilder(this.baseUri)
+                .appendPath(TWEET_ENDPOINT)
                 .build();
         } catch (URISyntaxException e) {
             throw new TwitterException("Failed to build URI for create tweet endpoint", e);
@@ -62,12 +82,10 @@ public final class TweetService {
         return uri;
     }
 
-    private String buildAuthorizationHeader() {
-        String accessToken = this.secretService.getSecret()
-                                               .twitter()
-                                               .accessToken();
-
-        return String.format("Bearer %s", accessToken);
+    private String getAccessToken() {
+        return this.secretService.getSecret()
+                                 .twitter()
+                                 .accessToken();
     }
 
     private HttpEntity buildEntity(String text, String mediaId) {
@@ -97,12 +115,12 @@ public final class TweetService {
         return new StringEntity(requestJson, contentType);
     }
 
-    private HttpPost buildRequest(String text, String mediaId) {
+    private HttpPost buildRequest(String text, String mediaId, String accessToken) {
         URI uri = this.buildUri();
 
         HttpPost httpPost = new HttpPost(uri);
 
-        String authorizationHeader = this.buildAuthorizationHeader();
+        String authorizationHeader = String.format("Bearer %s", accessToken);
 
         httpPost.addHeader(HttpHeaders.AUTHORIZATION, authorizationHeader);
 
@@ -115,52 +133,56 @@ public final class TweetService {
         return httpPost;
     }
 
-    private Response<Tweet> handleResponse(ClassicHttpResponse httpResponse) throws IOException, ParseException {
-        int statusCode = httpResponse.getCode();
-
-        HttpEntity entity = httpResponse.getEntity();
-
-        String entityString = EntityUtils.toString(entity);
-
-        if (statusCode != HttpStatus.SC_CREATED) {
-            return new Response<>(statusCode, null);
-        }
+    private Tweet getTweet(Response<Tweet> response) {
+        Tweet tweet = response.data();
 
-        CreateTweetResponse response;
+        if (tweet == null) {
+            String message = String.format("Failed to create tweet, status code: %d", response.statusCode());
 
-        try {
-            response = this.objectMapper.readValue(entityString, CreateTweetResponse.class);
-        } catch (JsonProcessingException e) {
-            throw new TwitterException("Failed to parse create tweet response", e);
+            throw new TwitterException(message);
         }
 
-        Tweet tweet = response.data();
-
-        return new Response<>(statusCode, tweet);
+        return tweet;
     }
-    
+
     public Tweet postTweet(String text, String mediaId) {
         Objects.requireNonNull(text);
 
-        HttpPost httpPost = this.buildRequest(text, mediaId);
+        HttpPost httpPost = this.buildRequest(text, mediaId, this.getAccessToken());
+
+
+        HttpClientContext context = RateLimitRetryStrategy.createNonIdempotentContext();
 
         Response<Tweet> response;
 
         try {
-            response = this.httpClient.execute(httpPost, this::handleResponse);
+            response = this.httpClient.execute(httpPost, context, this.responseHandler);
         } catch (IOException e) {
             throw new TwitterException("Failed to execute create tweet request", e);
         }
 
-        Tweet tweet = response.data();
+        return this.getTweet(response);
+    }
 
-        if (tweet == null) {
-            String message = String.format("Failed to create tweet, status code: %d", response.statusCode());
+    /**
+     * Gets the access token before the request is submitted, since a token refresh must never block the async
+     * client's I/O threads.
+     */
+    public CompletableFuture<Tweet> postTweetAsync(String text, String mediaId) {
+        Objects.requireNonNull(text);
 
-            throw new TwitterException(message);
-        }
+        CompletableFuture<String> accessTokenFuture = AsyncRequestExecutor.inCurrentScope(
+            this.tokenManager.getAccessTokenAsync()
+        );
 
-        return tweet;
+        return accessTokenFuture.thenCompose(accessToken -> {
+                                    HttpPost httpPost = this.buildRequest(text, mediaId, accessToken);
+
+                                    HttpClientContext context = RateLimitRetryStrategy.createNonIdempotentContext();
+
+                                    return this.asyncRequestExecutor.execute(httpPost, context, this.responseHandler);
+                                })
+                                .thenApply(this::getTweet);
     }
 
     public Tweet postTweet(String text) {
@@ -1,56 +1,76 @@
 package app.cta4j.twitter.service;
 
+import app.cta4j.common.dto.Media;
 import app.cta4j.common.dto.Response;
+import app.cta4j.common.http.AsyncRequestExecutor;
+import app.cta4j.common.http.JsonResponseHandler;
+import app.cta4j.common.http.MediaEntityProducer;
+import app.cta4j.common.http.PlatformEndpoints;
 import app.cta4j.common.service.SecretService;
 import app.cta4j.twitter.dto.TwitterMedia;
 import app.cta4j.twitter.dto.UploadMediaResponse;
 import app.cta4j.twitter.exception.TwitterException;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.entity.mime.MultipartEntityBuilder;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.core5.http.*;
-import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
 import org.apache.hc.core5.net.URIBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public final class TwitterMediaService {
-    private static final String SCHEME = "https";
-    private static final String HOST_NAME = "api.x.com";
     private static final String MEDIA_ENDPOINT = "/2/media/upload";
+    private static final String MEDIA_CATEGORY = "tweet_image";
 
     private final SecretService secretService;
+    private final TwitterTokenManager tokenManager;
     private final CloseableHttpClient httpClient;
-    private final ObjectMapper objectMapper;
+    private final AsyncRequestExecutor asyncRequestExecutor;
+
+    private final URI baseUri;
+
+    private final JsonResponseHandler<UploadMediaResponse, TwitterMedia> responseHandler;
 
     @Autowired
     public TwitterMediaService(
         SecretService secretService,
+        TwitterTokenManager tokenManager,
         CloseableHttpClient httpClient,
-        ObjectMapper objectMapper
+        ObjectMapper objectMapper,
+        AsyncRequestExecutor asyncRequestExecutor,
+        PlatformEndpoints platformEndpoints
     ) {
         this.secretService = secretService;
+        this.tokenManager = tokenManager;
         this.httpClient = httpClient;
-        this.objectMapper = objectMapper;
+        this.asyncRequestExecutor = asyncRequestExecutor;
+        this.baseUri = platformEndpoints.getTwitter();
+        this.responseHandler = new JsonResponseHandler<>(
+            objectMapper.readerFor(UploadMediaResponse.class),
+            Set.of(HttpStatus.SC_OK),
+            UploadMediaResponse::data,
+            e -> new TwitterException("Failed to parse media upload response", e)
+        );
     }
 
     private URI buildUri() {
         URI uri;
 
         try {
-            uri = new URIBuilder()
-                .setScheme(SCHEME)
-                .setHost(HOST_NAME)
-                .setPath(MEDIA_ENDPOINT)
+            uri = new URIBuilder(this.baseUri)
+                .appendPath(MEDIA_ENDPOINT)
                 .build();
         } catch (URISyntaxException e) {
             throw new TwitterException("Failed to build URI for media endpoint", e);
@@ -59,87 +79,103 @@ public final class TwitterMediaService {
         return uri;
     }
 
-    private String buildAuthorizationHeader() {
-        String accessToken = this.secretService.getSecret()
-                                               .twitter()
-                                               .accessToken();
-
-        return String.format("Bearer %s", accessToken);
+    private String getAccessToken() {
+        return this.secretService.getSecret()
+                                 .twitter()
+                                 .accessToken();
     }
 
-    private HttpEntity buildEntity(File file) {
-        String filename = file.getName();
+    private HttpEntity buildEntity(Media media) {
+        String mediaType = media.contentType()
+                                .getMimeType();
 
         return MultipartEntityBuilder.create()
-                                     .addBinaryBody("media", file, ContentType.IMAGE_PNG, filename)
-                                     .addTextBody("media_category", "tweet_image", ContentType.TEXT_PLAIN)
-                                     .addTextBody("media_type", "image/png", ContentType.TEXT_PLAIN)
+                                     .addPart("media", media.toContentBody())
+                                     .addTextBody("media_category", MEDIA_CATEGORY, ContentType.TEXT_PLAIN)
+                                     .addTextBody("media_type", mediaType, ContentType.TEXT_PLAIN)
                                      .build();
     }
 
-    private HttpPost buildRequest(File file) {
+    private AsyncEntityProducer buildEntityProducer(Media media) {
+        String mediaType = media.contentType()
+                                .getMimeType();
+
+        Map<String, String> fields = new LinkedHashMap<>();
+
+        fields.put("media_category", MEDIA_CATEGORY);
+        fields.put("media_type", mediaType);
+
+        return MediaEntityProducer.multipart("media", media, fields);
+    }
+
+    private HttpPost buildRequest(String accessToken) {
         URI uri = this.buildUri();
 
         HttpPost httpPost = new HttpPost(uri);
 
-        String authorizationHeader = this.buildAuthorizationHeader();
+        String authorizationHeader = String.format("Bearer %s", accessToken);
 
         httpPost.addHeader(HttpHeaders.AUTHORIZATION, authorizationHeader);
 
         httpPost.addHeader(HttpHeaders.ACCEPT, ContentType.APPLICATION_JSON);
 
-        HttpEntity entity = this.buildEntity(file);
-
-        httpPost.setEntity(entity);
-
         return httpPost;
     }
 
-    private Response<TwitterMedia> handleResponse(ClassicHttpResponse httpResponse) throws IOException, ParseException {
-        int statusCode = httpResponse.getCode();
-
-        if (statusCode != HttpStatus.SC_OK) {
-            return new Response<>(statusCode, null);
-        }
-
-        HttpEntity entity = httpResponse.getEntity();
+    private TwitterMedia getMedia(Response<TwitterMedia> response) {
+        TwitterMedia twitterMedia = response.data();
 
-        String entityString = EntityUtils.toString(entity);
-
-        UploadMediaResponse response;
+        if (twitterMedia == null) {
+            String message = String.format("Failed to upload media, status code: %d", response.statusCode());
 
-        try {
-            response = this.objectMapper.readValue(entityString, UploadMediaResponse.class);
-        } catch (JsonProcessingException e) {
-            throw new TwitterException("Failed to parse media upload response", e);
+            throw new TwitterException(message);
         }
 
-        TwitterMedia media = response.data();
-
-        return new Response<>(statusCode, media);
+        return twitterMedia;
     }
 
-    public TwitterMedia uploadMedia(File file) {
-        Objects.requireNonNull(file);
+    public TwitterMedia uploadMedia(Media media) {
+        Objects.requireNonNull(media);
+
+        HttpPost httpPost = this.buildRequest(this.getAccessToken());
+
+        HttpEntity entity = this.buildEntity(media);
 
-        HttpPost httpPost = this.buildRequest(file);
+        httpPost.setEntity(entity);
 
         Response<TwitterMedia> response;
 
         try {
-            response = this.httpClient.execute(httpPost, this::handleResponse);
+            response = this.httpClient.execute(httpPost, this.responseHandler);
         } catch (IOException e) {
             throw new TwitterException("Failed to execute media upload request", e);
         }
 
-        TwitterMedia media = response.data();
-
-        if (media == null) {
-            String message = String.format("Failed to upload media, status code: %d", response.statusCode());
-
-            throw new TwitterException(message);
-        }
+        return this.getMedia(response);
+    }
 
-        return media;
+    /**
+     * Gets the access token before the request is submitted, since a token refresh must never block the async
+     * client's I/O threads.
+     */
+    public CompletableFuture<TwitterMedia> uploadMediaAsync(Media media) {
+        Objects.requireNonNull(media);
+
+        CompletableFuture<String> accessTokenFuture = AsyncRequestExecutor.inCurrentScope(
+            this.tokenManager.getAccessTokenAsync()
+        );
+
+        return accessTokenFuture.thenCompose(accessToken -> {
+                                    HttpPost httpPost = this.buildRequest(accessToken);
+
+                                    AsyncEntityProducer entityProducer = this.buildEntityProducer(media);
+
+                                    return this.asyncRequestExecutor.execute(
+                                        httpPost,
+                                        entityProducer,
+                                        this.responseHandler
+                                    );
+                                })
+                                .thenApply(this::getMedia);
     }
 }
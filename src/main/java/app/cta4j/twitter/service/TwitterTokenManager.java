@@ -0,0 +1,248 @@
+package app.cta4j.twitter.service;
+
+import app.cta4j.common.dto.Secret;
+import app.cta4j.common.service.SecretService;
+import app.cta4j.twitter.exception.TwitterException;
+import com.rollbar.notifier.Rollbar;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+public final class TwitterTokenManager {
+    private static final Logger log = LoggerFactory.getLogger(TwitterTokenManager.class);
+
+    private static final Duration REFRESH_THRESHOLD = Duration.ofMinutes(5);
+    private static final Duration PROACTIVE_REFRESH_THRESHOLD = Duration.ofMinutes(15);
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(10);
+
+    private final SecretService secretService;
+    private final TwitterTokenRefreshService tokenRefreshService;
+    private final Rollbar rollbar;
+
+    private final AtomicReference<CompletableFuture<String>> inFlightRefresh;
+
+    private final AtomicInteger checkFailures;
+
+    private final ScheduledExecutorService scheduler;
+
+    @Autowired
+    public TwitterTokenManager(
+        SecretService secretService,
+        TwitterTokenRefreshService tokenRefreshService,
+        Rollbar rollbar
+    ) {
+        this.secretService = secretService;
+        this.tokenRefreshService = tokenRefreshService;
+        this.rollbar = rollbar;
+        this.inFlightRefresh = new AtomicReference<>();
+        this.checkFailures = new AtomicInteger();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform()
+                  .name("twitter-token-refresh")
+                  .daemon()
+                  .factory()
+        );
+
+        this.scheduler.execute(this::checkToken);
+    }
+
+    private Secret.TwitterSecret getTwitterSecret() {
+        return this.secretService.getSecret()
+                                 .twitter();
+    }
+
+    private static boolean isBefore(Instant expirationTime, Duration threshold) {
+        Instant thresholdTime = expirationTime.minus(threshold);
+
+        return Instant.now()
+                      .isBefore(thresholdTime);
+    }
+
+    private void runRefresh(CompletableFuture<String> future) {
+        try {
+            Secret.TwitterSecret twitterSecret = this.getTwitterSecret();
+
+            String accessToken;
+
+            if (isBefore(twitterSecret.expirationTime(), PROACTIVE_REFRESH_THRESHOLD)) {
+                accessToken = twitterSecret.accessToken();
+            } else {
+                accessToken = this.tokenRefreshService.refreshAccessToken();
+
+                log.info("Refreshed Twitter access token");
+            }
+
+            future.complete(accessToken);
+        } catch (RuntimeException e) {
+            String message = "Failed to refresh Twitter access token";
+
+            log.error(message, e);
+
+            this.rollbar.error(e, message);
+
+            future.completeExceptionally(e);
+        } finally {
+            this.inFlightRefresh.compareAndSet(future, null);
+        }
+    }
+
+    private CompletableFuture<String> refresh() {
+        while (true) {
+            CompletableFuture<String> existing = this.inFlightRefresh.get();
+
+            if (existing != null) {
+                return existing;
+            }
+
+            CompletableFuture<String> future = new CompletableFuture<>();
+
+            if (this.inFlightRefresh.compareAndSet(null, future)) {
+                Thread.startVirtualThread(() -> this.runRefresh(future));
+
+                return future;
+            }
+        }
+    }
+
+    private void scheduleCheck(Duration delay) {
+        if (this.scheduler.isShutdown()) {
+            return;
+        }
+
+        this.scheduler.schedule(this::checkToken, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Doubles the delay after each consecutive failure, up to {@link #MAX_RETRY_DELAY}.
+     */
+    private Duration getRetryDelay() {
+        int failures = this.checkFailures.incrementAndGet();
+
+        Duration delay = RETRY_DELAY.multipliedBy(1L << Math.min(failures - 1, 10));
+
+        return (delay.compareTo(MAX_RETRY_DELAY) > 0) ? MAX_RETRY_DELAY : delay;
+    }
+
+    private void scheduleRetry() {
+        this.scheduleCheck(this.getRetryDelay());
+    }
+
+    private void scheduleNext(Duration delay) {
+        this.checkFailures.set(0);
+
+        this.scheduleCheck(delay);
+    }
+
+    /**
+     * Schedules the next check from the refreshed token's expiry, but never sooner than {@link #RETRY_DELAY}, so a
+     * token that lives no longer than {@link #PROACTIVE_REFRESH_THRESHOLD} can't make the check refresh in a loop.
+     */
+    private void scheduleAfterRefresh() {
+        try {
+            Instant refreshTime = this.getTwitterSecret()
+                                      .expirationTime()
+                                      .minus(PROACTIVE_REFRESH_THRESHOLD);
+
+            Duration delay = Duration.between(Instant.now(), refreshTime);
+
+            this.scheduleNext((delay.compareTo(RETRY_DELAY) < 0) ? RETRY_DELAY : delay);
+        } catch (RuntimeException e) {
+            log.error("Failed to read the refreshed Twitter token", e);
+
+            this.scheduleRetry();
+        }
+    }
+
+    /**
+     * Always schedules the next check, even when reading the secret or starting a refresh fails, since a task that
+     * throws is never run again by the scheduler.
+     */
+    private void checkToken() {
+        try {
+            Instant expirationTime = this.getTwitterSecret()
+                                         .expirationTime();
+
+            Instant refreshTime = expirationTime.minus(PROACTIVE_REFRESH_THRESHOLD);
+
+            Duration delay = Duration.between(Instant.now(), refreshTime);
+
+            if (delay.isPositive()) {
+                this.scheduleNext(delay);
+
+                return;
+            }
+
+            this.refresh()
+                .whenComplete((accessToken, throwable) -> {
+                    if (throwable == null) {
+                        this.scheduleAfterRefresh();
+                    } else {
+                        this.scheduleRetry();
+                    }
+                });
+        } catch (RuntimeException e) {
+            String message = "Failed to check Twitter access token";
+
+            log.error(message, e);
+
+            this.rollbar.error(e, message);
+
+            this.scheduleRetry();
+        }
+    }
+
+    /**
+     * Returns the access token without blocking. The future is already complete unless the token has expired, in
+     * which case it completes when the in-flight refresh does.
+     */
+    public CompletableFuture<String> getAccessTokenAsync() {
+        Secret.TwitterSecret twitterSecret = this.getTwitterSecret();
+
+        Instant expirationTime = twitterSecret.expirationTime();
+
+        if (isBefore(expirationTime, PROACTIVE_REFRESH_THRESHOLD)) {
+            return CompletableFuture.completedFuture(twitterSecret.accessToken());
+        }
+
+        if (isBefore(expirationTime, REFRESH_THRESHOLD)) {
+            this.refresh();
+
+            return CompletableFuture.completedFuture(twitterSecret.accessToken());
+        }
+
+        return this.refresh()
+                   .exceptionally(throwable -> {
+                       Throwable cause = (throwable instanceof CompletionException) ? throwable.getCause() : throwable;
+
+                       throw new TwitterException("Failed to refresh Twitter access token", cause);
+                   });
+    }
+
+    public String getAccessToken() {
+        try {
+            return this.getAccessTokenAsync()
+                       .join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TwitterException twitterException) {
+                throw twitterException;
+            }
+
+            throw new TwitterException("Failed to refresh Twitter access token", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.scheduler.shutdownNow();
+    }
+}
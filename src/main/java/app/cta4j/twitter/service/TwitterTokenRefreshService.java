@@ -1,5 +1,7 @@
 package app.cta4j.twitter.service;
 
+import app.cta4j.common.http.PlatformEndpoints;
+import app.cta4j.common.metrics.MetricsRegistry;
 import app.cta4j.twitter.exception.TwitterException;
 import app.cta4j.common.service.SecretService;
 import com.nimbusds.oauth2.sdk.*;
@@ -22,25 +24,31 @@ import java.time.Instant;
 
 @Service
 public final class TwitterTokenRefreshService {
-    private static final String SCHEME = "https";
-    private static final String HOST_NAME = "api.x.com";
     private static final String OAUTH_TOKEN_ENDPOINT = "/2/oauth2/token";
+    private static final String STAGE_REFRESH_ACCESS_TOKEN = "twitter.refreshAccessToken";
 
     private final SecretService secretService;
+    private final MetricsRegistry metricsRegistry;
+
+    private final URI baseUri;
 
     @Autowired
-    public TwitterTokenRefreshService(SecretService secretService) {
+    public TwitterTokenRefreshService(
+        SecretService secretService,
+        MetricsRegistry metricsRegistry,
+        PlatformEndpoints platformEndpoints
+    ) {
         this.secretService = secretService;
+        this.metricsRegistry = metricsRegistry;
+        this.baseUri = platformEndpoints.getTwitter();
     }
 
     private URI getUri() {
         URI uri;
 
         try {
-            uri = new URIBuilder()
-                .setScheme(SCHEME)
-                .setHost(HOST_NAME)
-                .setPath(OAUTH_TOKEN_ENDPOINT)
+            uri = new URIBuilder(this.baseUri)
+                .appendPath(OAUTH_TOKEN_ENDPOINT)
                 .build();
         } catch (URISyntaxException e) {
             throw new TwitterException("Failed to build URI for token refresh endpoint", e);
@@ -75,6 +83,10 @@ public final class TwitterTokenRefreshService {
     }
 
     public String refreshAccessToken() {
+        return this.metricsRegistry.time(STAGE_REFRESH_ACCESS_TOKEN, "Twitter", this::requestAccessToken);
+    }
+
+    private String requestAccessToken() {
         URI uri = this.getUri();
 
         ClientAuthentication authentication = this.getAuthentication();